@@ -1,6 +1,10 @@
 package com.fillumina.collections;
 
 import com.fillumina.collections.AbstractEntryMap.InternalState;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.AbstractCollection;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.AbstractSet;
@@ -43,6 +47,8 @@ public abstract class AbstractEntryMap<K, V, E extends Entry<K, V>, M extends Ma
 
     // MUST be a power of 2
     private static final int INITIAL_SIZE = 16;
+    // the biggest table read from a stream regardless of its size
+    static final int MAX_STREAM_SLACK = 1 << 16;
 
     protected static Entry<?, ?> NULL_ENTRY = new SimpleImmutableEntry<>(null, null);
 
@@ -87,6 +93,17 @@ public abstract class AbstractEntryMap<K, V, E extends Entry<K, V>, M extends Ma
         state.mask = size - 1;
     }
 
+    /**
+     * @return the capacity of a table read from a stream (already checked to be a power of 2
+     *         bigger than the number of elements actually read). A capacity bigger than both 4 times the size and
+     *         {@link #MAX_STREAM_SLACK} (of a presized or emptied table) is reduced so that a
+     *         corrupted stream cannot allocate a huge table.
+     */
+    static int streamCapacity(int size, int capacity) {
+        final long needed = (long) nextPowerOf2(Math.max(size, 1)) << 2;
+        return (int) Math.min(capacity, Math.max(MAX_STREAM_SLACK, needed));
+    }
+
     // https://graphics.stanford.edu/~seander/bithacks.html#RoundUpPowerOf2
     static int nextPowerOf2(int v) {
         v--;
@@ -186,6 +203,14 @@ public abstract class AbstractEntryMap<K, V, E extends Entry<K, V>, M extends Ma
         // do nothing
     }
 
+    /**
+     * Override to substitute an entry with a new one instead of setting its value (i.e. because
+     * the entry is shared with another map).
+     */
+    protected boolean isEntryUpdatable(E entry) {
+        return true;
+    }
+
     protected boolean isKeyEqualsToEntry(Object key, E e) {
         if (e == null) {
             return false;
@@ -325,6 +350,32 @@ public abstract class AbstractEntryMap<K, V, E extends Entry<K, V>, M extends Ma
         return null;
     }
 
+    /**
+     * Inserts an entry whose key is known to be missing without comparing it with the keys
+     * already present. {@link #ensureCapacity(int) } must have been called already.
+     */
+    protected void insertMissing(K key, V value, S internalState) {
+        int idx = hash(key) & internalState.mask;
+        while (internalState.array[idx] != null) {
+            idx = (idx + 1) & internalState.mask;
+        }
+        internalState.array[idx] = createEntry(key, value, internalState);
+        internalState.size++;
+    }
+
+    /**
+     * Resizes the table (at most once) so that it can contain the given number of entries without
+     * any further resize.
+     */
+    protected void ensureCapacity(int expectedSize) {
+        final S internalState = getInternalStateClone();
+        if (internalState.array == null || expectedSize > (internalState.array.length >> 1)) {
+            // the table must be at least twice the number of entries
+            resize(Math.max(INITIAL_SIZE, expectedSize << 1), internalState);
+            setInternalState(internalState);
+        }
+    }
+
     @Override
     public V put(K key, V value) {
         readOnlyCheck();
@@ -343,10 +394,14 @@ public abstract class AbstractEntryMap<K, V, E extends Entry<K, V>, M extends Ma
         while ((e = internalState.array[idx]) != null) {
             if (isKeyEqualsToEntry(key, e)) {
                 V old = e.getValue();
-                try {
-                    e.setValue(value);
-                } catch (UnsupportedOperationException ex) {
-                    // some Entry implementations doesn't allow setting values, creates a new entry
+                if (isEntryUpdatable(e)) {
+                    try {
+                        e.setValue(value);
+                    } catch (UnsupportedOperationException ex) {
+                        // some Entry implementations doesn't allow setting values, creates a new entry
+                        internalState.array[idx] = createEntry(key, value, internalState);
+                    }
+                } else {
                     internalState.array[idx] = createEntry(key, value, internalState);
                 }
                 setInternalState(internalState);
@@ -372,12 +427,15 @@ public abstract class AbstractEntryMap<K, V, E extends Entry<K, V>, M extends Ma
     }
 
     protected void resize(int newSize, S internalState) {
+        final Object event = CollectionEvents.beginResize();
+        final int oldTableSize = CollectionEvents.tableSize(internalState);
         AbstractEntryMap<K, V, E, M, S> map = createMap(nextPowerOf2(newSize) >> 1);
         forEach(e -> map.putEntry(e));
         S mapState = map.getInternalState();
         internalState.array = mapState.array;
         internalState.size = mapState.size;
         internalState.mask = mapState.mask;
+        CollectionEvents.commitResize(event, getClass(), internalState, oldTableSize);
     }
 
     @Override
@@ -524,8 +582,10 @@ public abstract class AbstractEntryMap<K, V, E extends Entry<K, V>, M extends Ma
     public boolean retainAll(Collection<K> coll) {
         readOnlyCheck();
         AbstractEntryMap<K, V, E, M, S> tmap = createMap(size());
+        final S internalState = getInternalState();
         for (K k : coll) {
-            E e = getEntry(k);
+            // the stored entry and not the one getEntry() could return to clients
+            E e = innerGetEntry(k, internalState);
             if (e != null) {
                 tmap.putEntry(e);
             }
@@ -534,6 +594,73 @@ public abstract class AbstractEntryMap<K, V, E extends Entry<K, V>, M extends Ma
         return !tmap.isEmpty();
     }
 
+    /**
+     * Writes the size and the capacity of the table followed by keys and values in a flat sequence.
+     * To be called by the {@code writeObject()} method of serializable subclasses.
+     */
+    protected void writeEntries(ObjectOutputStream out) throws IOException {
+        final S internalState = getInternalState();
+        out.writeInt(internalState.size);
+        out.writeInt(internalState.array == null ? 0 : internalState.array.length);
+        if (internalState.size > 0) {
+            for (E e : internalState.array) {
+                if (e != null) {
+                    out.writeObject(e.getKey());
+                    out.writeObject(e.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the entries written by {@link #writeEntries(java.io.ObjectOutputStream) } directly
+     * into a table with the original capacity (so without resizing it). Keys must be placed again
+     * because their hash codes could be different in another JVM. The capacity is validated and
+     * bounded by {@link #streamCapacity(int, int) } and the table is allocated only after the
+     * entries have been read. To be called by the {@code readObject()} method of serializable
+     * subclasses.
+     */
+    @SuppressWarnings("unchecked")
+    protected void readEntries(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        final int size = in.readInt();
+        final int capacity = in.readInt();
+        if (size < 0 || capacity < 0 || (capacity & (capacity - 1)) != 0 ||
+                (size > 0 && size >= capacity)) {
+            throw new InvalidObjectException("invalid size=" + size + " capacity=" + capacity);
+        }
+        final S internalState = createNewInternalState();
+        // the table is allocated once the entries have been actually read
+        final Object[] keyValues = SerializedForm.readObjects(in, size << 1);
+        final int tableSize = streamCapacity(size, capacity);
+        if (tableSize > 0) {
+            final E[] array = (E[]) new Entry[tableSize];
+            final int mask = tableSize - 1;
+            for (int i = 0; i < keyValues.length; i += 2) {
+                final K k = (K) keyValues[i];
+                final V v = (V) keyValues[i + 1];
+                int idx = hash(k) & mask;
+                while (array[idx] != null) {
+                    idx = (idx + 1) & mask;
+                }
+                array[idx] = createEntry(k, v, internalState);
+            }
+            internalState.array = array;
+            internalState.mask = mask;
+            internalState.size = size;
+        }
+        setInternalState(internalState);
+    }
+
+    /**
+     * Reports load factor, probe lengths, clusters and displacements of the entries of the hash
+     * table. It only reads the current internal state so it can be called on a live map (if the
+     * map is modified concurrently the statistics could be slightly inconsistent).
+     */
+    public TableStats tableStats() {
+        // the mask is derived from the array itself because they are not set atomically
+        return TableStats.of(getInternalState().array, this);
+    }
+
     public void forEach(Consumer<E> consumer) {
         final S internalState = getInternalState();
         if (internalState.size == 0 || internalState.array == null) {
@@ -585,7 +712,8 @@ public abstract class AbstractEntryMap<K, V, E extends Entry<K, V>, M extends Ma
 
             @Override
             public Iterator<Entry<K, V>> iterator() {
-                final S internalState = getInternalStateClone();
+                // reading doesn't need a private copy of a shared state, remove() makes it
+                final S internalState = getInternalState();
                 if (internalState.size == 0) {
                     return EmptyIterator.empty();
                 }
@@ -0,0 +1,382 @@
+package com.fillumina.collections;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A {@link java.util.Map} that uses the compact interleaved array of {@link ArrayMap} while it
+ * contains few entries and migrates to the hash table of {@link TableMap} when its size grows
+ * past {@link #getPromoteThreshold()}. It goes back to the array layout when its size falls below
+ * {@link #getDemoteThreshold()}: the gap between the two thresholds avoids continuous migrations
+ * for maps whose size oscillates around a threshold.
+ * <p>
+ * The default threshold is close to the size at which {@link TableMap} lookups become faster
+ * than {@link ArrayMap} linear scans: {@code AdaptiveMapCrossoverTest} measured it at about 3
+ * entries for {@link String} keys with a common prefix (expensive {@code equals()}) and about 12
+ * entries for {@link Integer} keys.
+ * <p>
+ * While using the array layout the entries are <i>cursors</i> (see {@link BaseArrayMap}) so
+ * don't use {@link Map.Entry} outside loops. It's not thread safe.
+ *
+ * @see ArrayMap
+ * @see TableMap
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class AdaptiveMap<K, V> extends AbstractMap<K, V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * A compromise between the sizes from which {@link TableMap} lookups are faster than
+     * {@link ArrayMap} ones: smaller with keys having expensive {@code equals()} (i.e. strings
+     * sharing a prefix), bigger with cheap ones (i.e. integers). They are measured by
+     * {@code AdaptiveMapCrossoverTest} (run with {@code -Dcrossover=true}).
+     */
+    public static final int DEFAULT_PROMOTE_THRESHOLD = 8;
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> MapBuilder<AdaptiveMap<K, V>, K, V> builder() {
+        return new MapBuilder<>(l -> new AdaptiveMap<K, V>(new ArrayMap<K, V>(l)));
+    }
+
+    private final int promoteThreshold;
+    private final int demoteThreshold;
+    // either an ArrayMap or a TableMap (ImmutableTableMap if immutable)
+    private Map<K, V> delegate;
+    private transient Set<Entry<K, V>> entrySet;
+
+    public AdaptiveMap() {
+        this(DEFAULT_PROMOTE_THRESHOLD);
+    }
+
+    /**
+     * The map is demoted to an array when its size falls below half the promote threshold.
+     *
+     * @param promoteThreshold the size above which the hash table is used
+     */
+    public AdaptiveMap(int promoteThreshold) {
+        this(promoteThreshold, promoteThreshold >> 1);
+    }
+
+    /**
+     * @param promoteThreshold the size above which the hash table is used
+     * @param demoteThreshold  the size below which the hash table goes back to an array
+     */
+    public AdaptiveMap(int promoteThreshold, int demoteThreshold) {
+        if (demoteThreshold > promoteThreshold) {
+            throw new IllegalArgumentException("demote threshold (" + demoteThreshold +
+                    ") must not be greater than promote threshold (" + promoteThreshold + ")");
+        }
+        this.promoteThreshold = promoteThreshold;
+        this.demoteThreshold = demoteThreshold;
+        this.delegate = new ArrayMap<>();
+    }
+
+    public AdaptiveMap(Map<? extends K, ? extends V> map) {
+        this(DEFAULT_PROMOTE_THRESHOLD);
+        this.delegate = map.size() > promoteThreshold ?
+                new TableMap<>(map) :
+                new ArrayMap<>(map);
+    }
+
+    /** Clone constructor. */
+    public AdaptiveMap(AdaptiveMap<? extends K, ? extends V> copy) {
+        this(copy.promoteThreshold, copy.demoteThreshold);
+        this.delegate = copy.isHashed() ?
+                new TableMap<>(copy.delegate) :
+                new ArrayMap<>((ArrayMap<? extends K, ? extends V>) copy.delegate);
+    }
+
+    private AdaptiveMap(ArrayMap<K, V> arrayMap) {
+        this(DEFAULT_PROMOTE_THRESHOLD);
+        this.delegate = arrayMap.size() > promoteThreshold ?
+                new TableMap<>(arrayMap) :
+                arrayMap;
+    }
+
+    /** Used by {@link ImmutableAdaptiveMap}. */
+    protected AdaptiveMap(AdaptiveMap<K, V> copy, boolean immutable) {
+        this(copy.promoteThreshold, copy.demoteThreshold);
+        if (copy.delegate instanceof TableMap) {
+            this.delegate = ((TableMap<K, V>) copy.delegate).immutable();
+        } else if (copy.delegate instanceof ArrayMap) {
+            this.delegate = ((ArrayMap<K, V>) copy.delegate).immutable();
+        } else {
+            // already immutable
+            this.delegate = copy.delegate;
+        }
+    }
+
+    /** Override to provide immutability. */
+    protected void readOnlyCheck() throws UnsupportedOperationException {
+        // do nothing
+    }
+
+    public int getPromoteThreshold() {
+        return promoteThreshold;
+    }
+
+    public int getDemoteThreshold() {
+        return demoteThreshold;
+    }
+
+    /** @return true if the map is currently using the hash table layout. */
+    public boolean isHashed() {
+        return !(delegate instanceof ArrayMap);
+    }
+
+    private void promote(int expectedSize) {
+        TableMap<K, V> table = new TableMap<>(expectedSize);
+        table.putAll(delegate);
+        delegate = table;
+    }
+
+    private void demote() {
+        delegate = new ArrayMap<>(delegate);
+    }
+
+    private void demoteCheck() {
+        if (isHashed() && delegate.size() < demoteThreshold) {
+            demote();
+        }
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return delegate.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return delegate.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        readOnlyCheck();
+        V prev = delegate.put(key, value);
+        if (!isHashed() && delegate.size() > promoteThreshold) {
+            promote(delegate.size());
+        }
+        return prev;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        readOnlyCheck();
+        final int expectedSize = delegate.size() + m.size();
+        if (!isHashed() && expectedSize > promoteThreshold) {
+            // avoid growing the array one entry at a time
+            promote(expectedSize);
+        }
+        delegate.putAll(m);
+    }
+
+    @Override
+    public V remove(Object key) {
+        readOnlyCheck();
+        V prev = delegate.remove(key);
+        demoteCheck();
+        return prev;
+    }
+
+    @Override
+    public void clear() {
+        readOnlyCheck();
+        delegate = new ArrayMap<>();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            // the delegate can change so it must be accessed at every call
+            entrySet = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new DemotingIterator<>(Function.identity());
+                }
+
+                @Override
+                public int size() {
+                    return delegate.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return delegate.entrySet().contains(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    readOnlyCheck();
+                    if (delegate.entrySet().remove(o)) {
+                        demoteCheck();
+                        return true;
+                    }
+                    return false;
+                }
+
+                @Override
+                public void clear() {
+                    AdaptiveMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    // keySet() and values() are not cached to keep the footprint of small maps
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new DemotingIterator<>(Entry::getKey);
+            }
+
+            @Override
+            public int size() {
+                return delegate.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return delegate.containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                readOnlyCheck();
+                if (delegate.containsKey(o)) {
+                    AdaptiveMap.this.remove(o);
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public void clear() {
+                AdaptiveMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new DemotingIterator<>(Entry::getValue);
+            }
+
+            @Override
+            public int size() {
+                return delegate.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return delegate.containsValue(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                readOnlyCheck();
+                final Iterator<V> iterator = delegate.values().iterator();
+                while (iterator.hasNext()) {
+                    if (Objects.equals(o, iterator.next())) {
+                        iterator.remove();
+                        demoteCheck();
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public void clear() {
+                AdaptiveMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * Iterates the current delegate. The delegate cannot be replaced while it's being iterated
+     * so the map is demoted when an iteration that removed entries gets to its end.
+     */
+    private class DemotingIterator<T> implements Iterator<T> {
+        private final Map<K, V> iterated = delegate;
+        private final Iterator<Entry<K, V>> iterator = iterated.entrySet().iterator();
+        private final Function<Entry<K, V>, T> mapper;
+        private K lastKey;
+        private boolean removed;
+
+        DemotingIterator(Function<Entry<K, V>, T> mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            final boolean hasNext = iterator.hasNext();
+            if (!hasNext && removed) {
+                removed = false;
+                demoteCheck();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            final Entry<K, V> entry = iterator.next();
+            lastKey = entry.getKey();
+            return mapper.apply(entry);
+        }
+
+        @Override
+        public void remove() {
+            readOnlyCheck();
+            if (iterated == delegate) {
+                iterator.remove();
+                removed = true;
+            } else {
+                // already demoted at the end of the iteration
+                AdaptiveMap.this.remove(lastKey);
+            }
+        }
+    }
+
+    /** @return an immutable <b>clone</b>. */
+    public AdaptiveMap<K, V> immutable() {
+        return new ImmutableAdaptiveMap<>(this);
+    }
+
+    @Override
+    public AdaptiveMap<K, V> clone() {
+        return new AdaptiveMap<>(this);
+    }
+
+    // equals(), hashCode() and toString() are all inherited from AbstractMap
+}
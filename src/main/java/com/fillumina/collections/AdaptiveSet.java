@@ -0,0 +1,475 @@
+package com.fillumina.collections;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link java.util.Set} that uses the same very compact representations of {@link SmallSet}
+ * while it contains few elements (a single object or an array sized exactly) and switches to an
+ * open addressing hash table when its size grows past {@link #PROMOTE_THRESHOLD}. It goes back to
+ * an array when its size falls below {@link #DEMOTE_THRESHOLD}. Its access time is O(1) for big
+ * sets and it doesn't degrade to O(n^2) when many elements are inserted.
+ * <p>
+ * It maintains insertion order only while using an array. Doesn't accept {@code null}.
+ * It's not thread safe.
+ *
+ * @see SmallSet
+ * @see AdaptiveMap
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class AdaptiveSet<T> extends AbstractSet<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** The same as {@link AdaptiveMap#DEFAULT_PROMOTE_THRESHOLD}. */
+    public static final int PROMOTE_THRESHOLD = AdaptiveMap.DEFAULT_PROMOTE_THRESHOLD;
+
+    public static final int DEMOTE_THRESHOLD = PROMOTE_THRESHOLD >> 1;
+
+    public static final AdaptiveSet<?> EMPTY = new ImmutableAdaptiveSet<Object>();
+
+    // if not hashed can be either:
+    // 1) null if size == 0
+    // 2) the only element if size == 1
+    // 3) an array of exactly size elements
+    // otherwise it's an hash table always at least half empty
+    // all fields are written by writeObject()
+    private transient Object obj;
+    private transient int size;
+    // doesn't take any space because of the object alignment
+    private transient boolean hashed;
+
+    public AdaptiveSet() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public AdaptiveSet(T... elements) {
+        if (elements != null) {
+            addAllElements(elements);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public AdaptiveSet(Collection<? extends T> elements) {
+        this((T[]) elements.toArray());
+    }
+
+    public AdaptiveSet(AdaptiveSet<? extends T> copy) {
+        this.size = copy.size;
+        this.hashed = copy.hashed;
+        this.obj = (copy.hashed || copy.size > 1) ? ((Object[]) copy.obj).clone() : copy.obj;
+    }
+
+    protected void readOnlyCheck() {
+        // do nothing
+    }
+
+    /** @return true if the set is currently using the hash table. */
+    public boolean isHashed() {
+        return hashed;
+    }
+
+    // copied from AbstractEntryMap#hash()
+    private static int hash(Object o) {
+        int h = o.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        return h ^ (h >>> 7) ^ (h >>> 4);
+    }
+
+    private static Object[] createTable(int expectedSize) {
+        return new Object[createTableLength(expectedSize)];
+    }
+
+    private static int createTableLength(int expectedSize) {
+        // keeps at least half of the table empty
+        return AbstractEntryMap.nextPowerOf2(expectedSize) << 1;
+    }
+
+    /** @return the index of the element or of the empty slot where it should be inserted */
+    private static int tableIndexOf(Object[] table, Object o) {
+        final int mask = table.length - 1;
+        int idx = hash(o) & mask;
+        Object e;
+        while ((e = table[idx]) != null && !o.equals(e)) {
+            idx = (idx + 1) & mask;
+        }
+        return idx;
+    }
+
+    private static Object[] rehash(Object[] elements, int count, int expectedSize) {
+        Object[] table = createTable(expectedSize);
+        for (int i = 0; i < count; i++) {
+            Object e = elements[i];
+            if (e != null) {
+                table[tableIndexOf(table, e)] = e;
+            }
+        }
+        return table;
+    }
+
+    private void addAllElements(T[] elements) {
+        final boolean promoted = bulkPromote(elements.length);
+        for (T t : elements) {
+            addElement(t);
+        }
+        bulkPromotionCheck(promoted);
+    }
+
+    /**
+     * Avoids growing the array one element at a time.
+     *
+     * @return true if the set has been promoted
+     */
+    private boolean bulkPromote(int count) {
+        if (hashed || size + count <= PROMOTE_THRESHOLD) {
+            return false;
+        }
+        promote(size + count);
+        return true;
+    }
+
+    /**
+     * The table of a bulk promotion is sized counting the duplicates too so it could be
+     * unneeded or too big.
+     */
+    private void bulkPromotionCheck(boolean promoted) {
+        if (!promoted) {
+            return;
+        }
+        if (size <= PROMOTE_THRESHOLD) {
+            demote();
+        } else {
+            final Object[] table = (Object[]) obj;
+            if (createTableLength(size) < table.length) {
+                obj = rehash(table, table.length, size);
+            }
+        }
+    }
+
+    private void promote(int expectedSize) {
+        if (hashed) {
+            return;
+        }
+        if (size == 0) {
+            obj = createTable(expectedSize);
+        } else if (size == 1) {
+            Object[] table = createTable(expectedSize);
+            table[tableIndexOf(table, obj)] = obj;
+            obj = table;
+        } else {
+            obj = rehash((Object[]) obj, size, expectedSize);
+        }
+        hashed = true;
+    }
+
+    private void demoteCheck() {
+        if (hashed && size < DEMOTE_THRESHOLD) {
+            demote();
+        }
+    }
+
+    private void demote() {
+        Object[] table = (Object[]) obj;
+        Object[] array = new Object[size];
+        int index = 0;
+        for (Object e : table) {
+            if (e != null) {
+                array[index++] = e;
+            }
+        }
+        obj = size == 0 ? null : (size == 1 ? array[0] : array);
+        hashed = false;
+    }
+
+    @Override
+    public boolean add(T e) {
+        readOnlyCheck();
+        return addElement(e);
+    }
+
+    private boolean addElement(T e) {
+        if (e == null) {
+            throw new IllegalArgumentException("cannot add null elements");
+        }
+        if (hashed) {
+            Object[] table = (Object[]) obj;
+            int idx = tableIndexOf(table, e);
+            if (table[idx] != null) {
+                return false;
+            }
+            table[idx] = e;
+            size++;
+            if (size > (table.length >> 1)) {
+                obj = rehash(table, table.length, size);
+            }
+            return true;
+        }
+        if (size == 0) {
+            obj = e;
+            size = 1;
+            return true;
+        }
+        if (contains(e)) {
+            return false;
+        }
+        if (size == PROMOTE_THRESHOLD) {
+            promote(size + 1);
+            Object[] table = (Object[]) obj;
+            table[tableIndexOf(table, e)] = e;
+        } else if (size == 1) {
+            obj = new Object[] {obj, e};
+        } else {
+            Object[] array = (Object[]) obj;
+            Object[] next = new Object[size + 1];
+            System.arraycopy(array, 0, next, 0, size);
+            next[size] = e;
+            obj = next;
+        }
+        size++;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean addAll(Collection<? extends T> c) {
+        readOnlyCheck();
+        final boolean promoted = bulkPromote(c.size());
+        boolean modified = super.addAll(c);
+        bulkPromotionCheck(promoted);
+        return modified;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null || size == 0) {
+            return false;
+        } else if (hashed) {
+            Object[] table = (Object[]) obj;
+            return table[tableIndexOf(table, o)] != null;
+        } else if (size == 1) {
+            return o.equals(obj);
+        }
+        return arrayIndexOf((Object[]) obj, o) >= 0;
+    }
+
+    private static int arrayIndexOf(Object[] array, Object o) {
+        for (int i = array.length - 1; i >= 0; i--) {
+            if (o.equals(array[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        readOnlyCheck();
+        if (o == null || size == 0) {
+            return false;
+        } else if (hashed) {
+            Object[] table = (Object[]) obj;
+            int idx = tableIndexOf(table, o);
+            if (table[idx] == null) {
+                return false;
+            }
+            removeTableIndex(table, idx);
+            size--;
+            demoteCheck();
+            return true;
+        } else if (size == 1) {
+            if (o.equals(obj)) {
+                clear();
+                return true;
+            }
+            return false;
+        }
+        Object[] array = (Object[]) obj;
+        int idx = arrayIndexOf(array, o);
+        if (idx < 0) {
+            return false;
+        }
+        if (size == 2) {
+            obj = array[1 - idx];
+        } else {
+            Object[] next = new Object[size - 1];
+            System.arraycopy(array, 0, next, 0, idx);
+            System.arraycopy(array, idx + 1, next, idx, size - idx - 1);
+            obj = next;
+        }
+        size--;
+        return true;
+    }
+
+    // same algorithm used by AbstractEntryMap#removeIndex()
+    private static void removeTableIndex(Object[] table, int idx) {
+        final int mask = table.length - 1;
+        table[idx] = null;
+        // relocate following elements until null
+        while (true) {
+            idx = (idx + 1) & mask;
+            Object e = table[idx];
+            if (e == null) {
+                return;
+            }
+            table[idx] = null;
+            table[tableIndexOf(table, e)] = e;
+        }
+    }
+
+    @Override
+    public void clear() {
+        readOnlyCheck();
+        obj = null;
+        size = 0;
+        hashed = false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<T> iterator() {
+        if (size == 0) {
+            return EmptyIterator.empty();
+        }
+        if (size == 1 && !hashed) {
+            final Object element = obj;
+            return new Iterator<T>() {
+                boolean hasNext = true;
+
+                @Override
+                public boolean hasNext() {
+                    return hasNext;
+                }
+
+                @Override
+                public T next() {
+                    if (!hasNext) {
+                        throw new NoSuchElementException();
+                    }
+                    hasNext = false;
+                    return (T) element;
+                }
+
+                @Override
+                public void remove() {
+                    AdaptiveSet.this.remove(element);
+                }
+            };
+        }
+        final boolean tableIterator = hashed;
+        return new Iterator<T>() {
+            // arrays are replaced at every modification but a table is modified in place
+            // so it gets copied before removing elements through the iterator
+            Object[] array = (Object[]) obj;
+            boolean copied = !tableIterator;
+            int pos = nextPosition(0);
+            Object current;
+
+            private int nextPosition(int p) {
+                while (p < array.length && array[p] == null) {
+                    p++;
+                }
+                return p;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return pos < array.length;
+            }
+
+            @Override
+            public T next() {
+                if (pos >= array.length) {
+                    throw new NoSuchElementException("reading past end");
+                }
+                current = array[pos];
+                pos = nextPosition(pos + 1);
+                return (T) current;
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                if (!copied && obj == array) {
+                    obj = array.clone();
+                    copied = true;
+                }
+                AdaptiveSet.this.remove(current);
+                current = null;
+            }
+        };
+    }
+
+    /** @return immutable clone */
+    public ImmutableAdaptiveSet<T> immutable() {
+        return new ImmutableAdaptiveSet<>(this);
+    }
+
+    // equals() and hashCode() are imported from AbstractSet, toString() from AbstractCollection
+
+    /**
+     * Writes the size, the size of the hash table (0 if not hashed) and the elements. The array
+     * layouts are read back as they are while the hash table is rebuilt with the same size.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        if (hashed) {
+            final Object[] table = (Object[]) obj;
+            out.writeInt(table.length);
+            for (Object o : table) {
+                if (o != null) {
+                    out.writeObject(o);
+                }
+            }
+        } else {
+            out.writeInt(0);
+            if (size == 1) {
+                out.writeObject(obj);
+            } else {
+                for (Object o : (Object[]) obj) {
+                    out.writeObject(o);
+                }
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int length = in.readInt();
+        final int tableLength = in.readInt();
+        if (length < 0 || tableLength < 0 || (tableLength & (tableLength - 1)) != 0 ||
+                (tableLength > 0 && length >= tableLength)) {
+            throw new InvalidObjectException("invalid size=" + length + " table=" + tableLength);
+        }
+        if (tableLength > 0) {
+            // the table is allocated once the elements have been actually read
+            final Object[] elements = SerializedForm.readObjects(in, length);
+            final Object[] table =
+                    new Object[AbstractEntryMap.streamCapacity(length, tableLength)];
+            for (Object o : elements) {
+                table[tableIndexOf(table, o)] = o;
+            }
+            obj = table;
+            hashed = true;
+        } else if (length == 1) {
+            obj = in.readObject();
+        } else if (length > 1) {
+            obj = SerializedForm.readObjects(in, length);
+        }
+        size = length;
+    }
+}
@@ -18,6 +18,7 @@ import java.util.Map.Entry;
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
 public class ArrayMap<K, V> extends BaseArrayMap<K, V> implements Iterable<Entry<K, V>> {
+    private static final long serialVersionUID = 1L;
 
     public static final ArrayMap<?, ?> EMPTY = new ImmutableArrayMap<>();
 
@@ -61,6 +62,9 @@ public class ArrayMap<K, V> extends BaseArrayMap<K, V> implements Iterable<Entry
             array = new Object[2];
             array[0] = key;
             array[1] = value;
+            if (fingerprints != null) {
+                fingerprints = Fingerprints.append(Fingerprints.EMPTY, key);
+            }
             return null;
         }
         int index = getAbsoluteIndexOfKey(key);
@@ -71,6 +75,9 @@ public class ArrayMap<K, V> extends BaseArrayMap<K, V> implements Iterable<Entry
             newArray[index] = key;
             newArray[index + 1] = value;
             array = newArray;
+            if (fingerprints != null) {
+                fingerprints = Fingerprints.append(fingerprints, key);
+            }
             return null;
         } else {
             V prev = (V) array[index + 1];
@@ -79,6 +86,17 @@ public class ArrayMap<K, V> extends BaseArrayMap<K, V> implements Iterable<Entry
         }
     }
 
+    /**
+     * Keeps a one byte fingerprint of each key so that searches call {@code equals()} only on
+     * keys having the same fingerprint. Useful if keys have expensive {@code equals()} and misses
+     * are frequent. Fingerprints are kept by clones and immutable copies.
+     */
+    public ArrayMap<K, V> withFingerprints() {
+        readOnlyCheck();
+        computeFingerprints();
+        return this;
+    }
+
     /**
      * @return an immutable <b>clone</b>.
      */
@@ -151,5 +169,8 @@ public class ArrayMap<K, V> extends BaseArrayMap<K, V> implements Iterable<Entry
                 }
             }
         } while (swapped);
+        if (fingerprints != null) {
+            computeFingerprints();
+        }
     }
 }
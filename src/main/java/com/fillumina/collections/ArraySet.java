@@ -1,11 +1,15 @@
 package com.fillumina.collections;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractSet;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 
 /**
@@ -19,64 +23,67 @@ import java.util.Objects;
  */
 public class ArraySet<T> extends AbstractSet<T> implements Serializable {
 
-    private static final long serialVersionUID = 1L;
+    // streams of the former default serialized form (1L) are rejected
+    private static final long serialVersionUID = 2L;
 
     public static final ArraySet<?> EMPTY = new ImmutableArraySet<Object>();
 
-    private T[] array;
+    // elements are written by writeObject()
+    private transient T[] array;
+
+    // optional fingerprints of the elements, null if not used
+    private transient byte[] fingerprints;
 
     public ArraySet() {
     }
 
+    /** Duplicates are removed in bulk keeping the first occurrence. */
     @SuppressWarnings("unchecked")
     public ArraySet(T... elements) {
-        if (elements != null) {
-            final int length = elements.length;
-            switch (length) {
-                case 0:
-                    // do nothing
-                    break;
-                case 1:
-                    array = elements;
-                    break;
-                default:
-                    Object[] tmpArray = new Object[length];
-                    int index = 0;
-                    ELEM:
-                    for (T t : elements) {
-                        for (int i = 0; i < index; i++) {
-                            if (Objects.equals(tmpArray[i], t)) {
-                                continue ELEM;
-                            }
-                        }
-                        tmpArray[index] = t;
-                        index++;
-                    }
-                    if (index < length) {
-                        this.array = (T[]) new Object[index];
-                        System.arraycopy(tmpArray, 0, this.array, 0, index);
-                    } else {
-                        this.array = (T[]) tmpArray;
-                    }
-            }
+        if (elements != null && elements.length > 0) {
+            final Object[] distinct = DistinctArrays.distinct(null, elements);
+            // never share the array of the caller
+            this.array = (T[]) (distinct == elements ? elements.clone() : distinct);
         }
     }
 
+    /**
+     * Duplicates are removed in bulk keeping the first occurrence, the check is skipped if the
+     * given collection is already a set.
+     */
     @SuppressWarnings("unchecked")
     public ArraySet(Collection<? extends T> elements) {
-        this((T[])elements.toArray());
+        if (!elements.isEmpty()) {
+            // toArray() returns a copy that can be owned by this set
+            final Object[] copy = elements.toArray();
+            this.array = (T[]) (DistinctArrays.isDistinct(elements) ?
+                    copy : DistinctArrays.distinct(null, copy));
+        }
     }
 
     public ArraySet(ArraySet<? extends T> smallSet) {
         if (smallSet.array != null) {
             this.array = smallSet.array;
         }
+        // arrays are never modified in place so they can be shared
+        this.fingerprints = smallSet.fingerprints;
     }
 
     protected void readOnlyCheck() {
         // do nothing
     }
 
+    /**
+     * Keeps a one byte fingerprint of each element so that searches call {@code equals()} only on
+     * elements having the same fingerprint. Useful if elements have expensive {@code equals()} and
+     * misses are frequent. Fingerprints are kept by copies and immutable clones.
+     */
+    public ArraySet<T> withFingerprints() {
+        readOnlyCheck();
+        fingerprints = Fingerprints.of(array, 1);
+        return this;
+    }
+
     /**
      * Get the element at the given index.
      */
@@ -97,13 +104,27 @@ public class ArraySet<T> extends AbstractSet<T> implements Serializable {
         if (array == null) {
             return -1;
         } else {
+            return indexOfElement(t);
+        }
+    }
+
+    private int indexOfElement(Object o) {
+        final byte[] fp = fingerprints;
+        if (fp != null) {
+            final byte elementFingerprint = Fingerprints.of(o);
             for (int i = array.length - 1; i >= 0; i--) {
-                if (t.equals(array[i])) {
+                if (fp[i] == elementFingerprint && equals(o, array[i])) {
                     return i;
                 }
             }
             return -1;
         }
+        for (int i = array.length - 1; i >= 0; i--) {
+            if (equals(o, array[i])) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -113,7 +134,9 @@ public class ArraySet<T> extends AbstractSet<T> implements Serializable {
     public ArraySet<T> sort(Comparator<T> comparator) {
         readOnlyCheck();
         if (array != null) {
+            array = array.clone();
             Arrays.sort(array, comparator);
+            updateFingerprints();
         }
         return this;
     }
@@ -125,11 +148,19 @@ public class ArraySet<T> extends AbstractSet<T> implements Serializable {
     public ArraySet<T> sort() {
         readOnlyCheck();
         if (array != null) {
+            array = array.clone();
             Arrays.sort(array);
+            updateFingerprints();
         }
         return this;
     }
 
+    private void updateFingerprints() {
+        if (fingerprints != null) {
+            fingerprints = Fingerprints.of(array, 1);
+        }
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public boolean add(T e) {
@@ -139,6 +170,9 @@ public class ArraySet<T> extends AbstractSet<T> implements Serializable {
         }
         if (array == null) {
             array = (T[]) new Object[]{e};
+            if (fingerprints != null) {
+                fingerprints = Fingerprints.append(Fingerprints.EMPTY, e);
+            }
             return true;
         } else {
             if (!contains(e)) {
@@ -146,12 +180,42 @@ public class ArraySet<T> extends AbstractSet<T> implements Serializable {
                 System.arraycopy(array, 0, next, 0, array.length);
                 next[array.length] = e;
                 array = next;
+                if (fingerprints != null) {
+                    fingerprints = Fingerprints.append(fingerprints, e);
+                }
                 return true;
             }
         }
         return false;
     }
 
+    /**
+     * Adds all the elements in bulk allocating the new array only once. Duplicates are checked
+     * using a temporary hash table for big collections.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean addAll(Collection<? extends T> c) {
+        readOnlyCheck();
+        if (c.isEmpty()) {
+            return false;
+        }
+        final Object[] incoming = c.toArray();
+        for (Object o : incoming) {
+            if (o == null) {
+                throw new IllegalArgumentException("cannot add null elements");
+            }
+        }
+        final Object[] added = array == null && DistinctArrays.isDistinct(c) ?
+                incoming : DistinctArrays.distinct(array, incoming);
+        if (added.length == 0) {
+            return false;
+        }
+        array = (T[]) DistinctArrays.concat(array, added);
+        updateFingerprints();
+        return true;
+    }
+
     @Override
     public boolean retainAll(Collection<?> c) {
         Objects.requireNonNull(c);
@@ -176,21 +240,12 @@ public class ArraySet<T> extends AbstractSet<T> implements Serializable {
         if (e == null || array == null) {
             return false;
         }
-        int l = array.length;
-        for (int i = 0; i < l; i++) {
-            if (equals(e, array[i])) {
-                T[] na = (T[]) new Object[l - 1];
-                if (i > 0) {
-                    System.arraycopy(array, 0, na, 0, i);
-                }
-                if (i < l - 1) {
-                    System.arraycopy(array, i + 1, na, i, l - i - 1);
-                }
-                array = na;
-                return true;
-            }
+        int i = indexOfElement(e);
+        if (i < 0) {
+            return false;
         }
-        return false;
+        removeAtIndex(i);
+        return true;
     }
 
     @SuppressWarnings("unchecked")
@@ -206,6 +261,9 @@ public class ArraySet<T> extends AbstractSet<T> implements Serializable {
             System.arraycopy(array, i + 1, na, i, l - i - 1);
         }
         array = na;
+        if (fingerprints != null) {
+            fingerprints = Fingerprints.removeAtIndex(fingerprints, i);
+        }
         return oldValue;
     }
 
@@ -214,14 +272,8 @@ public class ArraySet<T> extends AbstractSet<T> implements Serializable {
     public boolean contains(Object o) {
         if (array == null) {
             return false;
-        } else {
-            for (T t : ((T[]) array)) {
-                if (equals(o, t)) {
-                    return true;
-                }
-            }
         }
-        return false;
+        return indexOfElement(o) >= 0;
     }
 
     protected boolean equals(Object o, T t) {
@@ -245,7 +297,12 @@ public class ArraySet<T> extends AbstractSet<T> implements Serializable {
 
             @Override
             public T next() {
-                T t = ((T[]) array)[pos];
+                T t;
+                try {
+                    t = ((T[]) array)[pos];
+                } catch (IndexOutOfBoundsException ex) {
+                    throw new NoSuchElementException("reading past end");
+                }
                 pos++;
                 return t;
             }
@@ -262,6 +319,9 @@ public class ArraySet<T> extends AbstractSet<T> implements Serializable {
     public void clear() {
         readOnlyCheck();
         array = null;
+        if (fingerprints != null) {
+            fingerprints = Fingerprints.EMPTY;
+        }
     }
 
     @Override
@@ -298,4 +358,21 @@ public class ArraySet<T> extends AbstractSet<T> implements Serializable {
     public ImmutableArraySet<T> immutable() {
         return new ImmutableArraySet<>(this);
     }
+
+    /** The elements are written in order, fingerprints are recomputed when read. */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeBoolean(fingerprints != null);
+        SerializedForm.writeArray(out, array);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final boolean hasFingerprints = in.readBoolean();
+        array = (T[]) SerializedForm.readArray(in);
+        if (hasFingerprints) {
+            fingerprints = Fingerprints.of(array, 1);
+        }
+    }
 }
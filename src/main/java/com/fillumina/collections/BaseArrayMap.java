@@ -1,5 +1,10 @@
 package com.fillumina.collections;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
 import java.util.ArrayList;
@@ -39,7 +44,8 @@ import java.util.function.Consumer;
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
 public class BaseArrayMap<K, V> extends AbstractMap<K, V>
-        implements Iterable<Map.Entry<K, V>> {
+        implements Iterable<Map.Entry<K, V>>, Serializable {
+    private static final long serialVersionUID = 1L;
 
     public class CursorListIterator<K, V> implements ListIterator<Entry<K, V>>, Entry<K, V> {
 
@@ -131,6 +137,9 @@ public class BaseArrayMap<K, V> extends AbstractMap<K, V>
             readOnlyCheck();
             array[index] = e.getKey();
             array[index + 1] = e.getValue();
+            if (fingerprints != null) {
+                fingerprints[index >> 1] = Fingerprints.of(e.getKey());
+            }
         }
 
         /** Not supported! */
@@ -271,14 +280,22 @@ public class BaseArrayMap<K, V> extends AbstractMap<K, V>
         }
     }
 
-    protected Object[] array;
-    protected PairEntrySet<K, V> entrySet;
+    // keys and values are written by writeObject()
+    protected transient Object[] array;
+    protected transient PairEntrySet<K, V> entrySet;
+
+    /**
+     * Optional fingerprints of the keys (one for each pair) used to speed up linear searches,
+     * {@code null} if not used.
+     */
+    protected transient byte[] fingerprints;
 
     public BaseArrayMap() {
     }
 
     public BaseArrayMap(BaseArrayMap<? extends K, ? extends V> copy) {
         array = (copy.array == null) ? null : copy.array.clone();
+        fingerprints = (copy.fingerprints == null) ? null : copy.fingerprints.clone();
     }
 
     /**
@@ -317,12 +334,43 @@ public class BaseArrayMap<K, V> extends AbstractMap<K, V>
         }
     }
 
+    /**
+     * Creates the fingerprints of the keys so that a linear search calls {@code equals()} only on
+     * keys with matching fingerprints. It makes misses much faster at the cost of one byte per
+     * entry.
+     */
+    protected void computeFingerprints() {
+        fingerprints = Fingerprints.of(array, 2);
+    }
+
     /**
      * Override to provide immutability.
      */
     protected void readOnlyCheck() throws UnsupportedOperationException {
     }
 
+    /**
+     * Writes the interleaved keys and values as they are so they can be read back without
+     * sorting them again, fingerprints are recomputed when read.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeBoolean(fingerprints != null);
+        SerializedForm.writeArray(out, array);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final boolean hasFingerprints = in.readBoolean();
+        array = SerializedForm.readArray(in);
+        if (array != null && (array.length & 1) != 0) {
+            throw new InvalidObjectException("odd number of keys and values: " + array.length);
+        }
+        if (hasFingerprints) {
+            computeFingerprints();
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public boolean containsEntry(K k, V v) {
         final int idx = getAbsoluteIndexOfKey((K) k);
@@ -352,6 +400,18 @@ public class BaseArrayMap<K, V> extends AbstractMap<K, V>
     public void clear() {
         readOnlyCheck();
         array = null;
+        if (fingerprints != null) {
+            fingerprints = Fingerprints.EMPTY;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object key) {
+        if (key == null) {
+            return super.containsKey(key);
+        }
+        return getAbsoluteIndexOfKey((K) key) >= 0;
     }
 
     @Override
@@ -370,6 +430,16 @@ public class BaseArrayMap<K, V> extends AbstractMap<K, V>
         if (array == null) {
             return -1;
         }
+        final byte[] fp = fingerprints;
+        if (fp != null) {
+            final byte keyFingerprint = Fingerprints.of(key);
+            for (int i = array.length - 2, j = fp.length - 1; i >= 0; i -= 2, j--) {
+                if (fp[j] == keyFingerprint && key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
         for (int i = array.length - 2; i >= 0; i -= 2) {
             if (key.equals(array[i])) {
                 return i;
@@ -410,6 +480,9 @@ public class BaseArrayMap<K, V> extends AbstractMap<K, V>
                         array.length - index - 2);
                 array = newArray;
             }
+            if (fingerprints != null) {
+                fingerprints = Fingerprints.removeAtIndex(fingerprints, index >> 1);
+            }
             return prev;
         }
     }
@@ -454,6 +527,9 @@ public class BaseArrayMap<K, V> extends AbstractMap<K, V>
                 }
             }
         } while (swapped);
+        if (fingerprints != null) {
+            computeFingerprints();
+        }
     }
 
     // equals(), hashCode() and toString() are all inherited from AbstractMap
@@ -1,6 +1,11 @@
 package com.fillumina.collections;
 
+import java.util.AbstractList;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -12,12 +17,27 @@ import java.util.Set;
  * <p>
  * Being backed by 2 hash maps its performance is O(1) with worst case of O(N).
  *
+ * @see CompactBiMap for big maps
  * @see AbstractEntryMap
  * @see TableMap
  *
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
 public class BiMap<K, V> extends TableMap<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * What {@link BiMap#putAll(java.util.Map, ConflictPolicy) } does with a pair having its key
+     * or its value already mapped differently.
+     */
+    public enum ConflictPolicy {
+        /** Throws an {@link IllegalArgumentException} leaving the map unchanged. */
+        FAIL,
+        /** The new pair replaces the conflicting mappings (as {@link BiMap#put} does). */
+        OVERWRITE,
+        /** The pair is ignored. */
+        SKIP
+    }
 
     public static BiMap<?,?> EMPTY_MAP = new BiMap<>().immutableView();
     private static final Object[] EMPTY_ARRAY = new Object[0];
@@ -63,8 +83,8 @@ public class BiMap<K, V> extends TableMap<K, V> {
 
     /** Usual copy constructor from other kind of {@link java.util.Map}. */
     public BiMap(Map<? extends K, ? extends V> map) {
-        this();
-        map.forEach((k, v) -> put(k, v));
+        this(map.size());
+        putAll(map, ConflictPolicy.OVERWRITE);
     }
 
     public BiMap(BiMap<K, V> copy) {
@@ -98,7 +118,7 @@ public class BiMap<K, V> extends TableMap<K, V> {
         super(initialSize);
         this.inverseMap = inverseMap;
         if (map != null) {
-            map.forEach((k, v) -> put(k, v));
+            putAll(map, ConflictPolicy.OVERWRITE);
         }
         this.immutable = immutable;
     }
@@ -108,9 +128,19 @@ public class BiMap<K, V> extends TableMap<K, V> {
         super(initialSize);
         this.inverseMap = inverseMap;
         if (array.length > 0) {
-            for (int i = 0; i < array.length; i += 2) {
-                put((K) array[i + 1], (V) array[i]);
-            }
+            // keys and values are inverted
+            bulkPut(array.length >> 1, new AbstractList<Entry<K, V>>() {
+                @Override
+                public Entry<K, V> get(int index) {
+                    return new SimpleImmutableEntry<>(
+                            (K) array[(index << 1) + 1], (V) array[index << 1]);
+                }
+
+                @Override
+                public int size() {
+                    return array.length >> 1;
+                }
+            }, ConflictPolicy.OVERWRITE);
         }
         this.immutable = immutable;
     }
@@ -153,6 +183,15 @@ public class BiMap<K, V> extends TableMap<K, V> {
         return new BiMap<>(this, null);
     }
 
+    /**
+     * @return an immutable <i>clone</i> of this map. The internal state cannot be shared because
+     * views (i.e. {@link #immutableView()}) are already sharing it.
+     */
+    @Override
+    public ImmutableTableMap<K, V> immutable() {
+        return new ImmutableTableMap<K, V>(this);
+    }
+
     /** It's a clone of the original biMap. */
     @Override
     public BiMap<K, V> clone() {
@@ -188,6 +227,87 @@ public class BiMap<K, V> extends TableMap<K, V> {
         return super.innerPut(key, value);
     }
 
+    /** Same as {@link #putAll(java.util.Map, ConflictPolicy) } with {@code OVERWRITE}. */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        putAll(m, ConflictPolicy.OVERWRITE);
+    }
+
+    /**
+     * Bulk load: both directions are resized once to fit all the pairs, then each pair is
+     * checked with a single lookup on each direction and inserted without comparing keys again.
+     * Conflicting pairs (with the key or the value already mapped differently, also by a
+     * previous pair of the same map) are managed by the given policy.
+     *
+     * @throws IllegalArgumentException with {@link ConflictPolicy#FAIL} if there is a conflict,
+     *                                  the map is left unchanged
+     */
+    public void putAll(Map<? extends K, ? extends V> map, ConflictPolicy policy) {
+        if (!map.isEmpty()) {
+            bulkPut(map.size(), map.entrySet(), policy);
+        }
+    }
+
+    private void bulkPut(int count, Collection<? extends Entry<? extends K, ? extends V>> pairs,
+            ConflictPolicy policy) {
+        readOnlyCheck();
+        final int expectedSize = size() + count;
+        ensureCapacity(expectedSize);
+        inverseMap.ensureCapacity(expectedSize);
+        // to undo the insertions if there is a conflict
+        final BitSet inserted = policy == ConflictPolicy.FAIL ? new BitSet(count) : null;
+        int index = 0;
+        for (Entry<? extends K, ? extends V> pair : pairs) {
+            final K key = pair.getKey();
+            final V value = pair.getValue();
+            final Entry<K, V> byKey = getEntry(key);
+            final Entry<V, K> byValue = inverseMap.getEntry(value);
+            if (byKey == null && byValue == null) {
+                final InternalState<Entry<K, V>> state = getInternalStateClone();
+                insertMissing(key, value, state);
+                setInternalState(state);
+                final InternalState<Entry<V, K>> inverseState =
+                        inverseMap.getInternalStateClone();
+                inverseMap.insertMissing(value, key, inverseState);
+                inverseMap.setInternalState(inverseState);
+                if (inserted != null) {
+                    inserted.set(index);
+                }
+            } else if (byKey == null || byValue == null ||
+                    !Objects.equals(byKey.getValue(), value)) {
+                switch (policy) {
+                    case FAIL:
+                        undo(pairs, inserted, index);
+                        throw new IllegalArgumentException("conflicting pair: " +
+                                key + "=" + value + " existing: " +
+                                (byKey != null ? byKey : byValue.getValue() + "=" + value));
+                    case OVERWRITE:
+                        noCheckInnerPut(key, value);
+                        break;
+                    case SKIP:
+                        break;
+                }
+            }
+            // else the same pair is already present
+            index++;
+        }
+    }
+
+    private void undo(Collection<? extends Entry<? extends K, ? extends V>> pairs,
+            BitSet inserted, int count) {
+        int index = 0;
+        for (Entry<? extends K, ? extends V> pair : pairs) {
+            if (index == count) {
+                break;
+            }
+            if (inserted.get(index)) {
+                innerRemove(pair.getKey());
+                inverseMap.innerRemove(pair.getValue());
+            }
+            index++;
+        }
+    }
+
     @Override
     public boolean containsValue(Object value) {
         return inverseMap.containsKey(value);
@@ -218,4 +338,16 @@ public class BiMap<K, V> extends TableMap<K, V> {
     private void innerClear() {
         super.clear();
     }
+
+    /** Mappings are written only once, the inverse map is rebuilt when read. */
+    private Object writeReplace() {
+        final Object[] array = new Object[size() << 1];
+        int index = 0;
+        for (Entry<K, V> e : entrySet()) {
+            array[index++] = e.getKey();
+            array[index++] = e.getValue();
+        }
+        return new SerializedForm(
+                immutable ? SerializedForm.IMMUTABLE_BI_MAP : SerializedForm.BI_MAP, array);
+    }
 }
@@ -0,0 +1,78 @@
+package com.fillumina.collections;
+
+/**
+ * JDK Flight Recorder events of the expensive operations of the containers. They are disabled
+ * by default and can be enabled in a recording by name (i.e. with a {@code .jfc} settings file
+ * setting {@code enabled} to {@code true} for the event {@code com.fillumina.collections.Resize}).
+ * When disabled the JIT removes both the allocation of the event and the
+ * {@code shouldCommit()} check so they cost close to nothing.
+ * <p>
+ * The {@code jdk.jfr} module is optional (i.e. it could be left out of a jlinked runtime): its
+ * availability is checked once and without it the events are {@code null} and not recorded.
+ * The events are declared in {@link JfrEvents} which is never loaded if the module is missing.
+ * <p>
+ * Usage:
+ * <pre>
+ * final Object event = CollectionEvents.beginResize();
+ * // expensive operation
+ * CollectionEvents.commitResize(event, getClass(), internalState, oldTableSize);
+ * </pre>
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+final class CollectionEvents {
+    static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    private CollectionEvents() {}
+
+    // the array is accessed through a wildcard to avoid the cast to the specific entry array
+    // type (the array is always created as Entry[])
+    static int tableSize(AbstractEntryMap.InternalState<?> state) {
+        return state.array == null ? 0 : state.array.length;
+    }
+
+    /** @return the estimated bytes of the table of references */
+    static long tableBytes(AbstractEntryMap.InternalState<?> state) {
+        return state.array == null ? 0 : MemoryFootprint.ARRAY_HEADER +
+                (long) state.array.length * MemoryFootprint.REFERENCE;
+    }
+
+    static Object beginResize() {
+        return AVAILABLE ? JfrEvents.beginResize() : null;
+    }
+
+    static void commitResize(Object event, Class<?> containerClass,
+            AbstractEntryMap.InternalState<?> state, int oldTableSize) {
+        if (event != null) {
+            JfrEvents.commitResize(event, containerClass, state, oldTableSize);
+        }
+    }
+
+    static Object beginCopy() {
+        return AVAILABLE ? JfrEvents.beginCopy() : null;
+    }
+
+    static void commitCopy(Object event, Class<?> containerClass,
+            AbstractEntryMap.InternalState<?> state) {
+        if (event != null) {
+            JfrEvents.commitCopy(event, containerClass, state);
+        }
+    }
+
+    static void commitCopy(Object event, Class<?> containerClass, CompactBiMap<?, ?> copy) {
+        if (event != null) {
+            JfrEvents.commitCopy(event, containerClass, copy);
+        }
+    }
+
+    static Object beginEviction() {
+        return AVAILABLE ? JfrEvents.beginEviction() : null;
+    }
+
+    static void commitEviction(Object event, Class<?> containerClass,
+            AbstractEntryMap.InternalState<?> state) {
+        if (event != null) {
+            JfrEvents.commitEviction(event, containerClass, state);
+        }
+    }
+}
@@ -0,0 +1,507 @@
+package com.fillumina.collections;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link BiMap} alternative storing each pair only once: keys and values are interleaved into
+ * a single array (with their cached hashes in a parallel {@code int} array) indexed by two open
+ * addressing tables of {@code int}, one for the keys and one for the values. There are no entry
+ * objects and a put needs a single probe on each table to enforce the unicity of both keys and
+ * values. The {@link #inverse()} map shares the same storage with the roles of the tables
+ * swapped.
+ * <p>
+ * If an existing value is inserted with a different key the old mapping is removed. Removing a
+ * pair moves the last pair into its position so the iteration order is the insertion order only
+ * as long as no pair is removed. {@code null} keys and values are allowed. It's not thread safe.
+ *
+ * @see BiMap
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class CompactBiMap<K, V> extends AbstractMap<K, V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_SIZE = 8;
+
+    /** The storage shared by a map and its inverse. */
+    private static final class Store {
+        // key of pair i at 2*i, value at 2*i+1
+        Object[] pairs;
+        int[] hashes;
+        // the key table at 0 and the value table at 1, slot contains pair index + 1 (0 is empty)
+        final int[][] tables = new int[2][];
+        int size;
+        int modCount;
+
+        Store(int initialSize) {
+            final int capacity = AbstractEntryMap.nextPowerOf2(Math.max(1, initialSize));
+            pairs = new Object[capacity << 1];
+            hashes = new int[capacity << 1];
+            tables[0] = new int[capacity << 1];
+            tables[1] = new int[capacity << 1];
+        }
+
+        Store(Store other) {
+            pairs = other.pairs.clone();
+            hashes = other.hashes.clone();
+            tables[0] = other.tables[0].clone();
+            tables[1] = other.tables[1].clone();
+            size = other.size;
+        }
+
+        /** @return the estimated bytes of the arrays */
+        long bytes() {
+            return MemoryFootprint.ARRAY_HEADER * 4L + pairs.length * MemoryFootprint.REFERENCE +
+                    (hashes.length + tables[0].length + tables[1].length) * 4L;
+        }
+    }
+
+    private static int hash(Object o) {
+        if (o == null) {
+            return 0;
+        }
+        // murmur3 finalizer: consecutive hash codes are spread to avoid long clusters
+        int h = o.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    // the pairs are written by writeReplace()
+    private final transient Store store;
+    // 0 if the keys of this map are at even positions in pairs, 1 if this is the inverse
+    private final transient int side;
+    private transient CompactBiMap<V, K> inverse;
+    private transient Set<Entry<K, V>> entrySet;
+    private transient Set<K> keySet;
+
+    public CompactBiMap() {
+        this(INITIAL_SIZE);
+    }
+
+    /** @param initialSize the expected number of pairs (avoids resizing) */
+    public CompactBiMap(int initialSize) {
+        this(new Store(initialSize), 0);
+    }
+
+    public CompactBiMap(Map<? extends K, ? extends V> map) {
+        this(map.size());
+        putAll(map);
+    }
+
+    /**
+     * Copies the arrays without rehashing (used by {@link CopyOnWriteBiMap}), the copy has the
+     * same direction of the original.
+     */
+    CompactBiMap(CompactBiMap<K, V> other) {
+        this(new Store(other.store), other.side);
+    }
+
+    private CompactBiMap(Store store, int side) {
+        this.store = store;
+        this.side = side;
+    }
+
+    /** @return the inverse map sharing the same pairs */
+    public CompactBiMap<V, K> inverse() {
+        if (inverse == null) {
+            inverse = new CompactBiMap<>(store, 1 - side);
+            inverse.inverse = this;
+        }
+        return inverse;
+    }
+
+    /**
+     * @param side 0 for the keys and 1 for the values of the store
+     * @return the index of the pair or -1
+     */
+    private int indexOf(int side, Object o) {
+        final int[] table = store.tables[side];
+        final int mask = table.length - 1;
+        final int h = hash(o);
+        int idx = h & mask;
+        int slot;
+        while ((slot = table[idx]) != 0) {
+            final int pos = ((slot - 1) << 1) + side;
+            if (store.hashes[pos] == h && Objects.equals(o, store.pairs[pos])) {
+                return slot - 1;
+            }
+            idx = (idx + 1) & mask;
+        }
+        return -1;
+    }
+
+    /** @return the position into the table of the given pair */
+    private int slotOf(int side, int index) {
+        final int[] table = store.tables[side];
+        final int mask = table.length - 1;
+        int idx = store.hashes[(index << 1) + side] & mask;
+        while (table[idx] != index + 1) {
+            idx = (idx + 1) & mask;
+        }
+        return idx;
+    }
+
+    private static void insert(int[] table, int hash, int index) {
+        final int mask = table.length - 1;
+        int idx = hash & mask;
+        while (table[idx] != 0) {
+            idx = (idx + 1) & mask;
+        }
+        table[idx] = index + 1;
+    }
+
+    /** Removes the slot shifting back the following ones to keep the probe sequences valid. */
+    private void deleteSlot(int side, int slot) {
+        final int[] table = store.tables[side];
+        final int mask = table.length - 1;
+        int hole = slot;
+        int idx = slot;
+        table[hole] = 0;
+        int e;
+        while ((e = table[idx = (idx + 1) & mask]) != 0) {
+            final int home = store.hashes[((e - 1) << 1) + side] & mask;
+            // moves the entry if its home is not cyclically in (hole, idx]
+            if (hole <= idx ? (home <= hole || home > idx) : (home <= hole && home > idx)) {
+                table[hole] = e;
+                table[idx] = 0;
+                hole = idx;
+            }
+        }
+    }
+
+    private void removeAt(int index) {
+        final Store s = store;
+        deleteSlot(0, slotOf(0, index));
+        deleteSlot(1, slotOf(1, index));
+        final int last = s.size - 1;
+        if (index != last) {
+            // moves the last pair into the hole
+            s.tables[0][slotOf(0, last)] = index + 1;
+            s.tables[1][slotOf(1, last)] = index + 1;
+            System.arraycopy(s.pairs, last << 1, s.pairs, index << 1, 2);
+            System.arraycopy(s.hashes, last << 1, s.hashes, index << 1, 2);
+        }
+        s.pairs[last << 1] = null;
+        s.pairs[(last << 1) + 1] = null;
+        s.size = last;
+        s.modCount++;
+    }
+
+    private void grow() {
+        final Store s = store;
+        final int capacity = s.pairs.length;
+        s.pairs = Arrays.copyOf(s.pairs, capacity << 1);
+        s.hashes = Arrays.copyOf(s.hashes, capacity << 1);
+        // the tables are always twice the number of pairs
+        s.tables[0] = new int[capacity << 1];
+        s.tables[1] = new int[capacity << 1];
+        for (int i = 0; i < s.size; i++) {
+            insert(s.tables[0], s.hashes[i << 1], i);
+            insert(s.tables[1], s.hashes[(i << 1) + 1], i);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) store.pairs[(index << 1) + 1 - side];
+    }
+
+    @SuppressWarnings("unchecked")
+    private K keyAt(int index) {
+        return (K) store.pairs[(index << 1) + side];
+    }
+
+    @Override
+    public V get(Object key) {
+        final int index = indexOf(side, key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(side, key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return indexOf(1 - side, value) >= 0;
+    }
+
+    /** @return the number of pairs that can be stored before growing */
+    int capacity() {
+        return store.pairs.length >> 1;
+    }
+
+    long bytes() {
+        return store.bytes();
+    }
+
+    /** @return the key mapped to the given value or {@code null} */
+    public K getKey(Object value) {
+        final int index = indexOf(1 - side, value);
+        return index < 0 ? null : keyAt(index);
+    }
+
+    /**
+     * Adds the mapping removing the previous mapping of the value if it had a different key.
+     *
+     * @return the previous value associated with the key
+     */
+    @Override
+    public V put(K key, V value) {
+        final Store s = store;
+        final int valueSide = 1 - side;
+        int index = indexOf(side, key);
+        final int valueIndex = indexOf(valueSide, value);
+        if (index >= 0 && index == valueIndex) {
+            return value;
+        }
+        if (valueIndex >= 0) {
+            // the value was mapped to another key
+            if (index == s.size - 1) {
+                // the pair of the key is going to be moved into the removed one
+                index = valueIndex;
+            }
+            removeAt(valueIndex);
+        }
+        final int h = hash(value);
+        if (index >= 0) {
+            final V old = valueAt(index);
+            deleteSlot(valueSide, slotOf(valueSide, index));
+            s.pairs[(index << 1) + valueSide] = value;
+            s.hashes[(index << 1) + valueSide] = h;
+            insert(s.tables[valueSide], h, index);
+            // not a structural modification: iterations are by index
+            return old;
+        }
+        if ((s.size << 1) == s.pairs.length) {
+            grow();
+        }
+        index = s.size++;
+        s.pairs[(index << 1) + side] = key;
+        s.pairs[(index << 1) + valueSide] = value;
+        s.hashes[(index << 1) + side] = hash(key);
+        s.hashes[(index << 1) + valueSide] = h;
+        insert(s.tables[side], s.hashes[(index << 1) + side], index);
+        insert(s.tables[valueSide], h, index);
+        s.modCount++;
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        final int index = indexOf(side, key);
+        if (index < 0) {
+            return null;
+        }
+        final V value = valueAt(index);
+        removeAt(index);
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        final Store s = store;
+        Arrays.fill(s.pairs, 0, s.size << 1, null);
+        Arrays.fill(s.tables[0], 0);
+        Arrays.fill(s.tables[1], 0);
+        s.size = 0;
+        s.modCount++;
+    }
+
+    @Override
+    public int size() {
+        return store.size;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        final int modCount = store.modCount;
+        for (int i = 0, l = store.size; i < l; i++) {
+            action.accept(keyAt(i), valueAt(i));
+        }
+        if (modCount != store.modCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /** Iterates over the pairs by index, removing a pair moves the last one into its place. */
+    private abstract class PairIterator<T> implements Iterator<T> {
+        int next;
+        int last = -1;
+        int expectedModCount = store.modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < store.size;
+        }
+
+        int nextIndex() {
+            if (expectedModCount != store.modCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= store.size) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            if (expectedModCount != store.modCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            // the last pair (not yet visited) has been moved here
+            next = last;
+            last = -1;
+            expectedModCount = store.modCount;
+        }
+    }
+
+    private class PairEntry extends SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        PairEntry(K key, V value) {
+            super(key, value);
+        }
+
+        /**
+         * @throws IllegalArgumentException if the value is already mapped to another key
+         * (removing that mapping would break the iteration)
+         */
+        @Override
+        public V setValue(V value) {
+            final int valueIndex = indexOf(1 - side, value);
+            if (valueIndex >= 0 && !Objects.equals(keyAt(valueIndex), getKey())) {
+                throw new IllegalArgumentException("value already present: " + value);
+            }
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new PairIterator<Entry<K, V>>() {
+                        @Override
+                        public Entry<K, V> next() {
+                            final int index = nextIndex();
+                            return new PairEntry(keyAt(index), valueAt(index));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return store.size;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    if (!(o instanceof Entry)) {
+                        return false;
+                    }
+                    final Entry<?, ?> e = (Entry<?, ?>) o;
+                    final int index = indexOf(side, e.getKey());
+                    return index >= 0 && Objects.equals(valueAt(index), e.getValue());
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    if (contains(o)) {
+                        CompactBiMap.this.remove(((Entry<?, ?>) o).getKey());
+                        return true;
+                    }
+                    return false;
+                }
+
+                @Override
+                public void clear() {
+                    CompactBiMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new AbstractSet<K>() {
+                @Override
+                public Iterator<K> iterator() {
+                    return new PairIterator<K>() {
+                        @Override
+                        public K next() {
+                            return keyAt(nextIndex());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return store.size;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return containsKey(o);
+                }
+
+                @Override
+                public boolean remove(Object o) {
+                    final int index = indexOf(side, o);
+                    if (index < 0) {
+                        return false;
+                    }
+                    removeAt(index);
+                    return true;
+                }
+
+                @Override
+                public void clear() {
+                    CompactBiMap.this.clear();
+                }
+            };
+        }
+        return keySet;
+    }
+
+    /** @return the keys of the {@link #inverse()} map */
+    @Override
+    public Set<V> values() {
+        return inverse().keySet();
+    }
+
+    /** Only the pairs are written, the tables are rebuilt when read. */
+    private Object writeReplace() {
+        final Object[] array = new Object[store.size << 1];
+        for (int i = 0, j = 0; i < store.size; i++, j += 2) {
+            array[j] = keyAt(i);
+            array[j + 1] = valueAt(i);
+        }
+        return new SerializedForm(SerializedForm.COMPACT_BI_MAP, array);
+    }
+}
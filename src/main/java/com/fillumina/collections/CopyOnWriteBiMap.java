@@ -0,0 +1,271 @@
+package com.fillumina.collections;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A concurrent bidirectional map copying its internal state on modification. The state is a
+ * {@link CompactBiMap} containing both the forward and the inverse tables: it's never modified
+ * after being published by a single volatile write so a reader always sees the two directions
+ * consistent with each other. Reads are lock-free while writes are serialized by a lock shared
+ * with the {@link #inverse()} map. {@link #update(Consumer) } applies many modifications
+ * producing a single new state.
+ * <p>
+ * Each read accesses the latest state so use {@link #snapshot()} to perform many reads on the
+ * same consistent state (i.e. reading a key and then its value into the inverse map).
+ * Iterators work on the state at the time of their creation.
+ *
+ * @see CopyOnWriteMap
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class CopyOnWriteBiMap<K, V> extends AbstractMap<K, V> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Shared by the map and its inverse, it's also the lock of the writes. */
+    private static final class StateReference {
+        volatile CompactBiMap<Object, Object> state;
+        final boolean readOnly;
+
+        StateReference(CompactBiMap<Object, Object> state, boolean readOnly) {
+            this.state = state;
+            this.readOnly = readOnly;
+        }
+    }
+
+    // the pairs are written by writeReplace()
+    private final transient StateReference reference;
+    private final transient boolean inverted;
+    private transient CopyOnWriteBiMap<V, K> inverse;
+    private transient Set<Entry<K, V>> entrySet;
+
+    public CopyOnWriteBiMap() {
+        this(new CompactBiMap<>(), false);
+    }
+
+    public CopyOnWriteBiMap(Map<? extends K, ? extends V> map) {
+        this(new CompactBiMap<>(map), false);
+    }
+
+    @SuppressWarnings("unchecked")
+    CopyOnWriteBiMap(CompactBiMap<K, V> state, boolean readOnly) {
+        this(new StateReference((CompactBiMap<Object, Object>) state, readOnly), false);
+    }
+
+    private CopyOnWriteBiMap(StateReference reference, boolean inverted) {
+        this.reference = reference;
+        this.inverted = inverted;
+    }
+
+    /** @return the inverse map sharing the same state */
+    public CopyOnWriteBiMap<V, K> inverse() {
+        if (inverse == null) {
+            inverse = new CopyOnWriteBiMap<>(reference, !inverted);
+            inverse.inverse = this;
+        }
+        return inverse;
+    }
+
+    /**
+     * @return a read only map (with its inverse) of the current state that is not affected by
+     *         further modifications. It takes O(1).
+     */
+    @SuppressWarnings("unchecked")
+    public CopyOnWriteBiMap<K, V> snapshot() {
+        final CopyOnWriteBiMap<Object, Object> snapshot =
+                new CopyOnWriteBiMap<>(new StateReference(reference.state, true), false);
+        return (CopyOnWriteBiMap<K, V>) (inverted ? snapshot.inverse() : snapshot);
+    }
+
+    public boolean isReadOnly() {
+        return reference.readOnly;
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompactBiMap<K, V> state() {
+        final CompactBiMap<Object, Object> state = reference.state;
+        return (CompactBiMap<K, V>) (inverted ? state.inverse() : state);
+    }
+
+    /**
+     * Applies the modification to a copy of the state and publishes it. The copy cannot be used
+     * outside of the function.
+     */
+    @SuppressWarnings("unchecked")
+    private <R> R write(Function<CompactBiMap<K, V>, R> modification) {
+        if (reference.readOnly) {
+            throw new UnsupportedOperationException("read only");
+        }
+        synchronized (reference) {
+            final Object event = CollectionEvents.beginCopy();
+            final CompactBiMap<Object, Object> copy = new CompactBiMap<>(reference.state);
+            CollectionEvents.commitCopy(event, getClass(), copy);
+            final R result = modification.apply(
+                    (CompactBiMap<K, V>) (inverted ? copy.inverse() : copy));
+            reference.state = copy;
+            return result;
+        }
+    }
+
+    /**
+     * Applies all the modifications to a single copy of the state published at the end, readers
+     * will see all of them or none. The map passed to the consumer must not be used after it
+     * returns.
+     */
+    public void update(Consumer<? super CompactBiMap<K, V>> modifications) {
+        write(map -> {
+            modifications.accept(map);
+            return null;
+        });
+    }
+
+    @Override
+    public V get(Object key) {
+        return state().get(key);
+    }
+
+    /** @return the key mapped to the given value or {@code null} */
+    public K getKey(Object value) {
+        return state().getKey(value);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return state().containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return state().containsValue(value);
+    }
+
+    @Override
+    public int size() {
+        return state().size();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        state().forEach(action);
+    }
+
+    /**
+     * Adds the mapping removing the previous mapping of the value if it had a different key.
+     */
+    @Override
+    public V put(K key, V value) {
+        return write(map -> map.put(key, value));
+    }
+
+    /** All the mappings are added in a single new state. */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        write(map -> {
+            map.putAll(m);
+            return null;
+        });
+    }
+
+    @Override
+    public V remove(Object key) {
+        // avoids copying the state if there is nothing to remove
+        if (!reference.readOnly && !state().containsKey(key)) {
+            return null;
+        }
+        return write(map -> map.remove(key));
+    }
+
+    @Override
+    public void clear() {
+        write(map -> {
+            map.clear();
+            return null;
+        });
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    final Iterator<Entry<K, V>> iterator = state().entrySet().iterator();
+                    return new Iterator<Entry<K, V>>() {
+                        Entry<K, V> last;
+
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            final Entry<K, V> e = iterator.next();
+                            last = e;
+                            return new SimpleImmutableEntry<>(e.getKey(), e.getValue()) {
+                                private static final long serialVersionUID = 1L;
+
+                                @Override
+                                public V setValue(V value) {
+                                    return put(getKey(), value);
+                                }
+                            };
+                        }
+
+                        @Override
+                        public void remove() {
+                            if (last == null) {
+                                throw new IllegalStateException();
+                            }
+                            CopyOnWriteBiMap.this.remove(last.getKey());
+                            last = null;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return CopyOnWriteBiMap.this.size();
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return state().entrySet().contains(o);
+                }
+
+                @Override
+                public void clear() {
+                    CopyOnWriteBiMap.this.clear();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    /** @return the keys of the {@link #inverse()} map */
+    @Override
+    public Set<V> values() {
+        return inverse().keySet();
+    }
+
+    /** Only the pairs are written. */
+    private Object writeReplace() {
+        final CompactBiMap<K, V> state = state();
+        final Object[] array = new Object[state.size() << 1];
+        final Counter index = new Counter();
+        state.forEach((k, v) -> {
+            array[index.get()] = k;
+            array[index.get() + 1] = v;
+            index.incrementBy(2);
+        });
+        return new SerializedForm(SerializedForm.COPY_ON_WRITE_BI_MAP,
+                reference.readOnly ? 1 : 0, array);
+    }
+}
@@ -127,7 +127,10 @@ public class CopyOnWriteCache<K,V>
 
     @Override
     protected CowInternalState<K,V> getInternalStateClone() {
-        return new CowInternalState<>(getInternalState());
+        final Object event = CollectionEvents.beginCopy();
+        final CowInternalState<K,V> copy = new CowInternalState<>(getInternalState());
+        CollectionEvents.commitCopy(event, getClass(), copy);
+        return copy;
     }
 
     @Override
@@ -163,6 +166,7 @@ public class CopyOnWriteCache<K,V>
     @Override
     @SuppressWarnings("unchecked")
     protected void resize(int newSize, CowInternalState internalState) {
+        final Object event = CollectionEvents.beginEviction();
         // removes the least used entry
         LinkedEntry<K, V> toRemove = internalState.tail;
         Holder<LinkedEntry<K, V>> removedEntry = new Holder<>();
@@ -173,6 +177,7 @@ public class CopyOnWriteCache<K,V>
                 toRemove.head.tail = null;
             }
         }
+        CollectionEvents.commitEviction(event, getClass(), internalState);
     }
 
     public List<LinkedEntry<K, V>> getOrderedEntryList() {
@@ -1,6 +1,10 @@
 package com.fillumina.collections;
 
 import com.fillumina.collections.AbstractEntryMap.InternalState;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.List;
@@ -15,7 +19,9 @@ import java.util.Map;
  */
 public class CopyOnWriteMap<K,V>
         extends AbstractEntryMap<K, V, SimpleImmutableEntry<K, V>, CopyOnWriteMap<K, V>,
-                                    InternalState<AbstractMap.SimpleImmutableEntry<K, V>> > {
+                                    InternalState<AbstractMap.SimpleImmutableEntry<K, V>> >
+        implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     public CopyOnWriteMap() {
         super();
@@ -76,7 +82,20 @@ public class CopyOnWriteMap<K,V>
 
     @Override
     protected InternalState<SimpleImmutableEntry<K, V>> getInternalStateClone() {
-        return new InternalState<>(getInternalState());
+        final Object event = CollectionEvents.beginCopy();
+        final InternalState<SimpleImmutableEntry<K, V>> copy =
+                new InternalState<>(getInternalState());
+        CollectionEvents.commitCopy(event, getClass(), copy);
+        return copy;
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        writeEntries(out);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        readEntries(in);
+    }
 }
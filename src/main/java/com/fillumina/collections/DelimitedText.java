@@ -0,0 +1,508 @@
+package com.fillumina.collections;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reads and writes a {@link Matrix} (or a {@link PrimitiveMatrix}) as delimited text (i.e.
+ * tab or comma separated values) in a single pass. Each line is a row and the first line can
+ * be the header with the keys of the columns. Fields containing the delimiter, a quote or a
+ * line break are enclosed in double quotes with the quotes doubled (as in RFC 4180). Lines can
+ * end with {@code \n} or {@code \r\n}. Empty lines are skipped, except when reading a
+ * {@link Matrix} of a single column: there they are {@code null} cells (the leading ones are
+ * skipped if the column is not defined by a header).
+ * <p>
+ * The reader parses the characters directly from its own buffer: there are no intermediate
+ * lines or lists of strings and the numbers of the primitive matrices are parsed without
+ * creating a {@link String} for each cell. An empty unquoted field is read as {@code null}
+ * while an empty quoted field ({@code ""}) is an empty string so that a matrix is written and
+ * read back unchanged. Use {@link #mappedReader(Path)} to read a big file by memory-mapping it.
+ * <p>
+ * The writer streams each cell to the given {@link Writer} (buffered if it's not) without
+ * aligning the columns (for a human readable table use {@link Matrix#toString()}).
+ * <p>
+ * Malformed text throws an {@link IllegalArgumentException} with the number of the record.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public final class DelimitedText {
+    public static final char TAB = '\t';
+    public static final char COMMA = ',';
+
+    private static final char QUOTE = '"';
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int INITIAL_CELLS = 1 << 10;
+
+    private DelimitedText() {}
+
+    /** Reads a matrix of strings. */
+    public static Matrix<String, String> read(Reader reader, char delimiter, boolean header)
+            throws IOException {
+        return read(reader, delimiter, header, Function.identity());
+    }
+
+    /** Reads a matrix of strings from a memory-mapped UTF-8 file. */
+    public static Matrix<String, String> read(Path file, char delimiter, boolean header)
+            throws IOException {
+        try (Reader reader = mappedReader(file)) {
+            return read(reader, delimiter, header);
+        }
+    }
+
+    /**
+     * Reads a matrix converting each field (except the {@code null} ones).
+     *
+     * @param header the first line contains the keys of the columns
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> Matrix<String, V> read(Reader reader, char delimiter, boolean header,
+            Function<? super String, ? extends V> converter) throws IOException {
+        final Parser parser = new Parser(reader, delimiter);
+        final List<String> keys = header ? parser.header() : null;
+        // rows are appended directly without the copy made by a builder
+        final Matrix<String, V> matrix = new Matrix<>(
+                keys == null ? null : keys.toArray(new String[keys.size()]),
+                (V[][]) new Object[0][]);
+        final Object[][] row = { new Object[keys == null ? 0 : keys.size()] };
+        final FieldSink sink = (col, field, quoted) -> {
+            if (col == row[0].length) {
+                row[0] = Arrays.copyOf(row[0], col + 1);
+            }
+            row[0][col] = !quoted && field.length() == 0 ? null :
+                    converter.apply(field.toString());
+        };
+        int cols = keys == null ? -1 : keys.size();
+        // a single null cell is written as an empty line
+        parser.emptyLineIsRecord = cols == 1;
+        int count;
+        while ((count = parser.next(sink)) != -1) {
+            cols = parser.check(cols, count);
+            parser.emptyLineIsRecord = cols == 1;
+            // the row is copied into the matrix
+            matrix.appendRow((V[]) (row[0].length == cols ?
+                    row[0] : Arrays.copyOf(row[0], cols)));
+        }
+        return matrix;
+    }
+
+    /** Reads a matrix of {@code int} values. */
+    public static IntMatrix<String> readIntMatrix(Reader reader, char delimiter, boolean header)
+            throws IOException {
+        final Parser parser = new Parser(reader, delimiter);
+        final List<String> keys = header ? parser.header() : null;
+        final IntCells cells = new IntCells();
+        final int[] size = parser.readCells(cells, keys);
+        return new IntMatrix<>(keys, size[0], size[1], Arrays.copyOf(cells.array, cells.size));
+    }
+
+    /** Reads a matrix of {@code long} values. */
+    public static LongMatrix<String> readLongMatrix(Reader reader, char delimiter,
+            boolean header) throws IOException {
+        final Parser parser = new Parser(reader, delimiter);
+        final List<String> keys = header ? parser.header() : null;
+        final LongCells cells = new LongCells();
+        final int[] size = parser.readCells(cells, keys);
+        return new LongMatrix<>(keys, size[0], size[1], Arrays.copyOf(cells.array, cells.size));
+    }
+
+    /** Reads a matrix of {@code double} values. */
+    public static DoubleMatrix<String> readDoubleMatrix(Reader reader, char delimiter,
+            boolean header) throws IOException {
+        final Parser parser = new Parser(reader, delimiter);
+        final List<String> keys = header ? parser.header() : null;
+        final DoubleCells cells = new DoubleCells();
+        final int[] size = parser.readCells(cells, keys);
+        return new DoubleMatrix<>(keys, size[0], size[1],
+                Arrays.copyOf(cells.array, cells.size));
+    }
+
+    /**
+     * @return a UTF-8 reader of the file that is memory-mapped (in regions of 1GB) instead of
+     *         being copied by system calls. Closing the reader closes the file.
+     */
+    public static Reader mappedReader(Path file) throws IOException {
+        return new InputStreamReader(
+                new MappedInputStream(FileChannel.open(file, StandardOpenOption.READ)),
+                StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the matrix one row for each line. The cells are written with
+     * {@link Object#toString()} and {@code null} cells are left empty.
+     *
+     * @param header writes the keys of the columns in the first line
+     */
+    public static void write(Matrix<?, ?> matrix, Writer writer, char delimiter,
+            boolean header) throws IOException {
+        checkDelimiter(delimiter);
+        final Writer out = buffered(writer);
+        if (header) {
+            writeHeader(out, matrix.getKeys().size(), matrix::getKeyAtColumn, delimiter);
+        }
+        final int rows = matrix.rowSize();
+        final int cols = matrix.colSize();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (col > 0) {
+                    out.write(delimiter);
+                }
+                final Object value = matrix.get(row, col);
+                if (value != null) {
+                    writeField(out, value.toString(), delimiter);
+                }
+            }
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the primitive matrix one row for each line.
+     *
+     * @param header writes the keys of the columns in the first line
+     */
+    public static void write(PrimitiveMatrix<?> matrix, Writer writer, char delimiter,
+            boolean header) throws IOException {
+        checkDelimiter(delimiter);
+        final Writer out = buffered(writer);
+        if (header) {
+            writeHeader(out, matrix.getKeys().size(), matrix::getKeyAtColumn, delimiter);
+        }
+        final int rows = matrix.rowSize();
+        final int cols = matrix.colSize();
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (col > 0) {
+                    out.write(delimiter);
+                }
+                // numbers never contain delimiters or quotes
+                out.write(matrix.cellToString(row, col));
+            }
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    private static void writeHeader(Writer out, int cols, Function<Integer, ?> keyAtColumn,
+            char delimiter) throws IOException {
+        for (int col = 0; col < cols; col++) {
+            if (col > 0) {
+                out.write(delimiter);
+            }
+            final Object key = keyAtColumn.apply(col);
+            if (key != null) {
+                writeField(out, key.toString(), delimiter);
+            }
+        }
+        out.write('\n');
+    }
+
+    private static void writeField(Writer out, String str, char delimiter)
+            throws IOException {
+        // an empty string is quoted to be distinguished from null
+        if (!str.isEmpty() && !needsQuotes(str, delimiter)) {
+            out.write(str);
+            return;
+        }
+        out.write(QUOTE);
+        int start = 0;
+        int quote;
+        while ((quote = str.indexOf(QUOTE, start)) != -1) {
+            out.write(str, start, quote + 1 - start);
+            out.write(QUOTE);
+            start = quote + 1;
+        }
+        out.write(str, start, str.length() - start);
+        out.write(QUOTE);
+    }
+
+    private static boolean needsQuotes(String str, char delimiter) {
+        for (int i = 0, l = str.length(); i < l; i++) {
+            final char c = str.charAt(i);
+            if (c == delimiter || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Writer buffered(Writer writer) {
+        return writer instanceof BufferedWriter ? writer :
+                new BufferedWriter(writer, BUFFER_SIZE);
+    }
+
+    private static void checkDelimiter(char delimiter) {
+        if (delimiter == QUOTE || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("invalid delimiter: '" + delimiter + "'");
+        }
+    }
+
+    /** Receives the fields of a record. */
+    private interface FieldSink {
+
+        /**
+         * @param field  the content of the field, valid only during the call
+         * @param quoted the field was enclosed in quotes
+         */
+        void accept(int col, StringBuilder field, boolean quoted);
+    }
+
+    private static final class Parser {
+        private final Reader reader;
+        private final char delimiter;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final StringBuilder field = new StringBuilder();
+        private int position;
+        private int limit;
+        // the number of records read so far
+        private int record;
+        // an empty line is a record with a single empty field
+        boolean emptyLineIsRecord;
+
+        Parser(Reader reader, char delimiter) {
+            checkDelimiter(delimiter);
+            this.reader = reader;
+            this.delimiter = delimiter;
+        }
+
+        /** @return the fields of the first record (empty if there are none) */
+        List<String> header() throws IOException {
+            final List<String> keys = new ArrayList<>();
+            next((col, field, quoted) -> keys.add(field.toString()));
+            return keys;
+        }
+
+        /**
+         * Reads all the records as numbers.
+         *
+         * @return the number of rows and columns
+         */
+        int[] readCells(FieldSink cells, List<String> keys) throws IOException {
+            int cols = keys == null ? -1 : keys.size();
+            int rows = 0;
+            int count;
+            try {
+                while ((count = next(cells)) != -1) {
+                    cols = check(cols, count);
+                    rows++;
+                }
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(
+                        "record " + record + ": " + ex.getMessage(), ex);
+            }
+            return new int[] { rows, Math.max(cols, 0) };
+        }
+
+        /** @return the number of columns, defined by the first record if not known */
+        int check(int cols, int count) {
+            if (cols != -1 && count != cols) {
+                throw new IllegalArgumentException("record " + record + " has " + count +
+                        " fields instead of " + cols);
+            }
+            return count;
+        }
+
+        /**
+         * Passes each field of the next record to the sink.
+         *
+         * @return the number of fields or -1 if there are no more records
+         */
+        int next(FieldSink sink) throws IOException {
+            int c = read();
+            while (!emptyLineIsRecord && (c == '\n' || c == '\r')) {
+                c = read();
+            }
+            if (c == -1) {
+                return -1;
+            }
+            record++;
+            int col = 0;
+            while (true) {
+                field.setLength(0);
+                final boolean quoted = c == QUOTE;
+                c = quoted ? readQuoted() : readUnquoted(c);
+                sink.accept(col++, field, quoted);
+                if (c != delimiter) {
+                    break;
+                }
+                c = read();
+            }
+            if (c == '\r' && (position < limit || fill()) && buffer[position] == '\n') {
+                position++;
+            }
+            return col;
+        }
+
+        /** @return the character ending the field (-1 at the end of the input) */
+        private int readUnquoted(int c) throws IOException {
+            if (isFieldEnd(c)) {
+                return c;
+            }
+            field.append((char) c);
+            while (position < limit || fill()) {
+                final int start = position;
+                while (position < limit) {
+                    final char ch = buffer[position];
+                    if (ch == delimiter || ch == '\n' || ch == '\r') {
+                        field.append(buffer, start, position - start);
+                        position++;
+                        return ch;
+                    }
+                    position++;
+                }
+                field.append(buffer, start, position - start);
+            }
+            return -1;
+        }
+
+        /** @return the character following the closing quote (-1 at the end of the input) */
+        private int readQuoted() throws IOException {
+            while (true) {
+                int c = read();
+                if (c == -1) {
+                    throw new IllegalArgumentException("unterminated quote in record " + record);
+                }
+                if (c == QUOTE) {
+                    c = read();
+                    if (c != QUOTE) {
+                        if (!isFieldEnd(c)) {
+                            throw new IllegalArgumentException("unexpected '" + (char) c +
+                                    "' after a quote in record " + record);
+                        }
+                        return c;
+                    }
+                }
+                field.append((char) c);
+            }
+        }
+
+        private boolean isFieldEnd(int c) {
+            return c == delimiter || c == '\n' || c == '\r' || c == -1;
+        }
+
+        private int read() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return buffer[position++];
+        }
+
+        private boolean fill() throws IOException {
+            int read;
+            do {
+                read = reader.read(buffer, 0, buffer.length);
+            } while (read == 0);
+            if (read < 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+            return true;
+        }
+    }
+
+    private static final class IntCells implements FieldSink {
+        int[] array = new int[INITIAL_CELLS];
+        int size;
+
+        @Override
+        public void accept(int col, StringBuilder field, boolean quoted) {
+            if (size == array.length) {
+                array = Arrays.copyOf(array, size + (size >> 1));
+            }
+            array[size++] = Integer.parseInt(field, 0, field.length(), 10);
+        }
+    }
+
+    private static final class LongCells implements FieldSink {
+        long[] array = new long[INITIAL_CELLS];
+        int size;
+
+        @Override
+        public void accept(int col, StringBuilder field, boolean quoted) {
+            if (size == array.length) {
+                array = Arrays.copyOf(array, size + (size >> 1));
+            }
+            array[size++] = Long.parseLong(field, 0, field.length(), 10);
+        }
+    }
+
+    private static final class DoubleCells implements FieldSink {
+        double[] array = new double[INITIAL_CELLS];
+        int size;
+
+        @Override
+        public void accept(int col, StringBuilder field, boolean quoted) {
+            if (size == array.length) {
+                array = Arrays.copyOf(array, size + (size >> 1));
+            }
+            // there is no parser of doubles from a CharSequence
+            array[size++] = Double.parseDouble(field.toString());
+        }
+    }
+
+    /** Reads a file by mapping consecutive regions of it. */
+    private static final class MappedInputStream extends InputStream {
+        private static final long REGION_SIZE = 1L << 30;
+
+        private final FileChannel channel;
+        private final long size;
+        // the end of the mapped region
+        private long mapped;
+        private ByteBuffer region = ByteBuffer.allocate(0);
+
+        MappedInputStream(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!region.hasRemaining() && !mapNext()) {
+                return -1;
+            }
+            return region.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!region.hasRemaining() && !mapNext()) {
+                return -1;
+            }
+            final int count = Math.min(length, region.remaining());
+            region.get(bytes, offset, count);
+            return count;
+        }
+
+        private boolean mapNext() throws IOException {
+            if (mapped == size) {
+                return false;
+            }
+            final long length = Math.min(REGION_SIZE, size - mapped);
+            region = channel.map(FileChannel.MapMode.READ_ONLY, mapped, length);
+            mapped += length;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.fillumina.collections;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+
+/**
+ * Helper removing duplicates from arrays in bulk. Small arrays are scanned linearly while bigger
+ * ones use a temporary open addressing table so that the whole operation is {@code O(n)} instead
+ * of the {@code O(n^2)} of adding elements one by one. The returned arrays are allocated only
+ * once with their exact size and the input array is returned as is if it doesn't contain
+ * duplicates.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+final class DistinctArrays {
+
+    /** Under this total size a linear scan is faster than building a table. */
+    static final int LINEAR_THRESHOLD = 8;
+
+    private static final Object NULL = new Object();
+
+    private DistinctArrays() {}
+
+    /**
+     * @return true if the collection is known not to contain duplicates according to
+     *         {@link Object#equals(java.lang.Object)}
+     */
+    static boolean isDistinct(Collection<?> collection) {
+        return collection instanceof HashSet ||
+                collection instanceof ArraySet ||
+                collection instanceof SmallSet ||
+                collection instanceof AdaptiveSet;
+    }
+
+    /**
+     * @param existing already distinct elements, can be {@code null}
+     * @param incoming elements to check (never modified)
+     * @return the elements of {@code incoming} not contained into {@code existing} without
+     *         duplicates and in their original order. It's {@code incoming} itself if no element
+     *         has been removed.
+     */
+    static Object[] distinct(Object[] existing, Object[] incoming) {
+        final int length = incoming.length;
+        final int existingLength = existing == null ? 0 : existing.length;
+        final Object[] table = existingLength + length <= LINEAR_THRESHOLD ?
+                null : createTable(existing, existingLength + length);
+        Object[] result = incoming;
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            final Object o = incoming[i];
+            final boolean duplicate = table == null ?
+                    indexOf(existing, existingLength, o) >= 0 || indexOf(result, count, o) >= 0 :
+                    !insert(table, o);
+            if (duplicate) {
+                if (result == incoming) {
+                    result = new Object[length - 1];
+                    System.arraycopy(incoming, 0, result, 0, count);
+                }
+            } else {
+                result[count++] = o;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /** @return the concatenation of the two arrays, one of them if the other is empty */
+    static Object[] concat(Object[] a, Object[] b) {
+        if (a == null || a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        final Object[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    private static int indexOf(Object[] array, int length, Object o) {
+        for (int i = 0; i < length; i++) {
+            if (o == null ? array[i] == null : o.equals(array[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Object[] createTable(Object[] existing, int expectedSize) {
+        // keeps at least half of the table empty
+        final Object[] table = new Object[AbstractEntryMap.nextPowerOf2(expectedSize) << 1];
+        if (existing != null) {
+            for (Object o : existing) {
+                insert(table, o);
+            }
+        }
+        return table;
+    }
+
+    /** @return false if the element was already present */
+    private static boolean insert(Object[] table, Object o) {
+        final Object key = o == null ? NULL : o;
+        final int mask = table.length - 1;
+        int h = key.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        int idx = (h ^ (h >>> 7) ^ (h >>> 4)) & mask;
+        Object e;
+        while ((e = table[idx]) != null) {
+            if (key.equals(e)) {
+                return false;
+            }
+            idx = (idx + 1) & mask;
+        }
+        table[idx] = key;
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package com.fillumina.collections;
+
+import java.util.Arrays;
+
+/**
+ * Helper managing arrays of <i>fingerprints</i>. A fingerprint is a single byte derived from the
+ * hash code of an element: comparing fingerprints before calling {@code equals()} allows to skip
+ * almost all the {@code equals()} calls when linearly scanning an array for a missing element.
+ * <p>
+ * An empty fingerprint array means fingerprints are enabled on an empty container while
+ * {@code null} means they are not used.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+final class Fingerprints {
+
+    static final byte[] EMPTY = new byte[0];
+
+    private Fingerprints() {}
+
+    static byte of(Object o) {
+        final int h = o == null ? 0 : o.hashCode();
+        return (byte) (h ^ (h >>> 8) ^ (h >>> 16) ^ (h >>> 24));
+    }
+
+    /**
+     * @param step 1 for a plain array, 2 for an array of interleaved keys and values
+     */
+    static byte[] of(Object[] array, int step) {
+        if (array == null || array.length == 0) {
+            return EMPTY;
+        }
+        final byte[] fingerprints = new byte[array.length / step];
+        for (int i = 0, j = 0; j < fingerprints.length; i += step, j++) {
+            fingerprints[j] = of(array[i]);
+        }
+        return fingerprints;
+    }
+
+    static byte[] append(byte[] fingerprints, Object o) {
+        final int length = fingerprints.length;
+        final byte[] next = Arrays.copyOf(fingerprints, length + 1);
+        next[length] = of(o);
+        return next;
+    }
+
+    static byte[] removeAtIndex(byte[] fingerprints, int index) {
+        final int length = fingerprints.length;
+        final byte[] next = new byte[length - 1];
+        System.arraycopy(fingerprints, 0, next, 0, index);
+        System.arraycopy(fingerprints, index + 1, next, index, length - index - 1);
+        return next;
+    }
+}
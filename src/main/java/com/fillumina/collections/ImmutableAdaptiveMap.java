@@ -0,0 +1,54 @@
+package com.fillumina.collections;
+
+import java.util.Map;
+
+/**
+ * Immutable version of {@link AdaptiveMap}: it keeps the layout (array or hash table) the
+ * original map had when it was cloned.
+ *
+ * @see AdaptiveMap
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public final class ImmutableAdaptiveMap<K, V> extends AdaptiveMap<K, V> {
+    private static final long serialVersionUID = 1L;
+
+    public static final ImmutableAdaptiveMap<?, ?> EMPTY =
+            new ImmutableAdaptiveMap<Object, Object>(new AdaptiveMap<>());
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableAdaptiveMap<K, V> empty() {
+        return (ImmutableAdaptiveMap<K, V>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableAdaptiveMap<K, V> of(Object... values) {
+        AdaptiveMap<K, V> map = new AdaptiveMap<>();
+        for (int i = 0; i < values.length; i += 2) {
+            map.put((K) values[i], (V) values[i + 1]);
+        }
+        return new ImmutableAdaptiveMap<>(map);
+    }
+
+    public static <K, V> ImmutableAdaptiveMap<K, V> of(Map<? extends K, ? extends V> map) {
+        return new ImmutableAdaptiveMap<>(new AdaptiveMap<K, V>(map));
+    }
+
+    public ImmutableAdaptiveMap(AdaptiveMap<K, V> copy) {
+        super(copy, true);
+    }
+
+    @Override
+    protected void readOnlyCheck() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public ImmutableAdaptiveMap<K, V> immutable() {
+        return this;
+    }
+
+    @Override
+    public ImmutableAdaptiveMap<K, V> clone() {
+        return this;
+    }
+}
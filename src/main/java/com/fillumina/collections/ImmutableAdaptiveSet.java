@@ -0,0 +1,66 @@
+package com.fillumina.collections;
+
+import java.util.Collection;
+
+/**
+ * Immutable version of {@link AdaptiveSet}: it keeps the layout (array or hash table) the
+ * original set had when it was cloned.
+ *
+ * @see AdaptiveSet
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public final class ImmutableAdaptiveSet<T> extends AdaptiveSet<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    @SuppressWarnings("unchecked")
+    public static <T> ImmutableAdaptiveSet<T> empty() {
+        return (ImmutableAdaptiveSet<T>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ImmutableAdaptiveSet<T> of(T... values) {
+        if (values == null || values.length == 0) {
+            return (ImmutableAdaptiveSet<T>) EMPTY;
+        }
+        return new ImmutableAdaptiveSet<T>(values);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ImmutableAdaptiveSet<T> of(Collection<? extends T> collection) {
+        if (collection == null || collection.isEmpty()) {
+            return (ImmutableAdaptiveSet<T>) EMPTY;
+        }
+        if (collection instanceof ImmutableAdaptiveSet) {
+            return (ImmutableAdaptiveSet<T>) collection;
+        }
+        return new ImmutableAdaptiveSet<T>(collection);
+    }
+
+    public ImmutableAdaptiveSet() {
+        super();
+    }
+
+    @SuppressWarnings("unchecked")
+    public ImmutableAdaptiveSet(T... elements) {
+        super(elements);
+    }
+
+    public ImmutableAdaptiveSet(AdaptiveSet<T> adaptiveSet) {
+        super(adaptiveSet);
+    }
+
+    public ImmutableAdaptiveSet(Collection<? extends T> elements) {
+        super(elements);
+    }
+
+    @Override
+    protected void readOnlyCheck() {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public ImmutableAdaptiveSet<T> immutable() {
+        return this;
+    }
+}
@@ -12,6 +12,7 @@ import java.util.Map;
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
 public final class ImmutableArrayMap<K, V> extends ArrayMap<K, V> {
+    private static final long serialVersionUID = 1L;
 
     public static final ImmutableArrayMap<?,?> EMPTY = new ImmutableArrayMap<Object, Object>();
 
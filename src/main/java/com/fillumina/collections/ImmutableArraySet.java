@@ -33,7 +33,7 @@ public final class ImmutableArraySet<T> extends ArraySet<T> {
         if (collection == null || collection.isEmpty()) {
             return (ImmutableArraySet<T>) EMPTY;
         }
-        if (collection instanceof ImmutableList) {
+        if (collection instanceof ImmutableArraySet) {
             return (ImmutableArraySet<T>) collection;
         }
         return new ImmutableArraySet<T>(collection);
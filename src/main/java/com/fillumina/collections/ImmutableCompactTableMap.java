@@ -0,0 +1,267 @@
+package com.fillumina.collections;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable hash {@link java.util.Map} without entry objects: keys, values and their cached
+ * hashes are stored into parallel arrays sized exactly to the number of entries (keeping the
+ * iteration order of the original map) and an open addressing table of {@code int} indexes is
+ * used for lookups. The load factor of the index table can be higher than the 0.5 used by
+ * {@link AbstractEntryMap} because comparing the cached hashes avoids most of the
+ * {@code equals()} calls while probing. {@link Map.Entry} objects are only created while iterating
+ * {@link #entrySet()}.
+ *
+ * @see ImmutableTableMap#compact()
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public final class ImmutableCompactTableMap<K, V> extends AbstractMap<K, V>
+        implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    public static final ImmutableCompactTableMap<?, ?> EMPTY =
+            new ImmutableCompactTableMap<Object, Object>(new TableMap<>());
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableCompactTableMap<K, V> empty() {
+        return (ImmutableCompactTableMap<K, V>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableCompactTableMap<K, V> of(Object... values) {
+        final TableMap<K, V> map = new TableMap<>(values.length >> 1);
+        for (int i = 0; i < values.length; i += 2) {
+            map.put((K) values[i], (V) values[i + 1]);
+        }
+        return new ImmutableCompactTableMap<>(map);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableCompactTableMap<K, V> of(Map<? extends K, ? extends V> map) {
+        if (map instanceof ImmutableCompactTableMap) {
+            return (ImmutableCompactTableMap<K, V>) map;
+        }
+        return new ImmutableCompactTableMap<>(map);
+    }
+
+    public static <K, V> MapBuilder<ImmutableCompactTableMap<K, V>, K, V> builder() {
+        return new MapBuilder<>(l -> ImmutableCompactTableMap.of(l.toArray()));
+    }
+
+    private final K[] keys;
+    private final V[] values;
+    private final int[] hashes;
+    // open addressing table containing the index + 1 of the entries (0 means empty)
+    private final int[] table;
+    private Set<Entry<K, V>> entrySet;
+
+    public ImmutableCompactTableMap(Map<? extends K, ? extends V> map) {
+        this(map, DEFAULT_LOAD_FACTOR);
+    }
+
+    /**
+     * @param loadFactor the maximum ratio between the number of entries and the size of the index
+     *                   table, must be greater than 0 and less than 1
+     */
+    @SuppressWarnings("unchecked")
+    public ImmutableCompactTableMap(Map<? extends K, ? extends V> map, float loadFactor) {
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("invalid load factor: " + loadFactor);
+        }
+        final int size = map.size();
+        this.keys = (K[]) new Object[size];
+        this.values = (V[]) new Object[size];
+        this.hashes = new int[size];
+        this.table = new int[AbstractEntryMap.nextPowerOf2(
+                Math.max(1, (int) Math.ceil(size / (double) loadFactor)))];
+        int index = 0;
+        for (Entry<? extends K, ? extends V> e : map.entrySet()) {
+            keys[index] = e.getKey();
+            values[index] = e.getValue();
+            index++;
+        }
+        fillTable(keys, hashes, table);
+    }
+
+    /**
+     * Used by {@link SerializedForm}: keys (distinct) and values are interleaved and the size
+     * of the table is a power of 2 greater than the number of keys.
+     */
+    @SuppressWarnings("unchecked")
+    ImmutableCompactTableMap(Object[] pairs, int tableSize) {
+        final int size = pairs.length >> 1;
+        this.keys = (K[]) new Object[size];
+        this.values = (V[]) new Object[size];
+        this.hashes = new int[size];
+        this.table = new int[tableSize];
+        for (int i = 0, j = 0; i < size; i++, j += 2) {
+            keys[i] = (K) pairs[j];
+            values[i] = (V) pairs[j + 1];
+        }
+        fillTable(keys, hashes, table);
+    }
+
+    private static void fillTable(Object[] keys, int[] hashes, int[] table) {
+        final int mask = table.length - 1;
+        for (int index = 0; index < keys.length; index++) {
+            final int h = hash(keys[index]);
+            hashes[index] = h;
+            int idx = h & mask;
+            while (table[idx] != 0) {
+                idx = (idx + 1) & mask;
+            }
+            table[idx] = index + 1;
+        }
+    }
+
+    // copied from AbstractEntryMap#hash()
+    private static int hash(Object o) {
+        if (o == null) {
+            return 0;
+        }
+        int h = o.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        return h ^ (h >>> 7) ^ (h >>> 4);
+    }
+
+    private int indexOf(Object key) {
+        final int h = hash(key);
+        final int mask = table.length - 1;
+        int idx = h & mask;
+        int pos;
+        while ((pos = table[idx]) != 0) {
+            pos--;
+            if (hashes[pos] == h && Objects.equals(key, keys[pos])) {
+                return pos;
+            }
+            idx = (idx + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public V get(Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        for (V v : values) {
+            if (Objects.equals(value, v)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keys[i], values[i]);
+        }
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public V remove(Object key) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new Iterator<Entry<K, V>>() {
+                        int pos;
+
+                        @Override
+                        public boolean hasNext() {
+                            return pos < keys.length;
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            if (pos >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            final int index = pos++;
+                            return new ImmutableMapEntry<>(keys[index], values[index]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    if (!(o instanceof Entry)) {
+                        return false;
+                    }
+                    final Entry<?, ?> e = (Entry<?, ?>) o;
+                    final int index = indexOf(e.getKey());
+                    return index >= 0 && Objects.equals(values[index], e.getValue());
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    public ImmutableCompactTableMap<K, V> immutable() {
+        return this;
+    }
+
+    /**
+     * Only keys and values are written, hashes and the index table (of the same size) are rebuilt
+     * when read.
+     */
+    private Object writeReplace() {
+        final Object[] pairs = new Object[keys.length << 1];
+        for (int i = 0, j = 0; i < keys.length; i++, j += 2) {
+            pairs[j] = keys[i];
+            pairs[j + 1] = values[i];
+        }
+        return new SerializedForm(SerializedForm.COMPACT_TABLE_MAP, table.length, pairs);
+    }
+
+    // equals(), hashCode() and toString() are all inherited from AbstractMap
+}
@@ -1,9 +1,9 @@
 package com.fillumina.collections;
 
-import com.fillumina.collections.AbstractEntryMap.InternalState;
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
@@ -12,88 +12,19 @@ import java.util.stream.Collectors;
 /**
  * An immutable linked hash set. This set guarantees its immutability and can be safely shared
  * between objects. It maintains insertion order.
+ * <p>
+ * The elements are stored only once in insertion order into an array and an open addressing
+ * table of indexes into that array is used for lookups, so there are no entry objects and
+ * {@link #get(int)}, {@link #indexOf(java.lang.Object)} and {@link #contains(java.lang.Object)}
+ * all take O(1) while iteration runs at array speed.
  *
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
-public final class ImmutableLinkedTableSet<T> implements Set<T> {
+public final class ImmutableLinkedTableSet<T> implements Set<T>, Serializable {
+    private static final long serialVersionUID = 1L;
 
     public static final ImmutableLinkedTableSet<?> EMPTY = new ImmutableLinkedTableSet<Object>();
 
-    private static class LinkedEntry<K> implements Map.Entry<K, Integer> {
-        private final K key;
-        private final int index;
-        private LinkedEntry<K> next;
-
-        public LinkedEntry(K value, int index) {
-            this.key = value;
-            this.index = index;
-        }
-
-        @Override
-        public K getKey() {
-            return key;
-        }
-
-        @Override
-        public Integer getValue() {
-            return index;
-        }
-
-        @Override
-        public Integer setValue(Integer value) {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hashCode(key);
-        }
-
-    }
-
-    private static class LinkedEntryMap<K>
-            extends AbstractEntryMap<K, Integer, LinkedEntry<K>, VieweableMap<K, Integer>, InternalState<LinkedEntry<K>> > {
-
-        private LinkedEntry<K> head;
-
-        public LinkedEntryMap(K[] values) {
-            super(values.length);
-            if (values.length != 0) {
-                int index = 0;
-                LinkedEntry<K> current = null;
-                for (K k : values) {
-                    if (!containsKey(k)) {
-                        LinkedEntry<K> entry = new LinkedEntry<>(k, index);
-                        innerPutEntry(entry);
-                        if (head == null) {
-                            head = entry;
-                        } else {
-                            current.next = entry;
-                        }
-                        current = entry;
-                        index++;
-                    }
-                }
-            }
-        }
-
-        @Override
-        protected void readOnlyCheck() {
-            throw new UnsupportedOperationException("read only");
-        }
-
-        @Override
-        protected LinkedEntry<K> createEntry(K k, Integer v,
-                InternalState<LinkedEntry<K>> internalState) {
-            throw new UnsupportedOperationException("not used");
-        }
-
-        @Override
-        protected LinkedEntryMap<K> createMap(int size) {
-            throw new UnsupportedOperationException("not used");
-        }
-    }
-
     @SuppressWarnings("unchecked")
     public static <T> ImmutableLinkedTableSet<T> empty() {
         return (ImmutableLinkedTableSet<T>) EMPTY;
@@ -112,95 +43,154 @@ public final class ImmutableLinkedTableSet<T> implements Set<T> {
         if (list == null || list.isEmpty()) {
             return (ImmutableLinkedTableSet<T>) EMPTY;
         }
-        if (list instanceof ImmutableList) {
+        if (list instanceof ImmutableLinkedTableSet) {
             return (ImmutableLinkedTableSet<T>) list;
         }
         return new ImmutableLinkedTableSet<T>(list);
     }
 
-    private LinkedEntryMap<T> delegate;
+    // elements in insertion order
+    private final T[] array;
+    // open addressing table containing the index + 1 of the elements into array (0 means empty)
+    // or the order filled by perfectHash if used
+    private final int[] table;
+    // optional minimal perfect hash
+    private final MinimalPerfectHash perfectHash;
 
     // for kryo
     @SuppressWarnings("unchecked")
     public ImmutableLinkedTableSet() {
-        delegate = new LinkedEntryMap<>((T[])new Object[0]);
+        this((T[]) new Object[0]);
     }
 
     @SuppressWarnings("unchecked")
     public ImmutableLinkedTableSet(T... elements) {
-        delegate = new LinkedEntryMap<>(elements);
+        final int length = elements.length;
+        // keeps at least half of the table empty
+        this.table = new int[AbstractEntryMap.nextPowerOf2(Math.max(1, length)) << 1];
+        // never share the array of the caller
+        final T[] distinct = (T[]) new Object[length];
+        int size = 0;
+        for (T t : elements) {
+            final int idx = slotOf(table, distinct, t);
+            if (table[idx] == 0) {
+                distinct[size] = t;
+                size++;
+                table[idx] = size;
+            }
+        }
+        this.array = size == length ? distinct : Arrays.copyOf(distinct, size);
+        this.perfectHash = null;
+    }
+
+    private ImmutableLinkedTableSet(T[] array, int[] order, MinimalPerfectHash perfectHash) {
+        this.array = array;
+        this.table = order;
+        this.perfectHash = perfectHash;
     }
 
     @SuppressWarnings("unchecked")
     public ImmutableLinkedTableSet(Collection<? extends T> collection) {
-        delegate = new LinkedEntryMap<>((T[])collection.toArray());
+        this((T[]) collection.toArray());
     }
 
-    /** This operation takes O(n) */
-    public T get(int index) {
-        Iterator<T> it = iterator();
-        for (int i=0; i<index; i++) {
-            it.next();
+    // copied from AbstractEntryMap#hash()
+    private static int hash(Object o) {
+        int h = Objects.hashCode(o);
+        h ^= (h >>> 20) ^ (h >>> 12);
+        return h ^ (h >>> 7) ^ (h >>> 4);
+    }
+
+    /** @return the slot of the table containing the element or the empty one to put it into */
+    private static int slotOf(int[] table, Object[] array, Object o) {
+        final int mask = table.length - 1;
+        int idx = hash(o) & mask;
+        int pos;
+        while ((pos = table[idx]) != 0 && !Objects.equals(o, array[pos - 1])) {
+            idx = (idx + 1) & mask;
+        }
+        return idx;
+    }
+
+    /**
+     * @return a clone sharing the same elements that uses a minimal perfect hash function to
+     * look them up: it takes time to build but each lookup takes one hash, one slot and one
+     * {@code equals()} and the index table is sized exactly to the number of elements.
+     */
+    public ImmutableLinkedTableSet<T> perfectHashed() {
+        if (perfectHash != null) {
+            return this;
         }
-        return it.next();
+        final int[] order = new int[array.length];
+        return new ImmutableLinkedTableSet<>(array, order, MinimalPerfectHash.build(array, order));
+    }
+
+    /** This operation takes O(1) */
+    public T get(int index) {
+        return array[index];
     }
 
     /** This operation takes O(1) */
     public int indexOf(T value) {
-        LinkedEntry<T> entry = delegate.getEntry(value);
-        return entry == null ? -1 : entry.index;
+        if (perfectHash != null) {
+            return perfectHash.indexOf(value, array, table);
+        }
+        return table[slotOf(table, array, value)] - 1;
     }
 
     @Override
     public int size() {
-        return delegate.size();
+        return array.length;
     }
 
     @Override
     public boolean isEmpty() {
-        return delegate.isEmpty();
+        return array.length == 0;
     }
 
     @Override
     public boolean contains(Object o) {
-        return delegate.containsKey(o);
+        if (perfectHash != null) {
+            return perfectHash.indexOf(o, array, table) >= 0;
+        }
+        return table[slotOf(table, array, o)] != 0;
     }
 
     @Override
     public Iterator<T> iterator() {
         return new Iterator<T>() {
-            private LinkedEntry<T> current = delegate.head;
+            private int pos;
 
             @Override
             public boolean hasNext() {
-                return current != null;
+                return pos < array.length;
             }
 
             @Override
             public T next() {
-                try {
-                    T value = current.getKey();
-                    current = current.next;
-                    return value;
-                } catch (NullPointerException ex) {
+                if (pos >= array.length) {
                     throw new NoSuchElementException();
                 }
+                return array[pos++];
             }
         };
     }
 
     @Override
     public Object[] toArray() {
-        return toArray(new Object[size()]);
+        return Arrays.copyOf(array, array.length, Object[].class);
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <S> S[] toArray(S[] a) {
-        int index = 0;
-        for (T t : this) {
-            a[index] = (S)t;
-            index++;
+        final int size = array.length;
+        if (a.length < size) {
+            return (S[]) Arrays.copyOf(array, size, a.getClass());
+        }
+        System.arraycopy(array, 0, a, 0, size);
+        if (a.length > size) {
+            a[size] = null;
         }
         return a;
     }
@@ -247,12 +237,23 @@ public final class ImmutableLinkedTableSet<T> implements Set<T> {
 
     @Override
     public boolean equals(Object o) {
-        return delegate.equals(o);
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof Set)) {
+            return false;
+        }
+        Set<?> set = (Set<?>) o;
+        return set.size() == array.length && containsAll(set);
     }
 
     @Override
     public int hashCode() {
-        return delegate.hashCode();
+        int h = 0;
+        for (T t : array) {
+            h += Objects.hashCode(t);
+        }
+        return h;
     }
 
     @Override
@@ -261,4 +262,12 @@ public final class ImmutableLinkedTableSet<T> implements Set<T> {
                 .map(t -> Objects.toString(t))
                 .collect(Collectors.joining(",")) + "]";
     }
+
+    /** Only the elements are written, the index table is rebuilt when read. */
+    private Object writeReplace() {
+        return new SerializedForm(perfectHash == null ?
+                SerializedForm.LINKED_TABLE_SET :
+                SerializedForm.PERFECT_HASHED_LINKED_TABLE_SET,
+                array);
+    }
 }
@@ -1,5 +1,9 @@
 package com.fillumina.collections;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.AbstractList;
 import java.util.Collection;
 
@@ -9,7 +13,8 @@ import java.util.Collection;
  *
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
-public final class ImmutableList<T> extends AbstractList<T> {
+public final class ImmutableList<T> extends AbstractList<T> implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     public static final ImmutableList<?> EMPTY = new ImmutableList<Object>();
     private static final Object[] EMPTY_ARRAY = new Object[0];
@@ -38,7 +43,8 @@ public final class ImmutableList<T> extends AbstractList<T> {
         return new ImmutableList<T>(list);
     }
 
-    private T[] array;
+    // elements are written by writeObject()
+    private transient T[] array;
 
     // for kryo
     private ImmutableList() {
@@ -65,4 +71,15 @@ public final class ImmutableList<T> extends AbstractList<T> {
     public int size() {
         return array == null ? 0 : array.length;
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        SerializedForm.writeArray(out, array);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        array = (T[]) SerializedForm.readArray(in);
+    }
 }
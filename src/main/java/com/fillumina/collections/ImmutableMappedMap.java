@@ -0,0 +1,413 @@
+package com.fillumina.collections;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable {@link java.util.Map} reading its keys and values directly from a
+ * {@link ByteBuffer} in a lookup-ready layout. Usually the buffer is a file memory-mapped by
+ * {@link #open(java.nio.file.Path, Codec, Codec) } so that opening the map takes no time (there
+ * is no deserialization), the data lives off-heap and it's shared between processes through the
+ * page cache. The file is written by
+ * {@link #write(java.util.Map, java.nio.file.Path, Codec, Codec) } from any map (i.e. an
+ * {@link ImmutableTableMap} or an {@link ImmutableSortedArrayMap}) keeping its iteration order.
+ * <p>
+ * Keys and values are converted to bytes by a {@link Codec}. The index is an open addressing
+ * table of entry numbers using a hash of the encoded key bytes so it doesn't depend on the
+ * {@code hashCode()} implementations of the JVM. A lookup encodes the key, reads one hash for
+ * each probed slot and compares the bytes of the keys with the same hash. Values are decoded at
+ * each access. The layout (all integers are big-endian) is:
+ * <pre>
+ * int magic
+ * int size
+ * int tableSize            (a power of 2 at least twice the size)
+ * int[tableSize] table     (entry number + 1, 0 if empty)
+ * int[size] hashes         (hash of the key bytes of each entry)
+ * int[2 * size + 1] offsets (start of key and value of each entry into the heap and its end)
+ * byte[] heap              (key and value bytes of each entry)
+ * </pre>
+ * The file is limited to 2GB. {@code null} keys and values are not allowed.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public final class ImmutableMappedMap<K, V> extends AbstractMap<K, V> {
+
+    /**
+     * Converts objects into bytes and back.
+     */
+    public interface Codec<T> {
+
+        byte[] encode(T t);
+
+        /** Reads the object without modifying the position of the buffer. */
+        T decode(ByteBuffer buffer, int offset, int length);
+    }
+
+    public static final Codec<String> STRING = new Codec<String>() {
+        @Override
+        public byte[] encode(String t) {
+            return t.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(ByteBuffer buffer, int offset, int length) {
+            return new String(bytes(buffer, offset, length), StandardCharsets.UTF_8);
+        }
+    };
+
+    public static final Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public byte[] encode(Long t) {
+            return ByteBuffer.allocate(Long.BYTES).putLong(t).array();
+        }
+
+        @Override
+        public Long decode(ByteBuffer buffer, int offset, int length) {
+            return buffer.getLong(offset);
+        }
+    };
+
+    public static final Codec<Integer> INTEGER = new Codec<Integer>() {
+        @Override
+        public byte[] encode(Integer t) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(t).array();
+        }
+
+        @Override
+        public Integer decode(ByteBuffer buffer, int offset, int length) {
+            return buffer.getInt(offset);
+        }
+    };
+
+    /** Returns a copy of the bytes at each access. */
+    public static final Codec<byte[]> BYTES = new Codec<byte[]>() {
+        @Override
+        public byte[] encode(byte[] t) {
+            return t;
+        }
+
+        @Override
+        public byte[] decode(ByteBuffer buffer, int offset, int length) {
+            return bytes(buffer, offset, length);
+        }
+    };
+
+    private static final int MAGIC = 0x464D4D31; // FMM1
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+    private static byte[] bytes(ByteBuffer buffer, int offset, int length) {
+        final byte[] bytes = new byte[length];
+        // the duplicate keeps the position of the shared buffer untouched
+        buffer.duplicate().position(offset).get(bytes);
+        return bytes;
+    }
+
+    private static int hash(byte[] bytes) {
+        int h = Arrays.hashCode(bytes);
+        // murmur3 finalizer
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Writes the map into the file in the format read by
+     * {@link #open(java.nio.file.Path, Codec, Codec) }.
+     */
+    public static <K, V> void write(Map<K, V> map, Path file,
+            Codec<? super K> keyCodec, Codec<? super V> valueCodec) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(map, out, keyCodec, valueCodec);
+        }
+    }
+
+    /**
+     * Writes the map into the stream in the format read by
+     * {@link #ImmutableMappedMap(java.nio.ByteBuffer, Codec, Codec) }.
+     *
+     * @throws IllegalArgumentException if there are {@code null} keys or values or keys encoded
+     *                                  to the same bytes
+     */
+    public static <K, V> void write(Map<K, V> map, OutputStream out,
+            Codec<? super K> keyCodec, Codec<? super V> valueCodec) throws IOException {
+        final int size = map.size();
+        final byte[][] keys = new byte[size][];
+        final byte[][] values = new byte[size][];
+        final int[] hashes = new int[size];
+        long heapSize = 0;
+        int index = 0;
+        for (Entry<K, V> e : map.entrySet()) {
+            if (e.getKey() == null || e.getValue() == null) {
+                throw new IllegalArgumentException("null keys and values are not allowed");
+            }
+            keys[index] = keyCodec.encode(e.getKey());
+            values[index] = valueCodec.encode(e.getValue());
+            hashes[index] = hash(keys[index]);
+            heapSize += keys[index].length + values[index].length;
+            index++;
+        }
+
+        final int tableSize = AbstractEntryMap.nextPowerOf2(Math.max(1, size)) << 1;
+        final long fileSize = HEADER_SIZE +
+                (tableSize + size + 2L * size + 1) * Integer.BYTES + heapSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("map too big: " + fileSize + " bytes");
+        }
+
+        final int[] table = new int[tableSize];
+        final int mask = tableSize - 1;
+        for (int i = 0; i < size; i++) {
+            int idx = hashes[i] & mask;
+            while (table[idx] != 0) {
+                final int other = table[idx] - 1;
+                if (hashes[other] == hashes[i] && Arrays.equals(keys[other], keys[i])) {
+                    throw new IllegalArgumentException("keys encoded to the same bytes: " +
+                            Arrays.toString(keys[i]));
+                }
+                idx = (idx + 1) & mask;
+            }
+            table[idx] = i + 1;
+        }
+
+        final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(size);
+        data.writeInt(tableSize);
+        for (int slot : table) {
+            data.writeInt(slot);
+        }
+        for (int h : hashes) {
+            data.writeInt(h);
+        }
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            data.writeInt(offset);
+            offset += keys[i].length;
+            data.writeInt(offset);
+            offset += values[i].length;
+        }
+        data.writeInt(offset);
+        for (int i = 0; i < size; i++) {
+            data.write(keys[i]);
+            data.write(values[i]);
+        }
+        data.flush();
+    }
+
+    /**
+     * Memory-maps the file written by
+     * {@link #write(java.util.Map, java.nio.file.Path, Codec, Codec) }. The mapping stays valid
+     * until the map is garbage collected.
+     */
+    public static <K, V> ImmutableMappedMap<K, V> open(Path file,
+            Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ImmutableMappedMap<>(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                    keyCodec, valueCodec);
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final int size;
+    private final int mask;
+    private final int hashesStart;
+    private final int offsetsStart;
+    private final int heapStart;
+    private Set<Entry<K, V>> entrySet;
+
+    /**
+     * @param buffer contains the map written by
+     * {@link #write(java.util.Map, java.io.OutputStream, Codec, Codec) } starting from its
+     * current position (the buffer is never modified)
+     */
+    public ImmutableMappedMap(ByteBuffer buffer, Codec<K> keyCodec, Codec<V> valueCodec) {
+        // slice() has big-endian order and an independent position
+        this.buffer = buffer.slice();
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        final int capacity = this.buffer.capacity();
+        if (capacity < HEADER_SIZE || this.buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not a mapped map");
+        }
+        this.size = this.buffer.getInt(Integer.BYTES);
+        final int tableSize = this.buffer.getInt(2 * Integer.BYTES);
+        if (size < 0 || tableSize <= size || (tableSize & (tableSize - 1)) != 0) {
+            throw new IllegalArgumentException("invalid size=" + size + " table=" + tableSize);
+        }
+        this.mask = tableSize - 1;
+        this.hashesStart = HEADER_SIZE + tableSize * Integer.BYTES;
+        this.offsetsStart = hashesStart + size * Integer.BYTES;
+        this.heapStart = offsetsStart + (2 * size + 1) * Integer.BYTES;
+        if (heapStart > capacity || heapStart + offset(2 * size) > capacity) {
+            throw new IllegalArgumentException("truncated buffer");
+        }
+    }
+
+    private int offset(int index) {
+        return buffer.getInt(offsetsStart + index * Integer.BYTES);
+    }
+
+    private K keyAt(int entry) {
+        final int start = offset(entry << 1);
+        return keyCodec.decode(buffer, heapStart + start, offset((entry << 1) + 1) - start);
+    }
+
+    private V valueAt(int entry) {
+        final int start = offset((entry << 1) + 1);
+        return valueCodec.decode(buffer, heapStart + start, offset((entry << 1) + 2) - start);
+    }
+
+    /** @return the entry number of the key or -1 if not present */
+    @SuppressWarnings("unchecked")
+    private int indexOf(Object key) {
+        if (key == null || size == 0) {
+            return -1;
+        }
+        final byte[] bytes;
+        try {
+            bytes = keyCodec.encode((K) key);
+        } catch (ClassCastException ex) {
+            return -1;
+        }
+        final int h = hash(bytes);
+        int idx = h & mask;
+        int slot;
+        while ((slot = buffer.getInt(HEADER_SIZE + idx * Integer.BYTES)) != 0) {
+            final int entry = slot - 1;
+            if (buffer.getInt(hashesStart + entry * Integer.BYTES) == h &&
+                    keyEquals(entry, bytes)) {
+                return entry;
+            }
+            idx = (idx + 1) & mask;
+        }
+        return -1;
+    }
+
+    private boolean keyEquals(int entry, byte[] bytes) {
+        final int start = offset(entry << 1);
+        if (offset((entry << 1) + 1) - start != bytes.length) {
+            return false;
+        }
+        final int position = heapStart + start;
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(position + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public V get(Object key) {
+        final int entry = indexOf(key);
+        return entry < 0 ? null : valueAt(entry);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(keyAt(i), valueAt(i));
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public V remove(Object key) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new Iterator<Entry<K, V>>() {
+                        int pos;
+
+                        @Override
+                        public boolean hasNext() {
+                            return pos < size;
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            if (pos >= size) {
+                                throw new NoSuchElementException();
+                            }
+                            final int entry = pos++;
+                            return new ImmutableMapEntry<>(keyAt(entry), valueAt(entry));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    if (!(o instanceof Entry)) {
+                        return false;
+                    }
+                    final Entry<?, ?> e = (Entry<?, ?>) o;
+                    final int entry = indexOf(e.getKey());
+                    return entry >= 0 && valueAt(entry).equals(e.getValue());
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    public ImmutableMappedMap<K, V> immutable() {
+        return this;
+    }
+
+    // equals(), hashCode() and toString() are all inherited from AbstractMap
+}
@@ -0,0 +1,193 @@
+package com.fillumina.collections;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable {@link java.util.Map} using a minimal perfect hash function computed when the map
+ * is built: keys and values are stored into two arrays sized exactly to the number of entries
+ * (keeping the iteration order of the original map) and a lookup takes one hash, one slot and
+ * (unless keys have colliding hash codes) one {@code equals()}. Building the map is more
+ * expensive than building an {@link ImmutableTableMap} so it's useful for static maps read very
+ * often.
+ *
+ * @see ImmutableTableMap#perfectHashed()
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public final class ImmutablePerfectHashMap<K, V> extends AbstractMap<K, V>
+        implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public static final ImmutablePerfectHashMap<?, ?> EMPTY =
+            new ImmutablePerfectHashMap<Object, Object>(new TableMap<>());
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutablePerfectHashMap<K, V> empty() {
+        return (ImmutablePerfectHashMap<K, V>) EMPTY;
+    }
+
+    public static <K, V> ImmutablePerfectHashMap<K, V> of(Object... values) {
+        return new ImmutablePerfectHashMap<>(toMap(values));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutablePerfectHashMap<K, V> of(Map<? extends K, ? extends V> map) {
+        if (map instanceof ImmutablePerfectHashMap) {
+            return (ImmutablePerfectHashMap<K, V>) map;
+        }
+        return new ImmutablePerfectHashMap<>(map);
+    }
+
+    public static <K, V> MapBuilder<ImmutablePerfectHashMap<K, V>, K, V> builder() {
+        return new MapBuilder<>(l -> new ImmutablePerfectHashMap<>(toMap(l.toArray())));
+    }
+
+    /** Removes duplicated keys in O(n), the last value wins. */
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V> toMap(Object[] values) {
+        final TableMap<K, V> map = new TableMap<>(values.length >> 1);
+        for (int i = 0; i < values.length; i += 2) {
+            map.put((K) values[i], (V) values[i + 1]);
+        }
+        return map;
+    }
+
+    private final K[] keys;
+    private final V[] values;
+    // index of the key at each position of the perfect hash
+    private final int[] order;
+    private final MinimalPerfectHash hash;
+    private Set<Entry<K, V>> entrySet;
+
+    @SuppressWarnings("unchecked")
+    public ImmutablePerfectHashMap(Map<? extends K, ? extends V> map) {
+        final int size = map.size();
+        this.keys = (K[]) new Object[size];
+        this.values = (V[]) new Object[size];
+        int index = 0;
+        for (Entry<? extends K, ? extends V> e : map.entrySet()) {
+            keys[index] = e.getKey();
+            values[index] = e.getValue();
+            index++;
+        }
+        this.order = new int[size];
+        this.hash = MinimalPerfectHash.build(keys, order);
+    }
+
+    /** Used by {@link SerializedForm}: keys (distinct) and values are interleaved. */
+    @SuppressWarnings("unchecked")
+    ImmutablePerfectHashMap(Object[] pairs) {
+        final int size = pairs.length >> 1;
+        this.keys = (K[]) new Object[size];
+        this.values = (V[]) new Object[size];
+        for (int i = 0, j = 0; i < size; i++, j += 2) {
+            keys[i] = (K) pairs[j];
+            values[i] = (V) pairs[j + 1];
+        }
+        this.order = new int[size];
+        this.hash = MinimalPerfectHash.build(keys, order);
+    }
+
+    @Override
+    public V get(Object key) {
+        final int index = hash.indexOf(key, keys, order);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return hash.indexOf(key, keys, order) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public V remove(Object key) {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("read only");
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<Entry<K, V>>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new Iterator<Entry<K, V>>() {
+                        int pos;
+
+                        @Override
+                        public boolean hasNext() {
+                            return pos < keys.length;
+                        }
+
+                        @Override
+                        public Entry<K, V> next() {
+                            if (pos >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            final int index = pos++;
+                            return new ImmutableMapEntry<>(keys[index], values[index]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    if (!(o instanceof Entry)) {
+                        return false;
+                    }
+                    final Entry<?, ?> e = (Entry<?, ?>) o;
+                    final int index = hash.indexOf(e.getKey(), keys, order);
+                    return index >= 0 && Objects.equals(values[index], e.getValue());
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    public ImmutablePerfectHashMap<K, V> immutable() {
+        return this;
+    }
+
+    /** Only keys and values are written, the perfect hash is rebuilt when read. */
+    private Object writeReplace() {
+        final Object[] pairs = new Object[keys.length << 1];
+        for (int i = 0, j = 0; i < keys.length; i++, j += 2) {
+            pairs[j] = keys[i];
+            pairs[j + 1] = values[i];
+        }
+        return new SerializedForm(SerializedForm.PERFECT_HASH_MAP, pairs);
+    }
+
+    // equals(), hashCode() and toString() are all inherited from AbstractMap
+}
@@ -7,6 +7,7 @@ import java.util.Collection;
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
 public class ImmutableSmallList<T> extends SmallList<T> {
+    private static final long serialVersionUID = 1L;
 
     public ImmutableSmallList() {
         super();
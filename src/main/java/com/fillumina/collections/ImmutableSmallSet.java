@@ -32,7 +32,7 @@ public final class ImmutableSmallSet<T> extends SmallSet<T> {
         if (collection == null || collection.isEmpty()) {
             return (ImmutableSmallSet<T>) EMPTY;
         }
-        if (collection instanceof ImmutableList) {
+        if (collection instanceof ImmutableSmallSet) {
             return (ImmutableSmallSet<T>) collection;
         }
         return new ImmutableSmallSet<T>(collection);
@@ -11,6 +11,7 @@ import java.util.Map;
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
 public final class ImmutableSortedArrayMap<K extends Comparable<K>, V> extends SortedArrayMap<K, V> {
+    private static final long serialVersionUID = 1L;
 
     @SuppressWarnings("unchecked")
     public static final ImmutableSortedArrayMap<? extends Comparable,?> EMPTY =
@@ -1,5 +1,6 @@
 package com.fillumina.collections;
 
+import com.fillumina.collections.AbstractEntryMap.InternalState;
 import java.util.AbstractMap;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +13,7 @@ import java.util.Map;
  * @param <V>
  */
 public final class ImmutableTableMap<K, V> extends UnmodifiableTableMap<K, V> {
+    private static final long serialVersionUID = 1L;
 
     public static final ImmutableTableMap<?,?> EMPTY = new ImmutableTableMap<Object, Object>();
 
@@ -57,6 +59,13 @@ public final class ImmutableTableMap<K, V> extends UnmodifiableTableMap<K, V> {
         super(map);
     }
 
+    /**
+     * View constructor used by {@link TableMap#immutable()}: the state must never be modified.
+     */
+    ImmutableTableMap(InternalState<AbstractMap.SimpleImmutableEntry<K, V>> internalState) {
+        super(internalState);
+    }
+
     protected ImmutableTableMap(List<?> list) {
         super(list);
     }
@@ -71,6 +80,30 @@ public final class ImmutableTableMap<K, V> extends UnmodifiableTableMap<K, V> {
         return this;
     }
 
+    /**
+     * @return an immutable clone without entry objects using the default load factor.
+     */
+    public ImmutableCompactTableMap<K, V> compact() {
+        return new ImmutableCompactTableMap<>(this);
+    }
+
+    /**
+     * @param loadFactor the maximum ratio between the number of entries and the size of the index
+     *                   table, must be greater than 0 and less than 1
+     * @return an immutable clone without entry objects.
+     */
+    public ImmutableCompactTableMap<K, V> compact(float loadFactor) {
+        return new ImmutableCompactTableMap<>(this, loadFactor);
+    }
+
+    /**
+     * @return an immutable clone using a minimal perfect hash function: it's expensive to build
+     * but faster to read.
+     */
+    public ImmutablePerfectHashMap<K, V> perfectHashed() {
+        return new ImmutablePerfectHashMap<>(this);
+    }
+
     @Override
     public ImmutableTableMap<K, V> clone() {
         return this;
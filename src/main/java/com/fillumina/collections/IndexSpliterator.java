@@ -0,0 +1,72 @@
+package com.fillumina.collections;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * A {@link Spliterator} over a range of indexes mapped to elements. It splits in halves and is
+ * {@link Spliterator#SIZED} and {@link Spliterator#SUBSIZED} so parallel streams can partition
+ * the work evenly.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+final class IndexSpliterator<T> implements Spliterator<T> {
+    private final IntFunction<? extends T> element;
+    private final int characteristics;
+    private final int end;
+    private int index;
+
+    /**
+     * @param element         returns the element at the given index
+     * @param from            the first index (inclusive)
+     * @param to              the last index (exclusive)
+     * @param characteristics added to {@code ORDERED}, {@code SIZED} and {@code SUBSIZED}
+     */
+    IndexSpliterator(IntFunction<? extends T> element, int from, int to, int characteristics) {
+        this.element = element;
+        this.index = from;
+        this.end = to;
+        this.characteristics = characteristics | ORDERED | SIZED | SUBSIZED;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index < end) {
+            action.accept(element.apply(index++));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        final int to = end;
+        int i = index;
+        index = to;
+        for (; i < to; i++) {
+            action.accept(element.apply(i));
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        final int from = index;
+        final int mid = (from + end) >>> 1;
+        if (mid <= from) {
+            return null;
+        }
+        index = mid;
+        return new IndexSpliterator<>(element, from, mid, characteristics);
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+}
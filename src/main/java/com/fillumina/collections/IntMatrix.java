@@ -0,0 +1,335 @@
+package com.fillumina.collections;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * A matrix of {@code int} values stored without boxing in a single flat array (by rows or by
+ * columns). Columns can be accessed by key like in {@link Matrix}.
+ *
+ * @see PrimitiveMatrix
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class IntMatrix<K> extends PrimitiveMatrix<K> {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] array;
+
+    public IntMatrix(int rows, int cols) {
+        this(rows, cols, false);
+    }
+
+    /**
+     * @param columnMajor stores the cells by column if true, by row otherwise
+     */
+    public IntMatrix(int rows, int cols, boolean columnMajor) {
+        super(null, rows, cols, columnMajor);
+        this.array = new int[rows * cols];
+    }
+
+    /**
+     * @param keys the column headers
+     */
+    public IntMatrix(Collection<? extends K> keys, int rows) {
+        this(keys, rows, false);
+    }
+
+    /**
+     * @param keys        the column headers
+     * @param columnMajor stores the cells by column if true, by row otherwise
+     */
+    public IntMatrix(Collection<? extends K> keys, int rows, boolean columnMajor) {
+        super(keys, rows, keys.size(), columnMajor);
+        this.array = new int[rows * keys.size()];
+    }
+
+    /** Takes ownership of the given row-major array of {@code rows * cols} cells. */
+    IntMatrix(Collection<? extends K> keys, int rows, int cols, int[] array) {
+        super(keys, rows, cols, false);
+        this.array = array;
+    }
+
+    /** Clone constructor. */
+    public IntMatrix(IntMatrix<K> copy) {
+        super(copy);
+        this.array = copy.array.clone();
+    }
+
+    public int get(int row, int col) {
+        return array[index(row, col)];
+    }
+
+    public IntMatrix<K> set(int row, int col, int value) {
+        array[index(row, col)] = value;
+        return this;
+    }
+
+    public int getByKey(K key, int row) {
+        return get(row, columnOf(key));
+    }
+
+    public IntMatrix<K> setByKey(K key, int row, int value) {
+        return set(row, columnOf(key), value);
+    }
+
+    /** Sets all the cells to the given value. */
+    public IntMatrix<K> fill(int value) {
+        Arrays.fill(array, value);
+        return this;
+    }
+
+    public IntMatrix<K> fillRow(int row, int value) {
+        fill(rowStart(row), colStride(), colSize(), value);
+        return this;
+    }
+
+    public IntMatrix<K> fillColumn(int col, int value) {
+        fill(columnStart(col), rowStride(), rowSize(), value);
+        return this;
+    }
+
+    /** @return a copy of the row */
+    public int[] getRow(int row) {
+        final int[] dest = new int[colSize()];
+        getRow(row, dest, 0);
+        return dest;
+    }
+
+    /** Copies the row into the given array starting at the given offset. */
+    public void getRow(int row, int[] dest, int offset) {
+        copyOut(rowStart(row), colStride(), dest, offset, colSize());
+    }
+
+    /** Sets the whole row (the number of values must be the same of the columns). */
+    public IntMatrix<K> setRow(int row, int... values) {
+        checkLength(values, colSize());
+        copyIn(rowStart(row), colStride(), values, colSize());
+        return this;
+    }
+
+    /** @return a copy of the column */
+    public int[] getColumn(int col) {
+        final int[] dest = new int[rowSize()];
+        getColumn(col, dest, 0);
+        return dest;
+    }
+
+    /** @return a copy of the column of the given key */
+    public int[] getColumnByKey(K key) {
+        return getColumn(columnOf(key));
+    }
+
+    /** Copies the column into the given array starting at the given offset. */
+    public void getColumn(int col, int[] dest, int offset) {
+        copyOut(columnStart(col), rowStride(), dest, offset, rowSize());
+    }
+
+    /** Sets the whole column (the number of values must be the same of the rows). */
+    public IntMatrix<K> setColumn(int col, int... values) {
+        checkLength(values, rowSize());
+        copyIn(columnStart(col), rowStride(), values, rowSize());
+        return this;
+    }
+
+    /**
+     * Copies all the cells of a matrix with the same keys and dimensions (a single array copy
+     * if it has the same layout too).
+     */
+    public IntMatrix<K> copyFrom(IntMatrix<?> other) {
+        if (!sameShape(other)) {
+            throw new IllegalArgumentException("different keys or dimensions");
+        }
+        if (sameLayout(other)) {
+            System.arraycopy(other.array, 0, array, 0, array.length);
+        } else {
+            for (int row = 0, rows = rowSize(); row < rows; row++) {
+                for (int col = 0, cols = colSize(); col < cols; col++) {
+                    array[index(row, col)] = other.array[other.index(row, col)];
+                }
+            }
+        }
+        return this;
+    }
+
+    /** @return a list view of the row (values are boxed on access) */
+    public List<Integer> getRowAsListByIndex(int row) {
+        return new CellList(rowStart(row), colStride(), colSize());
+    }
+
+    /** @return a list view of the column (values are boxed on access) */
+    public List<Integer> getColumnAsListByIndex(int col) {
+        return new CellList(columnStart(col), rowStride(), rowSize());
+    }
+
+    /** @return a list view of the column of the given key (values are boxed on access) */
+    public List<Integer> getColumnAsListByKey(K key) {
+        return getColumnAsListByIndex(columnOf(key));
+    }
+
+    /** Visits the values in the order they are stored (by row or by column). */
+    public void forEachElement(IntConsumer consumer) {
+        for (int i = 0, l = array.length; i < l; i++) {
+            consumer.accept(array[i]);
+        }
+    }
+
+    /**
+     * @return a sequential stream of all the values in the order they are stored (use
+     *         {@code parallel()} to split it)
+     */
+    public IntStream elementStream() {
+        return Arrays.stream(array);
+    }
+
+    /** @return a sequential stream of the values of the row */
+    public IntStream rowStream(int row) {
+        final int start = rowStart(row);
+        final int stride = colStride();
+        return IntStream.range(0, colSize()).map(i -> array[start + i * stride]);
+    }
+
+    /** @return a sequential stream of the values of the column */
+    public IntStream columnStream(int col) {
+        final int start = columnStart(col);
+        final int stride = rowStride();
+        return IntStream.range(0, rowSize()).map(i -> array[start + i * stride]);
+    }
+
+    /** @return a copy of the cells row by row */
+    public int[] toArray() {
+        if (!isColumnMajor()) {
+            return array.clone();
+        }
+        final int[] dest = new int[array.length];
+        for (int row = 0, rows = rowSize(), cols = colSize(); row < rows; row++) {
+            getRow(row, dest, row * cols);
+        }
+        return dest;
+    }
+
+    private void fill(int start, int stride, int length, int value) {
+        if (stride == 1) {
+            Arrays.fill(array, start, start + length, value);
+        } else {
+            for (int i = 0, idx = start; i < length; i++, idx += stride) {
+                array[idx] = value;
+            }
+        }
+    }
+
+    private void copyOut(int start, int stride, int[] dest, int offset, int length) {
+        if (stride == 1) {
+            System.arraycopy(array, start, dest, offset, length);
+        } else {
+            for (int i = 0, idx = start; i < length; i++, idx += stride) {
+                dest[offset + i] = array[idx];
+            }
+        }
+    }
+
+    private void copyIn(int start, int stride, int[] src, int length) {
+        if (stride == 1) {
+            System.arraycopy(src, 0, array, start, length);
+        } else {
+            for (int i = 0, idx = start; i < length; i++, idx += stride) {
+                array[idx] = src[i];
+            }
+        }
+    }
+
+    private static void checkLength(int[] values, int expected) {
+        if (values.length != expected) {
+            throw new IllegalArgumentException(
+                    "expected " + expected + " values, got " + values.length);
+        }
+    }
+
+    private class CellList extends AbstractList<Integer> {
+        private final int start;
+        private final int stride;
+        private final int size;
+
+        CellList(int start, int stride, int size) {
+            this.start = start;
+            this.stride = stride;
+            this.size = size;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return array[start + stride * checkIndex(index)];
+        }
+
+        @Override
+        public Integer set(int index, Integer element) {
+            final int idx = start + stride * checkIndex(index);
+            final int old = array[idx];
+            array[idx] = element;
+            return old;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private int checkIndex(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + " size " + size);
+            }
+            return index;
+        }
+    }
+
+    @Override
+    public IntMatrix<K> clone() {
+        return new IntMatrix<>(this);
+    }
+
+    @Override
+    protected String cellToString(int row, int col) {
+        return String.valueOf(get(row, col));
+    }
+
+    /** The hash code doesn't depend on the layout. */
+    @Override
+    public int hashCode() {
+        int hash = shapeHashCode();
+        for (int row = 0, rows = rowSize(); row < rows; row++) {
+            for (int col = 0, cols = colSize(); col < cols; col++) {
+                hash = 31 * hash + Integer.hashCode(get(row, col));
+            }
+        }
+        return hash;
+    }
+
+    /** Matrices with the same values are equal even if they have different layouts. */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final IntMatrix<?> other = (IntMatrix<?>) obj;
+        if (!sameShape(other)) {
+            return false;
+        }
+        if (sameLayout(other)) {
+            return Arrays.equals(array, other.array);
+        }
+        for (int row = 0, rows = rowSize(); row < rows; row++) {
+            for (int col = 0, cols = colSize(); col < cols; col++) {
+                if (get(row, col) != other.get(row, col)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,145 @@
+package com.fillumina.collections;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The JDK Flight Recorder events of {@link CollectionEvents}. It's the only class referring to
+ * the optional {@code jdk.jfr} module so it must be used only if the module is available.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+final class JfrEvents {
+    static final String CATEGORY = "Collections";
+
+    private JfrEvents() {}
+
+    static Object beginResize() {
+        final ResizeEvent event = new ResizeEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitResize(Object started, Class<?> containerClass,
+            AbstractEntryMap.InternalState<?> state, int oldTableSize) {
+        final ResizeEvent event = (ResizeEvent) started;
+        if (event.shouldCommit()) {
+            event.containerClass = containerClass;
+            event.size = state.size;
+            event.oldTableSize = oldTableSize;
+            event.newTableSize = CollectionEvents.tableSize(state);
+            event.bytes = CollectionEvents.tableBytes(state);
+            event.commit();
+        }
+    }
+
+    static Object beginCopy() {
+        final CopyEvent event = new CopyEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitCopy(Object started, Class<?> containerClass,
+            AbstractEntryMap.InternalState<?> state) {
+        final CopyEvent event = (CopyEvent) started;
+        if (event.shouldCommit()) {
+            event.containerClass = containerClass;
+            event.size = state.size;
+            event.tableSize = CollectionEvents.tableSize(state);
+            event.bytes = CollectionEvents.tableBytes(state);
+            event.commit();
+        }
+    }
+
+    static void commitCopy(Object started, Class<?> containerClass, CompactBiMap<?, ?> copy) {
+        final CopyEvent event = (CopyEvent) started;
+        if (event.shouldCommit()) {
+            event.containerClass = containerClass;
+            event.size = copy.size();
+            event.tableSize = copy.capacity();
+            event.bytes = copy.bytes();
+            event.commit();
+        }
+    }
+
+    static Object beginEviction() {
+        final EvictionEvent event = new EvictionEvent();
+        event.begin();
+        return event;
+    }
+
+    static void commitEviction(Object started, Class<?> containerClass,
+            AbstractEntryMap.InternalState<?> state) {
+        final EvictionEvent event = (EvictionEvent) started;
+        if (event.shouldCommit()) {
+            event.containerClass = containerClass;
+            event.size = state.size;
+            event.tableSize = CollectionEvents.tableSize(state);
+            event.commit();
+        }
+    }
+
+    @Name("com.fillumina.collections.Resize")
+    @Label("Table Resize")
+    @Description("The hash table of a map has been reallocated and all its entries rehashed")
+    @Category(CATEGORY)
+    @Enabled(false)
+    static final class ResizeEvent extends Event {
+        @Label("Container Class")
+        Class<?> containerClass;
+
+        @Label("Size")
+        int size;
+
+        @Label("Old Table Size")
+        int oldTableSize;
+
+        @Label("New Table Size")
+        int newTableSize;
+
+        @Label("Bytes Allocated")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.fillumina.collections.Copy")
+    @Label("Copy on Write")
+    @Description("The whole table of a map has been copied before being modified")
+    @Category(CATEGORY)
+    @Enabled(false)
+    static final class CopyEvent extends Event {
+        @Label("Container Class")
+        Class<?> containerClass;
+
+        @Label("Size")
+        int size;
+
+        @Label("Table Size")
+        int tableSize;
+
+        @Label("Bytes Copied")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.fillumina.collections.Eviction")
+    @Label("Cache Eviction")
+    @Description("The least used entry of a full cache has been removed")
+    @Category(CATEGORY)
+    @Enabled(false)
+    static final class EvictionEvent extends Event {
+        @Label("Container Class")
+        Class<?> containerClass;
+
+        @Label("Size")
+        int size;
+
+        @Label("Table Size")
+        int tableSize;
+    }
+}
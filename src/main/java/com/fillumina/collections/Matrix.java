@@ -1,5 +1,10 @@
 package com.fillumina.collections;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.AbstractList;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
@@ -14,18 +19,32 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * It's a multi value map backed by a 2-dimensional array. It is possible to
  * retrieve the value of a cell by using coordinates or by indicating its key and the row index and
  * it's possible to "translate" by rows from one column to another using column headers as keys.
- * Key access and cell access are O(1), translating is linear along the same row.
+ * Key access and cell access are O(1). Translating is O(1) as well: the value to row index of a
+ * column is kept in a hash index built at the first search into the column (eagerly by
+ * {@link Immutable}) and maintained by {@link #set(int, int, java.lang.Object) } (moving rows or
+ * columns discards the indexes).
+ * <p>
+ * Values are stored by rows unless the matrix is <i>column-major</i> (see
+ * {@link RowBuilder#columnMajor() } and {@link ColBuilder#columnMajor() }): then the values of
+ * each key are kept in a single array so scanning, adding and removing a column involve one
+ * array only while adding or removing a row involves every column.
  *
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
-public class Matrix<K, V> {
+public class Matrix<K, V> implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     private static final int COLUMN_SEPARATION = 2;
 
@@ -36,7 +55,16 @@ public class Matrix<K, V> {
         return (Matrix<K, V>) EMPTY;
     }
 
+    /** The rows produced by {@link Matrix#join(Matrix, Object, Object, JoinType) }. */
+    public enum JoinType {
+        /** Only the pairs of matching rows. */
+        INNER,
+        /** The pairs of matching rows and the rows of the left matrix without a match. */
+        LEFT
+    }
+
     public static class Immutable<K, V> extends Matrix<K, V> {
+        private static final long serialVersionUID = 1L;
 
         private Immutable() {
         }
@@ -67,6 +95,20 @@ public class Matrix<K, V> {
             super(keys, array);
         }
 
+        /**
+         * @param array contains the columns if {@code columnMajor} is true, the rows otherwise
+         */
+        protected Immutable(K[] keys, V[][] array, boolean columnMajor) {
+            super(keys, array, columnMajor);
+        }
+
+        /**
+         * @param array contains the columns if {@code columnMajor} is true, the rows otherwise
+         */
+        protected Immutable(Set<? extends K> keys, V[][] array, boolean columnMajor) {
+            super(keys, array, columnMajor);
+        }
+
         /**
          * Keys are the column headers
          */
@@ -78,6 +120,12 @@ public class Matrix<K, V> {
             super(copy);
         }
 
+        // executed after the constructor of Matrix so searches never modify an immutable
+        // matrix (that still needs a safe publication to be shared between threads)
+        {
+            indexAllColumns();
+        }
+
         @Override
         protected void readOnlyCheck() {
             throw new UnsupportedOperationException("read only");
@@ -89,11 +137,35 @@ public class Matrix<K, V> {
         }
     }
 
+    /**
+     * Builds a matrix by rows. The rows are copied directly into the storage of the builder
+     * (growing by at least 50% when needed). Each built matrix gets a trimmed copy of it so that
+     * the builder can go on adding rows and building other matrices.
+     */
     public static class RowBuilder<K, V> {
 
         private K[] keys;
-        private List<V[]> rows = new ArrayList<>();
+        private Matrix<K, V> rows =
+                new Matrix<>((BiMap<K, Integer>) null, new Object[0][], false);
         private int rowLength = -1;
+        private int expectedRows;
+
+        /** The built matrix will store its values by column. */
+        public RowBuilder<K, V> columnMajor() {
+            if (!rows.columnMajor) {
+                rows = new Matrix<>(rows, true);
+            }
+            return this;
+        }
+
+        /** Reserves the storage for the given number of rows. */
+        public RowBuilder<K, V> expectedRows(int expectedRows) {
+            this.expectedRows = expectedRows;
+            if (rows.rowSize() > 0) {
+                rows.ensureRowCapacity(expectedRows);
+            }
+            return this;
+        }
 
         @SuppressWarnings("unchecked")
         public RowBuilder<K, V> keys(Collection<? extends K> keys) {
@@ -113,32 +185,26 @@ public class Matrix<K, V> {
 
         @SuppressWarnings("unchecked")
         public RowBuilder<K, V> row(V... values) {
-            rows.add(values);
             if (rowLength == -1) {
                 rowLength = values.length;
             } else if (rowLength != values.length) {
                 throw new IllegalArgumentException("lines must all have the same size");
             }
+            rows.appendRow(values);
+            if (rows.rowSize() == 1 && expectedRows > 1) {
+                // a column-major matrix has no storage for the rows before the first one
+                rows.ensureRowCapacity(expectedRows);
+            }
             return this;
         }
 
         public Matrix<K, V> build() {
-            V[][] array = createMatrix();
-            return new Matrix<>(keys, array);
+            // the built matrix can modify its arrays in place
+            return new Matrix<>(keys, cloneMatrixArray(rows), rows.columnMajor);
         }
 
         public Immutable<K, V> buildImmutable() {
-            V[][] array = createMatrix();
-            return new Immutable<>(keys, array);
-        }
-
-        @SuppressWarnings("unchecked")
-        private V[][] createMatrix() {
-            V[][] array = (V[][]) new Object[rows.size()][];
-            for (int i = 0, l = rows.size(); i < l; i++) {
-                array[i] = rows.get(i);
-            }
-            return array;
+            return new Immutable<>(keys, cloneMatrixArray(rows), rows.columnMajor);
         }
     }
 
@@ -147,6 +213,13 @@ public class Matrix<K, V> {
         private List<K> keys = new ArrayList<>();
         private List<V[]> columns = new ArrayList<>();
         private int colLength = -1;
+        private boolean columnMajor;
+
+        /** The built matrix will store its values by column (the columns are not transposed). */
+        public ColBuilder<K, V> columnMajor() {
+            this.columnMajor = true;
+            return this;
+        }
 
         @SuppressWarnings("unchecked")
         public ColBuilder<K, V> col(K key, Collection<? extends V> values) {
@@ -165,21 +238,32 @@ public class Matrix<K, V> {
 
         public Matrix<K, V> build() {
             V[][] array = createMatrix();
-            return new Matrix<>(ImmutableLinkedTableSet.of(keys), array);
+            return new Matrix<>(ImmutableLinkedTableSet.of(keys), array, columnMajor);
         }
 
         public Immutable<K, V> buildImmutable() {
             V[][] array = createMatrix();
-            return new Immutable<>(ImmutableLinkedTableSet.of(keys), array);
+            return new Immutable<>(ImmutableLinkedTableSet.of(keys), array, columnMajor);
         }
 
         @SuppressWarnings("unchecked")
         private V[][] createMatrix() {
+            if (columnMajor) {
+                V[][] array = (V[][]) new Object[columns.size()][];
+                for (int i = 0, l = columns.size(); i < l; i++) {
+                    final V[] column = columns.get(i);
+                    // shorter columns are padded with nulls
+                    array[i] = column.length == colLength ?
+                            column : (V[]) Arrays.copyOf(column, colLength, Object[].class);
+                }
+                return array;
+            }
             final int rows = columns.size();
             V[][] array = (V[][]) new Object[colLength][rows];
             for (int i = 0, il = rows; i < il; i++) {
-                for (int j = 0; j < colLength; j++) {
-                    array[j][i] = columns.get(i)[j];
+                final V[] column = columns.get(i);
+                for (int j = 0, jl = column.length; j < jl; j++) {
+                    array[j][i] = column[j];
                 }
             }
             return array;
@@ -198,7 +282,7 @@ public class Matrix<K, V> {
 
         @Override
         public boolean hasNext() {
-            return col + 1 < matrix[row].length;
+            return col + 1 < colSize();
         }
 
         @Override
@@ -236,7 +320,7 @@ public class Matrix<K, V> {
 
         @Override
         public boolean hasNext() {
-            return row + 1 < matrix.length;
+            return row + 1 < rowSize();
         }
 
         @Override
@@ -254,11 +338,21 @@ public class Matrix<K, V> {
         return new ColBuilder<>();
     }
 
-    // key name and column index
-    private BiMap<K,Integer> keys;
+    // key name and column index (written by writeObject())
+    private transient BiMap<K,Integer> keys;
+
+    // using T[][] interferes with Kryo (written by writeObject()), it contains the rows or the
+    // columns (if columnMajor)
+    private transient Object[][] matrix;
+
+    // rows allocated but not used yet: null slots at the end of the array of rows or cells at
+    // the end of each column if columnMajor
+    private transient int rowSlack;
 
-    // using T[][] interferes with Kryo
-    private Object[][] matrix;
+    private final boolean columnMajor;
+
+    // value -> last row index for each column, built at the first search (cells can be null)
+    private transient HashMap<Object, Integer>[] indexes;
 
     /**
      * Creates an empty matrix. It can grow as elements are put in.
@@ -266,22 +360,40 @@ public class Matrix<K, V> {
     public Matrix() {
         keys = null;
         matrix = null;
+        columnMajor = false;
     }
 
     protected Matrix(K[] keys, V[][] array) {
+        this(keys, array, false);
+    }
+
+    /**
+     * @param array contains the columns if {@code columnMajor} is true, the rows otherwise
+     */
+    protected Matrix(K[] keys, V[][] array, boolean columnMajor) {
         this.keys = keys == null ? null : createKeys(Arrays.asList(keys));
         this.matrix = array;
+        this.columnMajor = columnMajor;
     }
 
     @SuppressWarnings("unchecked")
     protected Matrix(K[] keys, int rows) {
         this.keys = keys == null ? null : createKeys(Arrays.asList(keys));
         matrix = (V[][]) new Object[keys.length][rows];
+        columnMajor = false;
     }
 
     protected Matrix(Set<? extends K> keys, V[][] array) {
+        this(keys, array, false);
+    }
+
+    /**
+     * @param array contains the columns if {@code columnMajor} is true, the rows otherwise
+     */
+    protected Matrix(Set<? extends K> keys, V[][] array, boolean columnMajor) {
         this.keys = keys == null ? null : createKeys(keys);
         this.matrix = array;
+        this.columnMajor = columnMajor;
     }
 
     /**
@@ -293,6 +405,7 @@ public class Matrix<K, V> {
     public Matrix(Set<? extends K> keys, int rowSize) {
         this.keys = keys == null ? null : createKeys(keys);
         matrix = (V[][]) new Object[keys.size()][rowSize];
+        columnMajor = false;
     }
 
     private static <K> BiMap<K,Integer> createKeys(Collection<? extends K> keys) {
@@ -317,6 +430,7 @@ public class Matrix<K, V> {
     public Matrix(int rowSize, int colSize) {
         keys = null;
         matrix = (V[][]) new Object[colSize][rowSize];
+        columnMajor = false;
     }
 
     /**
@@ -327,6 +441,7 @@ public class Matrix<K, V> {
         keys = createKeys(map.keySet());
         matrix = (V[][]) new Object[1][];
         matrix[0] = map.values().toArray();
+        columnMajor = false;
     }
 
     /**
@@ -338,16 +453,59 @@ public class Matrix<K, V> {
     public Matrix(Matrix<? extends K, ? extends V> copy) {
         this.keys = copy.keys == null ? null : (BiMap<K, Integer>) copy.keys.clone();
         this.matrix = cloneMatrixArray(copy);
+        this.columnMajor = copy.columnMajor;
+    }
+
+    /**
+     * Copy constructor changing the layout.
+     *
+     * @param copy        the matrix to copy
+     * @param columnMajor stores the values by column if true, by row otherwise
+     */
+    @SuppressWarnings("unchecked")
+    public Matrix(Matrix<? extends K, ? extends V> copy, boolean columnMajor) {
+        this.keys = copy.keys == null ? null : (BiMap<K, Integer>) copy.keys.clone();
+        this.matrix = copy.columnMajor == columnMajor ?
+                cloneMatrixArray(copy) : copy.transposed();
+        this.columnMajor = columnMajor;
+    }
+
+    /** @return a copy of the array with the other layout */
+    private Object[][] transposed() {
+        if (matrix == null) {
+            return null;
+        }
+        final int major = majorSize();
+        final int minor = minorSize();
+        final Object[][] result = new Object[minor][major];
+        for (int i = 0; i < major; i++) {
+            for (int j = 0; j < minor; j++) {
+                result[j][i] = matrix[i][j];
+            }
+        }
+        return result;
     }
 
+    /** @return the rows without slack (the internal array if possible) */
+    private Object[][] rowMajorArray() {
+        if (columnMajor) {
+            return transposed();
+        }
+        return rowSlack == 0 ? matrix : Arrays.copyOf(matrix, rowSize());
+    }
+
+    /** The copy has no slack. */
     @SuppressWarnings("unchecked")
     private static <V> V[][] cloneMatrixArray(Matrix<?, ? extends V> copy) {
         if (copy.matrix == null) {
             return null;
         } else {
-            V[][] objArray = (V[][]) new Object[copy.matrix.length][];
+            final int minor = copy.minorSize();
+            V[][] objArray = (V[][]) new Object[copy.majorSize()][];
             for (int i = 0, li = objArray.length; i < li; i++) {
-                objArray[i] = (V[]) copy.matrix[i].clone();
+                objArray[i] = copy.columnMajor ?
+                        (V[]) Arrays.copyOf(copy.matrix[i], minor) :
+                        (V[]) copy.matrix[i].clone();
             }
             return objArray;
         }
@@ -357,9 +515,10 @@ public class Matrix<K, V> {
         this((K[]) null, array);
     }
 
-    private Matrix(BiMap<K, Integer> keys, Object[][] matrix) {
+    private Matrix(BiMap<K, Integer> keys, Object[][] matrix, boolean columnMajor) {
         this.keys = keys;
         this.matrix = matrix;
+        this.columnMajor = columnMajor;
     }
 
     /**
@@ -374,7 +533,12 @@ public class Matrix<K, V> {
             keys.forEach((k,v) -> biMap.put(transformer.apply(k), v));
         }
         V[][] m = cloneMatrixArray(this);
-        return new Matrix<T,V>(biMap, m);
+        return new Matrix<T,V>(biMap, m, columnMajor);
+    }
+
+    /** @return true if the values are stored by column */
+    public boolean isColumnMajor() {
+        return columnMajor;
     }
 
     /** Override to provide immutability */
@@ -467,32 +631,105 @@ public class Matrix<K, V> {
     public Matrix<K, V> set(int row, int col, V value) {
         readOnlyCheck();
         if (matrix == null) {
-            matrix = (V[][]) new Object[row + 1][col + 1];
-        } else if (matrix[0].length <= col || matrix.length <= row) {
+            matrix = columnMajor ?
+                    (V[][]) new Object[col + 1][row + 1] :
+                    (V[][]) new Object[row + 1][col + 1];
+            rowSlack = 0;
+        } else if (colSize() <= col || rowSize() <= row) {
             resize(row, col);
         }
-        matrix[row][col] = value;
+        if (indexes != null) {
+            updateIndex(row, col, value);
+        }
+        setCell(row, col, value);
         return this;
     }
 
-    private void resize(int col, int row) {
+    private Object cell(int row, int col) {
+        return columnMajor ? matrix[col][row] : matrix[row][col];
+    }
+
+    private void setCell(int row, int col, Object value) {
+        if (columnMajor) {
+            matrix[col][row] = value;
+        } else {
+            matrix[row][col] = value;
+        }
+    }
+
+    private void updateIndex(int row, int col, Object value) {
+        final HashMap<Object, Integer> index = indexes[col];
+        final Object old = cell(row, col);
+        if (index == null || Objects.equals(old, value)) {
+            return;
+        }
+        final Integer oldRow = index.get(old);
+        if (oldRow != null && oldRow == row) {
+            // looks for the previous row containing the old value
+            int previous = row - 1;
+            while (previous >= 0 && !Objects.equals(old, cell(previous, col))) {
+                previous--;
+            }
+            if (previous < 0) {
+                index.remove(old);
+            } else {
+                index.put(old, previous);
+            }
+        }
+        final Integer last = index.get(value);
+        if (last == null || last < row) {
+            index.put(value, row);
+        }
+    }
+
+    /** The rows grow using the row capacity, the columns grow exactly. */
+    private void resize(int row, int col) {
         resizeCheck();
-        final int xsize = Math.max(col + 1, matrix.length);
-        final int ysize = Math.max(row + 1, matrix[0].length);
-        Object[][] newMatrix = new Object[xsize][ysize];
-        copy(newMatrix, matrix);
-        matrix = newMatrix;
+        indexes = null;
+        final int rows = rowSize();
+        final int cols = Math.max(col + 1, colSize());
+        if (cols > colSize()) {
+            if (columnMajor) {
+                final int length = matrix.length;
+                matrix = Arrays.copyOf(matrix, cols);
+                for (int i = length; i < cols; i++) {
+                    matrix[i] = new Object[rows + rowSlack];
+                }
+            } else {
+                for (int i = 0; i < rows; i++) {
+                    matrix[i] = Arrays.copyOf(matrix[i], cols);
+                }
+            }
+        }
+        if (row >= rows) {
+            ensureRowCapacity(row + 1);
+            if (!columnMajor) {
+                for (int i = rows; i <= row; i++) {
+                    matrix[i] = new Object[cols];
+                }
+            }
+            rowSlack -= row + 1 - rows;
+        }
     }
 
     @SuppressWarnings("unchecked")
     public V get(int row, int col) {
-        return (V) matrix[row][col];
+        checkRow(row);
+        return (V) cell(row, col);
     }
 
     @SuppressWarnings("unchecked")
     public V getByKey(K key, int rowIndex) {
         int col = keys.get(key);
-        return (V) matrix[rowIndex][col];
+        checkRow(rowIndex);
+        return (V) cell(rowIndex, col);
+    }
+
+    /** The slack rows are not accessible. */
+    private void checkRow(int row) {
+        if (rowSlack != 0 && row >= rowSize()) {
+            throw new IndexOutOfBoundsException("row " + row + " rows " + rowSize());
+        }
     }
 
     public Set<K> getKeys() {
@@ -561,71 +798,266 @@ public class Matrix<K, V> {
         return new ColumnIterator(col);
     }
 
+    /** Visits the values in the order they are stored (by row or by column). */
     @SuppressWarnings("unchecked")
     public void forEachElement(Consumer<V> consumer) {
-        for (int i = 0, li = matrix.length; i < li; i++) {
-            for (int j = 0, lj = matrix[0].length; j < lj; j++) {
-                consumer.accept((V) matrix[i][j]);
+        final int minor = minorSize();
+        for (int i = 0, li = majorSize(); i < li; i++) {
+            final Object[] array = matrix[i];
+            for (int j = 0; j < minor; j++) {
+                consumer.accept((V) array[j]);
             }
         }
     }
 
-    private void copy(Object[][] newMatrix, Object[][] matrix) {
-        for (int i = 0, li = matrix.length; i < li; i++) {
-            for (int j = 0, lj = matrix[0].length; j < lj; j++) {
-                newMatrix[i][j] = matrix[i][j];
-            }
+    /** Calls the action with the index of each row in order. */
+    public void forEachRow(IntConsumer action) {
+        for (int row = 0, rows = rowSize(); row < rows; row++) {
+            action.accept(row);
         }
     }
 
+    /** Same as {@link #parallelForEachRow(IntConsumer, ForkJoinPool)} on the common pool. */
+    public void parallelForEachRow(IntConsumer action) {
+        parallelForEachRow(action, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calls the action with the index of each row from the threads of the given pool and
+     * returns when all the rows have been visited. The rows are partitioned in contiguous
+     * ranges. The action can read any cell and write the cells of its own row with
+     * {@link #set(int, int, Object) } as long as the matrix doesn't grow: any other modification
+     * and {@link #rowIndexOf(int, Object) } are not thread safe.
+     */
+    public void parallelForEachRow(IntConsumer action, ForkJoinPool pool) {
+        if (!(this instanceof Immutable)) {
+            // written cells would make them stale and their update is not thread safe
+            indexes = null;
+        }
+        RowRangeAction.forEachRow(pool, rowSize(), colSize(), action);
+    }
+
+    /**
+     * @return a splittable spliterator over the rows as list views (see
+     *         {@link #getRowAsListByIndex(int) }). The matrix must not be resized while in use.
+     */
+    public Spliterator<List<V>> rowSpliterator() {
+        return new IndexSpliterator<>(this::getRowAsListByIndex, 0, rowSize(),
+                characteristics() | Spliterator.NONNULL);
+    }
+
+    /**
+     * @return a splittable spliterator over the values of a column. The matrix must not be
+     *         resized while in use.
+     */
+    public Spliterator<V> columnSpliterator(int col) {
+        Objects.checkIndex(col, colSize());
+        return new IndexSpliterator<>(row -> get(row, col), 0, rowSize(), characteristics());
+    }
+
+    /**
+     * @return a splittable spliterator over all the values in the order they are stored (by row
+     *         or by column). The matrix must not be resized while in use.
+     */
     @SuppressWarnings("unchecked")
-    public void insertRowAtIndex(int index) {
-        readOnlyCheck();
-        int length = matrix.length;
-        V[][] newmtx = (V[][]) new Object[length + 1][];
-        System.arraycopy(matrix, 0, newmtx, 0, index);
-        System.arraycopy(matrix, index, newmtx, index + 1, length - index);
-        newmtx[index] = (V[]) new Object[matrix[0].length];
-        matrix = newmtx;
+    public Spliterator<V> elementSpliterator() {
+        final int minor = minorSize();
+        return new IndexSpliterator<>(i -> (V) matrix[i / minor][i % minor],
+                0, majorSize() * minor, characteristics());
+    }
+
+    private int characteristics() {
+        return this instanceof Immutable ? Spliterator.IMMUTABLE : 0;
+    }
+
+    /** @return a sequential stream of the rows (use {@code parallel()} to split it) */
+    public Stream<List<V>> rowStream() {
+        return StreamSupport.stream(rowSpliterator(), false);
+    }
+
+    /** @return a sequential stream of the column (use {@code parallel()} to split it) */
+    public Stream<V> columnStream(int col) {
+        return StreamSupport.stream(columnSpliterator(col), false);
+    }
+
+    /** @return a sequential stream of the column (use {@code parallel()} to split it) */
+    public Stream<V> columnStreamByKey(K key) {
+        return columnStream(keys.get(key));
+    }
+
+    /** @return a sequential stream of all the values in the order they are stored */
+    public Stream<V> elementStream() {
+        return StreamSupport.stream(elementSpliterator(), false);
     }
 
+    /**
+     * Appends a row after the last one.
+     *
+     * @see #appendRows(java.util.Collection)
+     */
     @SuppressWarnings("unchecked")
-    void insertColumnAtIndex(int index) {
-        final int length = matrix[0].length;
-        for (int i = 0, l = matrix.length; i < l; i++) {
-            V[] array = (V[]) new Object[length + 1];
-            System.arraycopy(matrix[i], 0, array, 0, index);
-            System.arraycopy(matrix[i], index, array, index + 1, length - index);
-            matrix[i] = array;
+    public Matrix<K, V> appendRow(V... values) {
+        return appendRows(Collections.singletonList(values));
+    }
+
+    /**
+     * Appends the rows after the last one copying their values. The row capacity grows by at
+     * least 50% when exhausted so appending many rows one by one takes linear time. Each row
+     * must have a value for each column (the first row defines the columns of an empty matrix).
+     * The column indexes are kept up to date.
+     */
+    public Matrix<K, V> appendRows(Collection<? extends V[]> rows) {
+        readOnlyCheck();
+        if (rows.isEmpty()) {
+            return this;
+        }
+        int cols = colSize();
+        if (cols == 0 && rowSize() == 0) {
+            cols = rows.iterator().next().length;
+            matrix = columnMajor ? new Object[cols][0] : new Object[0][];
+            rowSlack = 0;
+            indexes = null;
+        }
+        for (V[] row : rows) {
+            if (row.length != cols) {
+                throw new IllegalArgumentException(
+                        "expected rows of " + cols + " values, got " + row.length);
+            }
         }
+        int index = rowSize();
+        ensureRowCapacity(index + rows.size());
+        for (V[] row : rows) {
+            if (columnMajor) {
+                for (int col = 0; col < cols; col++) {
+                    matrix[col][index] = row[col];
+                }
+            } else {
+                matrix[index] = Arrays.copyOf(row, cols, Object[].class);
+            }
+            if (indexes != null) {
+                for (int col = 0; col < cols; col++) {
+                    if (indexes[col] != null) {
+                        indexes[col].put(row[col], index);
+                    }
+                }
+            }
+            index++;
+            rowSlack--;
+        }
+        return this;
+    }
+
+    /**
+     * Makes room for the given number of rows without using it (the slack rows are not
+     * allocated in a row-major matrix).
+     */
+    private void ensureRowCapacity(int rows) {
+        final int used = rowSize();
+        final int capacity = used + rowSlack;
+        if (rows <= capacity) {
+            return;
+        }
+        resizeCheck();
+        final int newCapacity = Math.max(rows, capacity + (capacity >> 1));
+        if (columnMajor) {
+            if (matrix == null || matrix.length == 0) {
+                // there are no columns to store the rows into
+                return;
+            }
+            for (int i = 0, l = matrix.length; i < l; i++) {
+                matrix[i] = Arrays.copyOf(matrix[i], newCapacity);
+            }
+        } else {
+            matrix = matrix == null ?
+                    new Object[newCapacity][] : Arrays.copyOf(matrix, newCapacity);
+        }
+        rowSlack = newCapacity - used;
+    }
+
+    public void insertRowAtIndex(int index) {
+        readOnlyCheck();
+        indexes = null;
+        final int rows = rowSize();
+        if (index < 0 || index > rows) {
+            throw new IndexOutOfBoundsException("index " + index + " rows " + rows);
+        }
+        if (columnMajor && colSize() == 0) {
+            return;
+        }
+        ensureRowCapacity(rows + 1);
+        if (columnMajor) {
+            for (int i = 0, l = matrix.length; i < l; i++) {
+                System.arraycopy(matrix[i], index, matrix[i], index + 1, rows - index);
+                matrix[i][index] = null;
+            }
+        } else {
+            final int cols = colSize();
+            System.arraycopy(matrix, index, matrix, index + 1, rows - index);
+            matrix[index] = new Object[cols];
+        }
+        rowSlack--;
     }
 
-    @SuppressWarnings("unchecked")
     public void removeRowAtIndex(int index) {
         readOnlyCheck();
-        int length = matrix.length;
-        V[][] newmtx = (V[][]) new Object[length - 1][];
-        if (index > 0) {
-            System.arraycopy(matrix, 0, newmtx, 0, index);
+        indexes = null;
+        final int rows = rowSize();
+        Objects.checkIndex(index, rows);
+        // the capacity is kept
+        if (columnMajor) {
+            for (int i = 0, l = matrix.length; i < l; i++) {
+                System.arraycopy(matrix[i], index + 1, matrix[i], index, rows - index - 1);
+                matrix[i][rows - 1] = null;
+            }
+        } else {
+            System.arraycopy(matrix, index + 1, matrix, index, rows - index - 1);
+            matrix[rows - 1] = null;
         }
-        if (index < length) {
-            System.arraycopy(matrix, index + 1, newmtx, index, length - index - 1);
+        rowSlack++;
+    }
+
+    void insertColumnAtIndex(int index) {
+        indexes = null;
+        if (columnMajor) {
+            final int length = majorSize();
+            Object[][] newmtx = new Object[length + 1][];
+            if (matrix != null) {
+                System.arraycopy(matrix, 0, newmtx, 0, index);
+                System.arraycopy(matrix, index, newmtx, index + 1, length - index);
+            }
+            newmtx[index] = new Object[rowSize() + rowSlack];
+            matrix = newmtx;
+        } else {
+            for (int i = 0, l = rowSize(); i < l; i++) {
+                final int length = matrix[i].length;
+                Object[] array = new Object[length + 1];
+                System.arraycopy(matrix[i], 0, array, 0, index);
+                System.arraycopy(matrix[i], index, array, index + 1, length - index);
+                matrix[i] = array;
+            }
         }
-        matrix = newmtx;
     }
 
-    @SuppressWarnings("unchecked")
     void matrixRemoveColumnAtIndex(int index) {
-        final int length = matrix[0].length;
-        for (int i = 0, l = matrix.length; i < l; i++) {
-            V[] array = (V[]) new Object[length - 1];
-            if (index > 0) {
-                System.arraycopy(matrix[i], 0, array, 0, index);
+        indexes = null;
+        if (columnMajor) {
+            final int length = matrix.length;
+            Object[][] newmtx = new Object[length - 1][];
+            System.arraycopy(matrix, 0, newmtx, 0, index);
+            System.arraycopy(matrix, index + 1, newmtx, index, length - index - 1);
+            matrix = newmtx;
+            if (newmtx.length == 0) {
+                // the rows cannot be stored anymore
+                rowSlack = 0;
             }
-            if (index < length - 1) {
+        } else {
+            for (int i = 0, l = rowSize(); i < l; i++) {
+                final int length = matrix[i].length;
+                Object[] array = new Object[length - 1];
+                System.arraycopy(matrix[i], 0, array, 0, index);
                 System.arraycopy(matrix[i], index + 1, array, index, length - index - 1);
+                matrix[i] = array;
             }
-            matrix[i] = array;
         }
     }
 
@@ -637,14 +1069,27 @@ public class Matrix<K, V> {
      * X
      */
     public int rowSize() {
-        return matrix == null ? 0 : matrix.length;
+        return columnMajor ? minorSize() : majorSize();
     }
 
     /**
      * Y
      */
     public int colSize() {
-        return matrix == null || matrix[0] == null ? 0 : matrix[0].length;
+        return columnMajor ? majorSize() : minorSize();
+    }
+
+    /** @return the number of rows (or columns if column-major) */
+    private int majorSize() {
+        return matrix == null ? 0 : columnMajor ? matrix.length : matrix.length - rowSlack;
+    }
+
+    /** @return the number of columns (or rows if column-major) */
+    private int minorSize() {
+        if (matrix == null || matrix.length == 0 || matrix[0] == null) {
+            return 0;
+        }
+        return columnMajor ? matrix[0].length - rowSlack : matrix[0].length;
     }
 
     /**
@@ -655,12 +1100,12 @@ public class Matrix<K, V> {
         return new AbstractList<V>() {
             @Override
             public V get(int index) {
-                return (V) matrix[row][index];
+                return (V) cell(row, index);
             }
 
             @Override
             public int size() {
-                return matrix[row].length;
+                return colSize();
             }
         };
     }
@@ -673,23 +1118,229 @@ public class Matrix<K, V> {
         return new AbstractList<V>() {
             @Override
             public V get(int index) {
-                return (V) matrix[index][col];
+                return (V) cell(index, col);
             }
 
             @Override
             public int size() {
-                return matrix.length;
+                return rowSize();
             }
         };
     }
 
+    /**
+     * @return the index of the last row containing the given value in the given column or -1.
+     * It takes O(1) but the first search into a column builds its index in O(rows).
+     */
     public int rowIndexOf(int col, V value) {
-        for (int i = matrix.length - 1; i >= 0; i--) {
-            if (Objects.equals(value, matrix[i][col])) {
-                return i;
+        if (rowSize() == 0) {
+            return -1;
+        }
+        final Integer row = index(col).get(value);
+        return row == null ? -1 : row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private HashMap<Object, Integer> index(int col) {
+        if (indexes == null) {
+            indexes = new HashMap[colSize()];
+        }
+        HashMap<Object, Integer> index = indexes[col];
+        if (index == null) {
+            final int rows = rowSize();
+            index = new HashMap<>(rows * 4 / 3 + 1);
+            if (columnMajor) {
+                final Object[] column = matrix[col];
+                for (int i = 0; i < rows; i++) {
+                    index.put(column[i], i);
+                }
+            } else {
+                for (int i = 0; i < rows; i++) {
+                    index.put(matrix[i][col], i);
+                }
+            }
+            indexes[col] = index;
+        }
+        return index;
+    }
+
+    void indexAllColumns() {
+        if (rowSize() > 0) {
+            for (int col = 0, l = colSize(); col < l; col++) {
+                index(col);
+            }
+        }
+    }
+
+    /** Same as {@link #join(Matrix, Object, Object, JoinType) } with {@code INNER}. */
+    public Matrix<K, V> join(Matrix<K, ? extends V> other, K leftKey, K rightKey) {
+        return join(other, leftKey, rightKey, JoinType.INNER);
+    }
+
+    /**
+     * Joins the rows of this matrix with the rows of the other having the same value in the
+     * given columns (as {@link Object#equals(java.lang.Object) }, {@code null} values never
+     * match). The result has the columns of this matrix followed by the columns of the other
+     * except its join column. Its keys are the keys of both matrices that must not overlap.
+     * <p>
+     * It's a hash join taking O(n + m): the rows of the smaller matrix are grouped by value in
+     * a hash table and each row of the bigger one is looked up once. The rows are in the order
+     * of this matrix, then of the other (a row matching many rows appears many times).
+     *
+     * @throws IllegalArgumentException if a key is not found or appears in both matrices
+     */
+    public Matrix<K, V> join(Matrix<K, ? extends V> other, K leftKey, K rightKey,
+            JoinType type) {
+        return joinByIndex(other, keyColumn(leftKey), other.keyColumn(rightKey), type);
+    }
+
+    /**
+     * Same as {@link #join(Matrix, Object, Object, JoinType) } with the join columns given by
+     * index. The result has keys only if both matrices have them.
+     */
+    @SuppressWarnings("unchecked")
+    public Matrix<K, V> joinByIndex(Matrix<K, ? extends V> other, int leftCol, int rightCol,
+            JoinType type) {
+        final int leftCols = columnCount();
+        final int rightCols = other.columnCount();
+        Objects.checkIndex(leftCol, leftCols);
+        Objects.checkIndex(rightCol, rightCols);
+        final RowBuilder<K, V> builder = new RowBuilder<>();
+        if (columnMajor) {
+            builder.columnMajor();
+        }
+        if (keys != null && other.keys != null) {
+            builder.keys(joinKeys(other, rightCol));
+        }
+        final int leftRows = rowSize();
+        if (type == JoinType.LEFT) {
+            builder.expectedRows(leftRows);
+        }
+        // each joined row is copied by the builder
+        final V[] row = (V[]) new Object[leftCols + rightCols - 1];
+        if (other.rowSize() <= leftRows) {
+            final RowChains chains = new RowChains(other, rightCol);
+            for (int left = 0; left < leftRows; left++) {
+                int right = chains.first(cell(left, leftCol));
+                if (right == -1 && type == JoinType.LEFT) {
+                    builder.row(joinRow(row, left, other, -1, rightCol));
+                }
+                for (; right != -1; right = chains.next(right)) {
+                    builder.row(joinRow(row, left, other, right, rightCol));
+                }
+            }
+        } else {
+            final RowChains chains = new RowChains(this, leftCol);
+            // the matches of each left row linked in order of right row
+            final int[] firstMatch = new int[leftRows];
+            Arrays.fill(firstMatch, -1);
+            int[] matchRow = new int[Math.max(leftRows, 16)];
+            int[] matchNext = new int[matchRow.length];
+            int matches = 0;
+            // from the last row so that the matches are linked in ascending order
+            for (int right = other.rowSize() - 1; right >= 0; right--) {
+                int left = chains.first(other.cell(right, rightCol));
+                for (; left != -1; left = chains.next(left)) {
+                    if (matches == matchRow.length) {
+                        matchRow = Arrays.copyOf(matchRow, matches + (matches >> 1));
+                        matchNext = Arrays.copyOf(matchNext, matchRow.length);
+                    }
+                    matchRow[matches] = right;
+                    matchNext[matches] = firstMatch[left];
+                    firstMatch[left] = matches++;
+                }
+            }
+            for (int left = 0; left < leftRows; left++) {
+                int match = firstMatch[left];
+                if (match == -1 && type == JoinType.LEFT) {
+                    builder.row(joinRow(row, left, other, -1, rightCol));
+                }
+                for (; match != -1; match = matchNext[match]) {
+                    builder.row(joinRow(row, left, other, matchRow[match], rightCol));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /** Fills the row with the cells of both rows (nulls if the right row is -1). */
+    @SuppressWarnings("unchecked")
+    private V[] joinRow(V[] row, int left, Matrix<?, ?> other, int right, int rightCol) {
+        final int leftCols = columnCount();
+        for (int col = 0; col < leftCols; col++) {
+            row[col] = (V) cell(left, col);
+        }
+        int index = leftCols;
+        for (int col = 0, l = row.length - leftCols + 1; col < l; col++) {
+            if (col != rightCol) {
+                row[index++] = right == -1 ? null : (V) other.cell(right, col);
+            }
+        }
+        return row;
+    }
+
+    private List<K> joinKeys(Matrix<K, ?> other, int rightCol) {
+        final List<K> list = new ArrayList<>();
+        for (int col = 0, l = columnCount(); col < l; col++) {
+            list.add(getKeyAtColumn(col));
+        }
+        for (int col = 0, l = other.columnCount(); col < l; col++) {
+            if (col != rightCol) {
+                final K key = other.getKeyAtColumn(col);
+                if (keys.containsKey(key)) {
+                    throw new IllegalArgumentException("key '" + key + "' in both matrices");
+                }
+                list.add(key);
+            }
+        }
+        return list;
+    }
+
+    private int keyColumn(K key) {
+        final Integer col = keys == null ? null : keys.get(key);
+        if (col == null) {
+            throw new IllegalArgumentException("key '" + key + "' not found");
+        }
+        return col;
+    }
+
+    /** @return the number of columns including the keys of a matrix without rows */
+    private int columnCount() {
+        return keys == null ? colSize() : Math.max(keys.size(), colSize());
+    }
+
+    /** The rows of a column chained by value ({@code null} values are left out). */
+    private static final class RowChains {
+        private final HashMap<Object, Integer> first;
+        private final int[] next;
+
+        RowChains(Matrix<?, ?> matrix, int col) {
+            final int rows = matrix.rowSize();
+            first = new HashMap<>(rows * 4 / 3 + 1);
+            next = new int[rows];
+            // from the last row so that each chain is in ascending order
+            for (int row = rows - 1; row >= 0; row--) {
+                final Object value = matrix.cell(row, col);
+                if (value != null) {
+                    final Integer head = first.put(value, row);
+                    next[row] = head == null ? -1 : head;
+                }
             }
         }
-        return -1;
+
+        /** @return the first row having the value or -1 */
+        int first(Object value) {
+            if (value == null) {
+                return -1;
+            }
+            final Integer row = first.get(value);
+            return row == null ? -1 : row;
+        }
+
+        /** @return the following row having the same value or -1 */
+        int next(int row) {
+            return next[row];
+        }
     }
 
     public Immutable<K, V> immutable() {
@@ -727,17 +1378,19 @@ public class Matrix<K, V> {
     }
 
     public void writeTo(List<?> headers, Consumer<String> consumer) {
-        int[] sizes = new int[matrix[0].length];
+        final int rows = rowSize();
+        final int cols = colSize();
+        int[] sizes = new int[cols];
         if (!headers.isEmpty()) {
-            for (int i = Math.min(headers.size(), matrix.length) - 1; i >= 0; i--) {
+            for (int i = Math.min(headers.size(), cols) - 1; i >= 0; i--) {
                 sizes[i] = Objects.toString(headers.get(i)).length();
             }
         }
 
-        String[][] table = new String[matrix.length][matrix[0].length];
-        for (int row = 0, lrow = matrix.length; row < lrow; row++) {
-            for (int col = 0, lcol = matrix[0].length; col < lcol; col++) {
-                final String str = Objects.toString(matrix[row][col], "");
+        String[][] table = new String[rows][cols];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                final String str = Objects.toString(cell(row, col), "");
                 table[row][col] = str;
                 int length = str.length();
                 if (sizes[col] < length) {
@@ -795,7 +1448,8 @@ public class Matrix<K, V> {
     public int hashCode() {
         int hash = 7;
         hash = 43 * hash + Objects.hashCode(this.keys);
-        hash = 43 * hash + Arrays.deepHashCode(this.matrix);
+        // the same of a row-major matrix with the same values
+        hash = 43 * hash + Arrays.deepHashCode(rowMajorArray());
         return hash;
     }
 
@@ -816,10 +1470,73 @@ public class Matrix<K, V> {
         if (!Objects.equals(this.keys, other.keys)) {
             return false;
         }
-        if (!Arrays.deepEquals(this.matrix, other.matrix)) {
+        final boolean sameArrays = columnMajor == other.columnMajor &&
+                rowSlack == 0 && other.rowSlack == 0;
+        if (sameArrays ? !Arrays.deepEquals(this.matrix, other.matrix) :
+                !Arrays.deepEquals(rowMajorArray(), other.rowMajorArray())) {
             return false;
         }
         return true;
     }
 
+    /**
+     * Writes the keys with their column indexes and then each row (or column if column-major) as
+     * a flat array so that they can be read back without any intermediate copy.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        if (keys == null) {
+            SerializedForm.writeArray(out, null);
+        } else {
+            final Object[] pairs = new Object[keys.size() << 1];
+            int index = 0;
+            for (Entry<K, Integer> e : keys.entrySet()) {
+                pairs[index++] = e.getKey();
+                pairs[index++] = e.getValue();
+            }
+            SerializedForm.writeArray(out, pairs);
+        }
+        if (matrix == null) {
+            out.writeInt(-1);
+        } else {
+            final int major = majorSize();
+            final int minor = minorSize();
+            out.writeInt(major);
+            for (int i = 0; i < major; i++) {
+                // the slack is not written
+                SerializedForm.writeArray(out, columnMajor && matrix[i].length != minor ?
+                        Arrays.copyOf(matrix[i], minor) : matrix[i]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final Object[] pairs = SerializedForm.readArray(in);
+        if (pairs != null) {
+            keys = new BiMap<>(pairs.length >> 1);
+            for (int i = 0; i < pairs.length; i += 2) {
+                keys.put((K) pairs[i], (Integer) pairs[i + 1]);
+            }
+        }
+        final int rows = in.readInt();
+        if (rows < -1) {
+            throw new InvalidObjectException("invalid number of rows: " + rows);
+        }
+        if (rows >= 0) {
+            // grows while reading, the number of rows is not trusted
+            Object[][] array = new Object[Math.min(rows, SerializedForm.MAX_PREALLOCATION)][];
+            for (int i = 0; i < rows; i++) {
+                if (i == array.length) {
+                    array = Arrays.copyOf(array, SerializedForm.grownLength(i, rows));
+                }
+                array[i] = SerializedForm.readArray(in);
+            }
+            matrix = array;
+        }
+        if (this instanceof Immutable) {
+            indexAllColumns();
+        }
+    }
 }
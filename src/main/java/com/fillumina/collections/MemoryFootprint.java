@@ -0,0 +1,192 @@
+package com.fillumina.collections;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates the memory retained by a container: its own object plus every array, entry,
+ * cursor or helper object reachable from it through instance fields excluding the keys, values
+ * and elements it contains (which are shared with the caller). Sizes are computed assuming a
+ * 64 bit HotSpot JVM with compressed oops: 12 bytes of object header, 16 bytes of array header,
+ * 4 bytes references and objects aligned to 8 bytes. Fields are not reordered or packed so the
+ * estimation can be a few bytes bigger than the real layout.
+ * <p>
+ * Fields of JDK classes (i.e. {@link java.util.HashMap}) can only be followed if their package
+ * is opened to this module (i.e. {@code --add-opens java.base/java.util=ALL-UNNAMED}),
+ * otherwise only their shallow size is counted.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public final class MemoryFootprint {
+
+    public static final int OBJECT_HEADER = 12;
+    public static final int ARRAY_HEADER = 16;
+    public static final int REFERENCE = 4;
+    public static final int ALIGNMENT = 8;
+
+    private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+    private MemoryFootprint() {}
+
+    /**
+     * @return the bytes retained by the container excluding its keys, values or elements (if
+     *         it's a {@link Map} or a {@link Collection})
+     */
+    public static long retainedBytes(Object container) {
+        // enumerating the elements could create and cache views (i.e. entrySet()) that must not
+        // be counted so only objects reachable before the enumeration are considered
+        final Set<Object> reachable = reachable(container, Collections.emptySet(), null);
+        final Set<Object> excluded = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (container instanceof Map) {
+            ((Map<?, ?>) container).forEach((k, v) -> {
+                excluded.add(k);
+                excluded.add(v);
+            });
+        } else if (container instanceof Collection) {
+            excluded.addAll((Collection<?>) container);
+        }
+        return bytes(reachable(container, excluded, reachable));
+    }
+
+    /**
+     * @param excluded objects (compared by identity) not counted and not followed
+     * @return the bytes of all the objects reachable from root
+     */
+    public static long retainedBytes(Object root, Set<Object> excluded) {
+        return bytes(reachable(root, excluded, null));
+    }
+
+    private static long bytes(Set<Object> objects) {
+        long bytes = 0;
+        for (Object o : objects) {
+            bytes += shallowBytes(o);
+        }
+        return bytes;
+    }
+
+    /**
+     * @param included if not {@code null} only these objects are followed
+     */
+    private static Set<Object> reachable(Object root, Set<Object> excluded, Set<Object> included) {
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Object> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            final Object o = stack.pop();
+            if (excluded.contains(o) || (included != null && !included.contains(o)) ||
+                    !visited.add(o)) {
+                continue;
+            }
+            final Class<?> clazz = o.getClass();
+            if (clazz.isArray()) {
+                if (!clazz.getComponentType().isPrimitive()) {
+                    for (Object element : (Object[]) o) {
+                        push(stack, element);
+                    }
+                }
+            } else {
+                for (Field field : fields(clazz)) {
+                    if (!field.getType().isPrimitive()) {
+                        try {
+                            push(stack, field.get(o));
+                        } catch (IllegalAccessException ex) {
+                            // not opened: only its reference is counted
+                        }
+                    }
+                }
+            }
+        }
+        return visited;
+    }
+
+    private static void push(Deque<Object> stack, Object o) {
+        // classes are shared metadata
+        if (o != null && !(o instanceof Class)) {
+            stack.push(o);
+        }
+    }
+
+    /**
+     * @return the bytes used by the object alone (without following its references)
+     */
+    public static long shallowBytes(Object o) {
+        final Class<?> clazz = o.getClass();
+        if (clazz.isArray()) {
+            return align(ARRAY_HEADER +
+                    (long) Array.getLength(o) * sizeOf(clazz.getComponentType()));
+        }
+        long size = OBJECT_HEADER;
+        for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += sizeOf(field.getType());
+                }
+            }
+        }
+        return align(size);
+    }
+
+    /**
+     * @return the retained bytes divided by the number of elements (or the retained bytes if
+     *         the container is empty)
+     */
+    public static double bytesPerEntry(Object container) {
+        final long bytes = retainedBytes(container);
+        final int size;
+        if (container instanceof Map) {
+            size = ((Map<?, ?>) container).size();
+        } else if (container instanceof Collection) {
+            size = ((Collection<?>) container).size();
+        } else {
+            size = 0;
+        }
+        return size == 0 ? bytes : bytes / (double) size;
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return REFERENCE;
+        }
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1; // byte and boolean
+    }
+
+    /** @return the accessible instance fields of the class and of its superclasses */
+    private static Field[] fields(Class<?> clazz) {
+        return FIELDS.computeIfAbsent(clazz, c -> {
+            final List<Field> list = new ArrayList<>();
+            for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+                for (Field field : k.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers()) &&
+                            field.trySetAccessible()) {
+                        list.add(field);
+                    }
+                }
+            }
+            return list.toArray(new Field[list.size()]);
+        });
+    }
+}
@@ -0,0 +1,231 @@
+package com.fillumina.collections;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A minimal perfect hash function built with the <i>hash and displace</i> algorithm (CHD): the
+ * hash codes of the keys are grouped into small buckets and each bucket gets a displacement that
+ * places all its hash codes into free slots of a table sized exactly to the number of distinct
+ * hash codes. Buckets of a single hash code (processed last) are directly assigned to a free slot.
+ * <p>
+ * A lookup takes one hash computation, one displacement read and (for keys without colliding hash
+ * codes) one {@code equals()}. Keys with the same hash code share the same slot and are all
+ * checked.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+final class MinimalPerfectHash {
+
+    // average number of hash codes in a bucket
+    private static final int BUCKET_SIZE = 4;
+
+    private static final int MAX_DISPLACEMENT = 1 << 24;
+
+    private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+    // displacement of each bucket, negative values encode a direct slot assignment as -(slot+1)
+    private final int[] displacements;
+    // number of slots (distinct hash codes)
+    private final int slots;
+    // start position of each slot, null if there are no colliding hash codes (slot == position)
+    private final int[] offsets;
+
+    private MinimalPerfectHash(int[] displacements, int slots, int[] offsets) {
+        this.displacements = displacements;
+        this.slots = slots;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Builds the perfect hash for the given distinct keys.
+     *
+     * @param keys  distinct keys ({@code null} allowed)
+     * @param order filled with the index into {@code keys} of the key stored at each position,
+     *              must have the same length of {@code keys}
+     */
+    static MinimalPerfectHash build(Object[] keys, int[] order) {
+        final int n = keys.length;
+
+        // sort the key indexes by hash so that keys with the same hash code are near each other
+        final long[] sorted = new long[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = ((long) hash(keys[i]) << 32) | i;
+        }
+        Arrays.sort(sorted);
+
+        // distinct hash codes and position of their first key into sorted
+        final int[] hashes = new int[n];
+        final int[] firsts = new int[n + 1];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            final int h = (int) (sorted[i] >> 32);
+            if (m == 0 || hashes[m - 1] != h) {
+                hashes[m] = h;
+                firsts[m] = i;
+                m++;
+            }
+        }
+        firsts[m] = n;
+
+        final int bucketCount = Math.max(1, m / BUCKET_SIZE);
+        final int[] displacements = new int[bucketCount];
+        final int[] slotOfHash = assignSlots(hashes, m, displacements);
+
+        int[] offsets = null;
+        if (m == n) {
+            for (int j = 0; j < m; j++) {
+                order[slotOfHash[j]] = (int) sorted[j];
+            }
+        } else {
+            // keys with the same hash code take consecutive positions
+            final int[] hashOfSlot = new int[m];
+            for (int j = 0; j < m; j++) {
+                hashOfSlot[slotOfHash[j]] = j;
+            }
+            offsets = new int[m + 1];
+            int position = 0;
+            for (int s = 0; s < m; s++) {
+                offsets[s] = position;
+                final int j = hashOfSlot[s];
+                for (int k = firsts[j]; k < firsts[j + 1]; k++) {
+                    order[position++] = (int) sorted[k];
+                }
+            }
+            offsets[m] = n;
+        }
+        return new MinimalPerfectHash(displacements, m, offsets);
+    }
+
+    /** @return the slot assigned to each distinct hash code */
+    private static int[] assignSlots(int[] hashes, int m, int[] displacements) {
+        final int bucketCount = displacements.length;
+
+        // group the hash codes by bucket
+        final int[] bucketStarts = new int[bucketCount + 1];
+        for (int j = 0; j < m; j++) {
+            bucketStarts[bucketOf(hashes[j], bucketCount) + 1]++;
+        }
+        for (int b = 0; b < bucketCount; b++) {
+            bucketStarts[b + 1] += bucketStarts[b];
+        }
+        final int[] bucketed = new int[m];
+        final int[] fill = Arrays.copyOf(bucketStarts, bucketCount);
+        for (int j = 0; j < m; j++) {
+            bucketed[fill[bucketOf(hashes[j], bucketCount)]++] = j;
+        }
+
+        // process bigger buckets first while the table is still empty
+        final long[] bySize = new long[bucketCount];
+        for (int b = 0; b < bucketCount; b++) {
+            final int size = bucketStarts[b + 1] - bucketStarts[b];
+            bySize[b] = ((long) -size << 32) | b;
+        }
+        Arrays.sort(bySize);
+
+        final boolean[] taken = new boolean[m];
+        final int[] slotOfHash = new int[m];
+        // the first bucket is the biggest
+        final int[] candidates = new int[(int) -(bySize[0] >> 32)];
+        int freeSlot = 0;
+        for (long entry : bySize) {
+            final int b = (int) entry;
+            final int start = bucketStarts[b];
+            final int size = bucketStarts[b + 1] - start;
+            if (size == 0) {
+                displacements[b] = 0;
+            } else if (size == 1) {
+                while (taken[freeSlot]) {
+                    freeSlot++;
+                }
+                taken[freeSlot] = true;
+                slotOfHash[bucketed[start]] = freeSlot;
+                displacements[b] = -(freeSlot + 1);
+            } else {
+                int d = 0;
+                SEARCH:
+                while (true) {
+                    if (d == MAX_DISPLACEMENT) {
+                        throw new IllegalStateException("cannot build perfect hash");
+                    }
+                    for (int i = 0; i < size; i++) {
+                        final int slot = slotOf(hashes[bucketed[start + i]], d, m);
+                        if (taken[slot]) {
+                            d++;
+                            continue SEARCH;
+                        }
+                        for (int k = 0; k < i; k++) {
+                            if (candidates[k] == slot) {
+                                d++;
+                                continue SEARCH;
+                            }
+                        }
+                        candidates[i] = slot;
+                    }
+                    break;
+                }
+                for (int i = 0; i < size; i++) {
+                    taken[candidates[i]] = true;
+                    slotOfHash[bucketed[start + i]] = candidates[i];
+                }
+                displacements[b] = d;
+            }
+        }
+        return slotOfHash;
+    }
+
+    // copied from AbstractEntryMap#hash()
+    private static int hash(Object o) {
+        int h = Objects.hashCode(o);
+        h ^= (h >>> 20) ^ (h >>> 12);
+        return h ^ (h >>> 7) ^ (h >>> 4);
+    }
+
+    // murmur3 finalizer
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    // maps uniformly an int into [0, n) without using the expensive modulus
+    private static int range(int h, int n) {
+        return (int) (((h & 0xFFFFFFFFL) * n) >>> 32);
+    }
+
+    private static int bucketOf(int h, int bucketCount) {
+        return range(mix(h), bucketCount);
+    }
+
+    private static int slotOf(int h, int displacement, int m) {
+        return range(mix(h + (displacement + 1) * GOLDEN_RATIO), m);
+    }
+
+    /**
+     * @param keys  the keys used to build the hash
+     * @param order the order filled by {@link #build(java.lang.Object[], int[]) } or {@code null}
+     *              if the keys have been sorted by position
+     * @return the index into {@code keys} of the given key or -1 if not present
+     */
+    int indexOf(Object key, Object[] keys, int[] order) {
+        if (slots == 0) {
+            return -1;
+        }
+        final int h = hash(key);
+        final int d = displacements[bucketOf(h, displacements.length)];
+        final int slot = d < 0 ? -d - 1 : slotOf(h, d, slots);
+        if (offsets == null) {
+            final int index = order == null ? slot : order[slot];
+            return Objects.equals(key, keys[index]) ? index : -1;
+        }
+        for (int p = offsets[slot], end = offsets[slot + 1]; p < end; p++) {
+            final int index = order == null ? p : order[p];
+            if (Objects.equals(key, keys[index])) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
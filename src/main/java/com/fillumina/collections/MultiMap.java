@@ -1,6 +1,10 @@
 package com.fillumina.collections;
 
 import com.fillumina.collections.AbstractEntryMap.InternalState;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -22,14 +26,17 @@ import java.util.stream.Collectors;
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
 public class MultiMap<K,V>
-        extends AbstractEntryMap<List<K>, V, Entry<List<K>, V>, MultiMap<K,V>, InternalState<Entry<List<K>,V>> > {
+        extends AbstractEntryMap<List<K>, V, Entry<List<K>, V>, MultiMap<K,V>, InternalState<Entry<List<K>,V>> >
+        implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     // The List items are the indexes of key sets mapping to valueSet:
     // each index have a set of keys each of which point to a set of valueSet.
     // The entry is needed because in the selection it is important to know which keys
     // points to a specific value.
+    // It's not serialized because it can be rebuilt from the entries.
     //            index    key      set of valueSet
-    private final List<Map<K, Set<Entry<List<K>, V>>>> mapList;
+    private transient List<Map<K, Set<Entry<List<K>, V>>>> mapList;
 
     public MultiMap() {
         super();
@@ -231,9 +238,15 @@ public class MultiMap<K,V>
             throw new IllegalStateException("cannot overwrite: " + old + " with value: " + value);
         }
 
+        return index(entry);
+    }
+
+    /** Adds the entry to the indexes of its keys. */
+    private boolean index(Entry<List<K>, V> entry) {
+        final List<K> keys = entry.getKey();
         boolean added = false;
-        for (int index = 0, l = keys.length; index < l; index++) {
-            K key = keys[index];
+        for (int index = 0, l = keys.size(); index < l; index++) {
+            K key = keys.get(index);
             Set<Entry<List<K>, V>> set = mapList
                     .get(index)
                     .computeIfAbsent(key, k -> createNewSet());
@@ -366,4 +379,18 @@ public class MultiMap<K,V>
         return new Tree<>(key, value);
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        writeEntries(out);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        readEntries(in);
+        mapList = new ArrayList<>();
+        forEach(e -> {
+            checkIndexesAndAddIfNeeded(e.getKey().size());
+            index(e);
+        });
+    }
 }
@@ -0,0 +1,213 @@
+package com.fillumina.collections;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+/**
+ * Base of the matrices of primitive values ({@link IntMatrix}, {@link LongMatrix} and
+ * {@link DoubleMatrix}). Cells are stored in a single flat array of fixed size: the position of
+ * a cell is {@code row * rowStride + col * colStride} so the same array can be organized by
+ * rows (the default) or by columns. As in {@link Matrix} columns can be accessed by key.
+ * Primitive matrices don't grow and are not thread safe.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public abstract class PrimitiveMatrix<K> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // key name and column index
+    private final BiMap<K, Integer> keys;
+    private final int rows;
+    private final int cols;
+    private final boolean columnMajor;
+    // distance between the same cell of two consecutive rows
+    private final int rowStride;
+    // distance between the same cell of two consecutive columns
+    private final int colStride;
+
+    /**
+     * @param keys        the column headers (can be null)
+     * @param rows        the number of rows
+     * @param cols        the number of columns (must match the keys if any)
+     * @param columnMajor stores the cells by column if true, by row otherwise
+     */
+    protected PrimitiveMatrix(Collection<? extends K> keys, int rows, int cols,
+            boolean columnMajor) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("negative size: " + rows + "x" + cols);
+        }
+        if (keys != null && keys.size() != cols) {
+            throw new IllegalArgumentException("expected " + cols + " keys: " + keys);
+        }
+        if ((long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("too big: " + rows + "x" + cols);
+        }
+        this.keys = keys == null ? null : createKeys(keys);
+        this.rows = rows;
+        this.cols = cols;
+        this.columnMajor = columnMajor;
+        this.rowStride = columnMajor ? 1 : cols;
+        this.colStride = columnMajor ? rows : 1;
+    }
+
+    /** Copy constructor (keys are immutable and can be shared). */
+    protected PrimitiveMatrix(PrimitiveMatrix<K> copy) {
+        this.keys = copy.keys;
+        this.rows = copy.rows;
+        this.cols = copy.cols;
+        this.columnMajor = copy.columnMajor;
+        this.rowStride = copy.rowStride;
+        this.colStride = copy.colStride;
+    }
+
+    private static <K> BiMap<K, Integer> createKeys(Collection<? extends K> keys) {
+        BiMap<K, Integer> bimap = new BiMap<>(keys.size());
+        int index = 0;
+        for (K k : keys) {
+            if (bimap.containsKey(k)) {
+                throw new IllegalArgumentException("key " + k + " is not unique in " + keys);
+            }
+            bimap.put(k, index++);
+        }
+        return bimap.immutableView();
+    }
+
+    /** @return the number of rows */
+    public int rowSize() {
+        return rows;
+    }
+
+    /** @return the number of columns */
+    public int colSize() {
+        return cols;
+    }
+
+    /** @return the number of cells */
+    public int size() {
+        return rows * cols;
+    }
+
+    public boolean isColumnMajor() {
+        return columnMajor;
+    }
+
+    public Set<K> getKeys() {
+        return keys == null ? Collections.emptySet() : keys.keySet();
+    }
+
+    public K getKeyAtColumn(int column) {
+        return keys == null ? null : keys.inverse().get(column);
+    }
+
+    /**
+     * @return the column of the given key
+     * @throws IllegalArgumentException if the key is not found
+     */
+    public int columnOf(K key) {
+        final Integer col = keys == null ? null : keys.get(key);
+        if (col == null) {
+            throw new IllegalArgumentException("key '" + key + "' not found");
+        }
+        return col;
+    }
+
+    /** Calls the action with the index of each row in order. */
+    public void forEachRow(IntConsumer action) {
+        for (int row = 0; row < rows; row++) {
+            action.accept(row);
+        }
+    }
+
+    /** Same as {@link #parallelForEachRow(IntConsumer, ForkJoinPool)} on the common pool. */
+    public void parallelForEachRow(IntConsumer action) {
+        parallelForEachRow(action, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calls the action with the index of each row from the threads of the given pool and
+     * returns when all the rows have been visited. The rows are partitioned in contiguous
+     * ranges. The action can read any cell and write the cells of its own row.
+     */
+    public void parallelForEachRow(IntConsumer action, ForkJoinPool pool) {
+        RowRangeAction.forEachRow(pool, rows, cols, action);
+    }
+
+    /** @return the position of the cell into the array */
+    protected int index(int row, int col) {
+        Objects.checkIndex(row, rows);
+        Objects.checkIndex(col, cols);
+        return row * rowStride + col * colStride;
+    }
+
+    /** @return the position of the first cell of the row into the array */
+    protected int rowStart(int row) {
+        Objects.checkIndex(row, rows);
+        return row * rowStride;
+    }
+
+    /** @return the position of the first cell of the column into the array */
+    protected int columnStart(int col) {
+        Objects.checkIndex(col, cols);
+        return col * colStride;
+    }
+
+    /** @return the distance between two consecutive cells of a column */
+    protected int rowStride() {
+        return rowStride;
+    }
+
+    /** @return the distance between two consecutive cells of a row */
+    protected int colStride() {
+        return colStride;
+    }
+
+    /** @return true if the other matrix has the same keys, dimensions and layout */
+    protected boolean sameLayout(PrimitiveMatrix<?> other) {
+        return sameShape(other) && columnMajor == other.columnMajor;
+    }
+
+    /** @return true if the other matrix has the same keys and dimensions */
+    protected boolean sameShape(PrimitiveMatrix<?> other) {
+        return rows == other.rows && cols == other.cols && Objects.equals(keys, other.keys);
+    }
+
+    protected int shapeHashCode() {
+        int hash = 7;
+        hash = 43 * hash + Objects.hashCode(keys);
+        hash = 43 * hash + rows;
+        hash = 43 * hash + cols;
+        return hash;
+    }
+
+    /** Used by {@link #toString()}. */
+    protected abstract String cellToString(int row, int col);
+
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder();
+        if (keys != null) {
+            for (int col = 0; col < cols; col++) {
+                if (col > 0) {
+                    buf.append('\t');
+                }
+                buf.append(getKeyAtColumn(col));
+            }
+            buf.append(System.lineSeparator());
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                if (col > 0) {
+                    buf.append('\t');
+                }
+                buf.append(cellToString(row, col));
+            }
+            buf.append(System.lineSeparator());
+        }
+        return buf.toString();
+    }
+}
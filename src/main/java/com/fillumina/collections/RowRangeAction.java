@@ -0,0 +1,57 @@
+package com.fillumina.collections;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Visits a range of rows on a {@link ForkJoinPool} by splitting it in halves until each task has
+ * either a fair share of the rows (4 tasks per thread) or too few cells to be worth splitting.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+final class RowRangeAction extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    // below this number of cells a task is not split
+    static final int MIN_CELLS = 1024;
+
+    private final IntConsumer action;
+    private final int from;
+    private final int to;
+    private final int threshold;
+
+    /**
+     * Calls the action with the index of each row and waits for all of them to complete.
+     * Exceptions thrown by the action are rethrown.
+     */
+    static void forEachRow(ForkJoinPool pool, int rows, int cols, IntConsumer action) {
+        if (rows == 0) {
+            return;
+        }
+        final int byParallelism = rows / (pool.getParallelism() << 2);
+        final int byCells = MIN_CELLS / Math.max(1, cols);
+        final int threshold = Math.max(1, Math.max(byParallelism, byCells));
+        pool.invoke(new RowRangeAction(action, 0, rows, threshold));
+    }
+
+    private RowRangeAction(IntConsumer action, int from, int to, int threshold) {
+        this.action = action;
+        this.from = from;
+        this.to = to;
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= threshold) {
+            for (int row = from; row < to; row++) {
+                action.accept(row);
+            }
+        } else {
+            final int mid = (from + to) >>> 1;
+            invokeAll(new RowRangeAction(action, from, mid, threshold),
+                    new RowRangeAction(action, mid, to, threshold));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.fillumina.collections;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectStreamException;
+import java.util.Arrays;
+
+/**
+ * Compact serialized form of the containers that cannot be read by a {@code readObject()} method
+ * because of their final fields: it's written in their place by {@code writeReplace()} as a tag
+ * followed by a flat array of elements (or of interleaved keys and values) and it's resolved back
+ * into the original container when read.
+ * <p>
+ * It also contains the helpers writing arrays as their length (-1 for {@code null}) followed by
+ * their elements used by the other containers. Lengths read from a stream are not trusted:
+ * arrays grow while their elements are read so that a corrupted length cannot allocate more
+ * memory than the data actually present.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+final class SerializedForm implements Externalizable {
+    private static final long serialVersionUID = 1L;
+
+    static final int BI_MAP = 1;
+    static final int IMMUTABLE_BI_MAP = 2;
+    static final int LINKED_TABLE_SET = 3;
+    static final int PERFECT_HASHED_LINKED_TABLE_SET = 4;
+    static final int COMPACT_TABLE_MAP = 5;
+    static final int PERFECT_HASH_MAP = 6;
+    static final int COMPACT_BI_MAP = 7;
+    static final int COPY_ON_WRITE_BI_MAP = 8;
+
+    // the biggest array allocated before reading its elements
+    static final int MAX_PREALLOCATION = 1 << 16;
+
+    private int tag;
+    // an optional parameter of the container (i.e. the size of the index table)
+    private int parameter;
+    private Object[] array;
+
+    /** Needed by {@link Externalizable}. */
+    public SerializedForm() {
+    }
+
+    SerializedForm(int tag, Object[] array) {
+        this(tag, 0, array);
+    }
+
+    SerializedForm(int tag, int parameter, Object[] array) {
+        this.tag = tag;
+        this.parameter = parameter;
+        this.array = array;
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(tag);
+        out.writeInt(parameter);
+        writeArray(out, array);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+        tag = in.readByte();
+        parameter = in.readInt();
+        array = readArray(in);
+        if (array == null) {
+            throw new InvalidObjectException("missing elements");
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readResolve() throws ObjectStreamException {
+        switch (tag) {
+            case BI_MAP:
+                final BiMap<Object, Object> biMap = new BiMap<>(array.length >> 1);
+                for (int i = 0; i < array.length; i += 2) {
+                    biMap.put(array[i], array[i + 1]);
+                }
+                return biMap;
+
+            case IMMUTABLE_BI_MAP:
+                return BiMap.immutable(array);
+
+            case LINKED_TABLE_SET:
+                return ImmutableLinkedTableSet.of(array);
+
+            case PERFECT_HASHED_LINKED_TABLE_SET:
+                return ImmutableLinkedTableSet.of(array).perfectHashed();
+
+            case COMPACT_TABLE_MAP:
+                if (array.length == 0) {
+                    return ImmutableCompactTableMap.EMPTY;
+                }
+                if (parameter <= (array.length >> 1) || (parameter & (parameter - 1)) != 0) {
+                    throw new InvalidObjectException("invalid table size: " + parameter);
+                }
+                return new ImmutableCompactTableMap(array, parameter);
+
+            case PERFECT_HASH_MAP:
+                if (array.length == 0) {
+                    return ImmutablePerfectHashMap.EMPTY;
+                }
+                return new ImmutablePerfectHashMap(array);
+
+            case COMPACT_BI_MAP:
+                final CompactBiMap<Object, Object> compactBiMap =
+                        new CompactBiMap<>(array.length >> 1);
+                for (int i = 0; i < array.length; i += 2) {
+                    compactBiMap.put(array[i], array[i + 1]);
+                }
+                return compactBiMap;
+
+            case COPY_ON_WRITE_BI_MAP:
+                final CompactBiMap<Object, Object> state = new CompactBiMap<>(array.length >> 1);
+                for (int i = 0; i < array.length; i += 2) {
+                    state.put(array[i], array[i + 1]);
+                }
+                // the parameter is 1 for a read only snapshot
+                return new CopyOnWriteBiMap<>(state, parameter == 1);
+
+            default:
+                throw new InvalidObjectException("unknown tag: " + tag);
+        }
+    }
+
+    static void writeArray(ObjectOutput out, Object[] array) throws IOException {
+        if (array == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(array.length);
+        for (Object o : array) {
+            out.writeObject(o);
+        }
+    }
+
+    /** @return the array written by {@link #writeArray}, it can be {@code null} */
+    static Object[] readArray(ObjectInput in) throws IOException, ClassNotFoundException {
+        final int length = in.readInt();
+        if (length < -1) {
+            throw new InvalidObjectException("invalid length: " + length);
+        }
+        if (length == -1) {
+            return null;
+        }
+        return readObjects(in, length);
+    }
+
+    /** @return the given number of objects read from the stream */
+    static Object[] readObjects(ObjectInput in, int count)
+            throws IOException, ClassNotFoundException {
+        Object[] array = new Object[Math.min(count, MAX_PREALLOCATION)];
+        for (int i = 0; i < count; i++) {
+            if (i == array.length) {
+                array = Arrays.copyOf(array, grownLength(i, count));
+            }
+            array[i] = in.readObject();
+        }
+        return array;
+    }
+
+    /** @return the doubled length of a full array being read, up to the expected count */
+    static int grownLength(int length, int count) {
+        return (int) Math.min(count, (long) length << 1);
+    }
+}
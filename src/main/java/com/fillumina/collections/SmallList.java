@@ -1,5 +1,8 @@
 package com.fillumina.collections;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractList;
 import java.util.Arrays;
@@ -8,18 +11,100 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.function.Predicate;
 
 /**
  * A {@link java.util.List} implementation backed by an array with the aim of using as little space
- * as possible.
+ * as possible. Because the array is always exactly sized every single insertion or removal copies
+ * it: use a {@link Builder} to create big lists and the bulk operations
+ * ({@link #addAll(java.util.Collection)}, {@link #removeIf(java.util.function.Predicate)},
+ * {@link #removeAll(java.util.Collection)} and {@link #retainAll(java.util.Collection)}) that
+ * allocate the new array only once.
  *
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
 public class SmallList<T> extends AbstractList<T> implements Serializable {
 
-    private static final long serialVersionUID = 1L;
+    // streams of the former default serialized form (1L) are rejected
+    private static final long serialVersionUID = 2L;
 
-    private T[] array;
+    // elements are written by writeObject()
+    private transient T[] array;
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>(Builder.DEFAULT_CAPACITY);
+    }
+
+    public static <T> Builder<T> builder(int expectedSize) {
+        return new Builder<>(expectedSize);
+    }
+
+    /**
+     * Builds a {@link SmallList} appending elements to an array with slack that grows
+     * geometrically (amortized {@code O(1)} for each insertion) and gets trimmed to its exact size
+     * only once when the list is built. The builder is reset after each build.
+     */
+    public static class Builder<T> {
+        private static final int DEFAULT_CAPACITY = 8;
+
+        private Object[] array;
+        private int size;
+
+        private Builder(int expectedSize) {
+            this.array = new Object[Math.max(1, expectedSize)];
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > array.length) {
+                array = Arrays.copyOf(array, Math.max(capacity, array.length << 1));
+            }
+        }
+
+        public Builder<T> add(T e) {
+            if (e == null) {
+                throw new IllegalArgumentException("cannot add null elements");
+            }
+            ensureCapacity(size + 1);
+            array[size++] = e;
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        public Builder<T> addAll(T... elements) {
+            for (T t : elements) {
+                add(t);
+            }
+            return this;
+        }
+
+        public Builder<T> addAll(Collection<? extends T> elements) {
+            ensureCapacity(size + elements.size());
+            for (T t : elements) {
+                add(t);
+            }
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T[] trimmedArray() {
+            final Object[] result = size == array.length ? array : Arrays.copyOf(array, size);
+            array = new Object[DEFAULT_CAPACITY];
+            size = 0;
+            return (T[]) result;
+        }
+
+        public SmallList<T> build() {
+            return size == 0 ? new SmallList<>() : new SmallList<>(trimmedArray());
+        }
+
+        public ImmutableSmallList<T> buildImmutable() {
+            return size == 0 ? new ImmutableSmallList<>() : new ImmutableSmallList<>(trimmedArray());
+        }
+    }
 
     public SmallList() {
     }
@@ -66,17 +151,20 @@ public class SmallList<T> extends AbstractList<T> implements Serializable {
     public void sort(Comparator<? super T> comparator) {
         readOnlyCheck();
         if (array != null) {
+            // the array could be shared with copies
+            array = array.clone();
             Arrays.sort(array, comparator);
         }
     }
 
     /**
-     * <b>In place</b> sorting. Don't use {@link java.util.Collections#sort(java.util.List) }
-     * which is much slower than this method.
+     * Sorting of a copy of the array. Don't use
+     * {@link java.util.Collections#sort(java.util.List) } which is much slower than this method.
      */
     public void sort() {
         readOnlyCheck();
         if (array != null) {
+            array = array.clone();
             Arrays.sort(array);
         }
     }
@@ -100,18 +188,81 @@ public class SmallList<T> extends AbstractList<T> implements Serializable {
         }
     }
 
+    /** Allocates the new array only once. */
     @Override
-    public boolean retainAll(Collection<?> c) {
-        Objects.requireNonNull(c);
-        boolean modified = false;
-        Iterator<T> it = iterator();
-        while (it.hasNext()) {
-            if (!c.contains(it.next())) {
-                it.remove();
-                modified = true;
+    @SuppressWarnings("unchecked")
+    public boolean addAll(Collection<? extends T> c) {
+        readOnlyCheck();
+        final Object[] added = c.toArray();
+        if (added.length == 0) {
+            return false;
+        }
+        for (Object o : added) {
+            if (o == null) {
+                throw new IllegalArgumentException("cannot add null elements");
             }
         }
-        return modified;
+        if (array == null) {
+            // toArray() returns a copy that can be owned by this list
+            array = (T[]) added;
+        } else {
+            final int length = array.length;
+            final T[] next = Arrays.copyOf(array, length + added.length);
+            System.arraycopy(added, 0, next, length, added.length);
+            array = next;
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates the predicate only once for each element and allocates the new array only once.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super T> filter) {
+        Objects.requireNonNull(filter);
+        readOnlyCheck();
+        if (array == null) {
+            return false;
+        }
+        final int length = array.length;
+        final long[] removed = new long[((length - 1) >> 6) + 1];
+        int removedCount = 0;
+        for (int i = 0; i < length; i++) {
+            if (filter.test(array[i])) {
+                removed[i >> 6] |= 1L << i;
+                removedCount++;
+            }
+        }
+        if (removedCount == 0) {
+            return false;
+        }
+        if (removedCount == length) {
+            array = null;
+            return true;
+        }
+        final T[] next = (T[]) new Object[length - removedCount];
+        for (int i = 0, j = 0; i < length; i++) {
+            if ((removed[i >> 6] & (1L << i)) == 0) {
+                next[j++] = array[i];
+            }
+        }
+        array = next;
+        return true;
+    }
+
+    /** Allocates the new array only once. */
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(c::contains);
+    }
+
+    /** Allocates the new array only once. */
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        Objects.requireNonNull(c);
+        return removeIf(e -> !c.contains(e));
     }
 
     /**
@@ -250,4 +401,15 @@ public class SmallList<T> extends AbstractList<T> implements Serializable {
     public ImmutableSmallList<T> immutable() {
         return new ImmutableSmallList<>(this);
     }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        SerializedForm.writeArray(out, array);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        array = (T[]) SerializedForm.readArray(in);
+    }
 }
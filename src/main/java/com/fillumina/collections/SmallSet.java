@@ -1,5 +1,8 @@
 package com.fillumina.collections;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractSet;
 import java.util.Arrays;
@@ -21,7 +24,8 @@ import java.util.Objects;
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
 public class SmallSet<T> extends AbstractSet<T> implements Serializable {
-    private static final long serialVersionUID = 1L;
+    // streams of the former default serialized form (1L) are rejected
+    private static final long serialVersionUID = 2L;
 
     public static final SmallSet<?> EMPTY = new ImmutableSmallSet<Object>();
 
@@ -29,11 +33,16 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
     // 1) null
     // 2) a single object
     // 3) an array of objects
-    private Object obj;
+    // elements are written by writeObject()
+    private transient Object obj;
+
+    // optional fingerprints of the elements (used only if obj is an array), null if not used
+    private transient byte[] fingerprints;
 
     public SmallSet() {
     }
 
+    /** Duplicates are removed in bulk keeping the first occurrence. */
     @SuppressWarnings("unchecked")
     public SmallSet(T... elements) {
         if (elements != null) {
@@ -46,30 +55,28 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
                     obj = elements[0];
                     break;
                 default:
-                    Object[] array = new Object[length];
-                    int index = 0;
-                    ELEM: for (T t : elements) {
-                        for (int i=0; i<index; i++) {
-                            if (Objects.equals(array[i],t)) {
-                                continue ELEM;
-                            }
-                        }
-                        array[index] = t;
-                        index++;
-                    }
-                    if (index < length) {
-                        obj = new Object[index];
-                        System.arraycopy(array, 0, obj, 0, index);
-                    } else {
-                        obj = array;
-                    }
+                    final Object[] distinct = DistinctArrays.distinct(null, elements);
+                    // never share the array of the caller
+                    setArray(distinct == elements ? elements.clone() : distinct);
             }
         }
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Duplicates are removed in bulk keeping the first occurrence, the check is skipped if the
+     * given collection is already a set.
+     */
     public SmallSet(Collection<? extends T> elements) {
-        this((T[])elements.toArray());
+        if (!elements.isEmpty()) {
+            // toArray() returns a copy that can be owned by this set
+            final Object[] copy = elements.toArray();
+            setArray(DistinctArrays.isDistinct(elements) ?
+                    copy : DistinctArrays.distinct(null, copy));
+        }
+    }
+
+    private void setArray(Object[] array) {
+        obj = array.length == 1 ? array[0] : array;
     }
 
     public SmallSet(SmallSet<? extends T> smallSet) {
@@ -80,12 +87,53 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
                 this.obj = smallSet.obj;
             }
         }
+        // fingerprints are never modified in place so they can be shared
+        this.fingerprints = smallSet.fingerprints;
     }
 
     protected void readOnlyCheck() {
         // do nothing
     }
 
+    /**
+     * Keeps a one byte fingerprint of each element so that searches call {@code equals()} only on
+     * elements having the same fingerprint. Useful if elements have expensive {@code equals()} and
+     * misses are frequent. Fingerprints are kept by copies and immutable clones.
+     */
+    public SmallSet<T> withFingerprints() {
+        readOnlyCheck();
+        updateFingerprints(true);
+        return this;
+    }
+
+    private void updateFingerprints(boolean enabled) {
+        if (enabled) {
+            fingerprints = obj != null && obj.getClass().isArray() ?
+                    Fingerprints.of((Object[]) obj, 1) :
+                    Fingerprints.EMPTY;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int indexOfElement(Object[] array, Object o) {
+        final byte[] fp = fingerprints;
+        if (fp != null) {
+            final byte elementFingerprint = Fingerprints.of(o);
+            for (int i = array.length - 1; i >= 0; i--) {
+                if (fp[i] == elementFingerprint && equals(o, (T) array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        for (int i = array.length - 1; i >= 0; i--) {
+            if (equals(o, (T) array[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Get the element at the given index.
      */
@@ -106,13 +154,7 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
         if (obj == null) {
             return -1;
         } else if (obj.getClass().isArray()) {
-            T[] array = (T[]) obj;
-            for (int i=array.length-1; i>=0; i--) {
-                if (t.equals(array[i])) {
-                    return i;
-                }
-            }
-            return -1;
+            return indexOfElement((Object[]) obj, t);
         } else {
             return obj.equals(t) ? 0 : -1;
         }
@@ -129,6 +171,7 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
         if (obj != null && obj.getClass().isArray()) {
             T[] array = ((T[]) obj);
             Arrays.sort(array, comparator);
+            updateFingerprints(fingerprints != null);
         }
     }
 
@@ -143,6 +186,7 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
         if (obj != null && obj.getClass().isArray()) {
             T[] array = ((T[]) obj);
             Arrays.sort(array);
+            updateFingerprints(fingerprints != null);
         }
     }
 
@@ -163,6 +207,9 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
                 System.arraycopy(array, 0, next, 0, array.length);
                 next[array.length] = e;
                 obj = next;
+                if (fingerprints != null) {
+                    fingerprints = Fingerprints.append(fingerprints, e);
+                }
                 return true;
             }
         } else if (!equals(obj, e)) {
@@ -170,11 +217,40 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
             obj = new Object[2];
             ((Object[]) obj)[0] = old;
             ((Object[]) obj)[1] = e;
+            updateFingerprints(fingerprints != null);
             return true;
         }
         return false;
     }
 
+    /**
+     * Adds all the elements in bulk allocating the new array only once. Duplicates are checked
+     * using a temporary hash table for big collections.
+     */
+    @Override
+    public boolean addAll(Collection<? extends T> c) {
+        readOnlyCheck();
+        if (c.isEmpty()) {
+            return false;
+        }
+        final Object[] incoming = c.toArray();
+        for (Object o : incoming) {
+            if (o == null) {
+                throw new IllegalArgumentException("cannot add null elements");
+            }
+        }
+        final Object[] existing = obj == null ? null :
+                (obj.getClass().isArray() ? (Object[]) obj : new Object[] { obj });
+        final Object[] added = existing == null && DistinctArrays.isDistinct(c) ?
+                incoming : DistinctArrays.distinct(existing, incoming);
+        if (added.length == 0) {
+            return false;
+        }
+        setArray(DistinctArrays.concat(existing, added));
+        updateFingerprints(fingerprints != null);
+        return true;
+    }
+
     @Override
     public boolean retainAll(Collection<?> c) {
         Objects.requireNonNull(c);
@@ -200,20 +276,10 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
             return false;
         }
         if (obj.getClass().isArray()) {
-            T[] array = (T[]) obj;
-            int l = array.length;
-            for (int i = 0; i < l; i++) {
-                if (equals(e, array[i])) {
-                    T[] na = (T[]) new Object[l - 1];
-                    if (i > 0) {
-                        System.arraycopy(array, 0, na, 0, i);
-                    }
-                    if (i < l - 1) {
-                        System.arraycopy(array, i + 1, na, i, l - i - 1);
-                    }
-                    obj = na;
-                    return true;
-                }
+            int i = indexOfElement((Object[]) obj, e);
+            if (i >= 0) {
+                removeAtIndex(i);
+                return true;
             }
         } else if (equals(obj, (T)e)) {
             obj = null;
@@ -236,6 +302,9 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
             System.arraycopy(array, i + 1, na, i, l - i - 1);
         }
         obj = na;
+        if (fingerprints != null) {
+            fingerprints = Fingerprints.removeAtIndex(fingerprints, i);
+        }
         return oldValue;
     }
 
@@ -244,17 +313,10 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
     public boolean contains(Object o) {
         if (obj == null) {
             return false;
-        } else if (equals(o, (T)obj)) {
-            // ok there is a catch here but I choose not to care
-            return true;
         } else if (obj.getClass().isArray()) {
-            for (T t : ((T[]) obj)) {
-                if (equals(o, t)) {
-                    return true;
-                }
-            }
+            return indexOfElement((Object[]) obj, o) >= 0;
         }
-        return false;
+        return equals(o, (T)obj);
     }
 
     protected boolean equals(Object o, T t) {
@@ -326,6 +388,7 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
     public void clear() {
         readOnlyCheck();
         obj = null;
+        updateFingerprints(fingerprints != null);
     }
 
     @Override
@@ -366,4 +429,28 @@ public class SmallSet<T> extends AbstractSet<T> implements Serializable {
     public ImmutableSmallSet<T> immutable() {
         return new ImmutableSmallSet<>(this);
     }
+
+    /** The elements are written in order, fingerprints are recomputed when read. */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeBoolean(fingerprints != null);
+        if (obj == null) {
+            out.writeInt(0);
+        } else if (obj.getClass().isArray()) {
+            SerializedForm.writeArray(out, (Object[]) obj);
+        } else {
+            out.writeInt(1);
+            out.writeObject(obj);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final boolean hasFingerprints = in.readBoolean();
+        final Object[] array = SerializedForm.readArray(in);
+        if (array != null && array.length > 0) {
+            setArray(array);
+        }
+        updateFingerprints(hasFingerprints);
+    }
 }
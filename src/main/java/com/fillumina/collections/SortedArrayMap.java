@@ -1,8 +1,12 @@
 package com.fillumina.collections;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Objects;
+import java.util.SortedMap;
+import java.util.function.BiFunction;
 
 /**
  * {@link java.util.Map} backed by a sorted array. Very compact and accessed in O(Log n). Useful to
@@ -12,6 +16,7 @@ import java.util.Objects;
  * @author Francesco Illuminati <fillumina@gmail.com>
  */
 public class SortedArrayMap<K extends Comparable<K>, V> extends BaseArrayMap<K, V> {
+    private static final long serialVersionUID = 1L;
 
     private static final int PAIR_MASK = Integer.MAX_VALUE - 1;
 
@@ -26,6 +31,37 @@ public class SortedArrayMap<K extends Comparable<K>, V> extends BaseArrayMap<K,
         return new MapBuilder<>(o -> new SortedArrayMap<>(o));
     }
 
+    /**
+     * Merges the given sorted maps in a single linear pass creating a new map.
+     * If the same key is present in more than one map the last one wins.
+     */
+    @SafeVarargs
+    public static <K extends Comparable<K>, V> SortedArrayMap<K, V> merge(
+            SortedArrayMap<K, V>... maps) {
+        return merge((a, b) -> b, maps);
+    }
+
+    /**
+     * Merges the given sorted maps in a single linear pass creating a new map. The array of the
+     * returned map is allocated only once.
+     *
+     * @param resolver called with the value already merged and the value of the following map
+     *                 whenever the same key is found in more than one map. The returned value is
+     *                 used (even if it's {@code null}).
+     */
+    @SafeVarargs
+    public static <K extends Comparable<K>, V> SortedArrayMap<K, V> merge(
+            BiFunction<? super V, ? super V, ? extends V> resolver,
+            SortedArrayMap<K, V>... maps) {
+        Object[][] arrays = new Object[maps.length][];
+        for (int i = 0; i < maps.length; i++) {
+            arrays[i] = maps[i].array;
+        }
+        SortedArrayMap<K, V> result = new SortedArrayMap<>();
+        result.array = mergeSortedArrays(resolver, arrays);
+        return result;
+    }
+
     public SortedArrayMap() {
     }
 
@@ -89,6 +125,143 @@ public class SortedArrayMap<K extends Comparable<K>, V> extends BaseArrayMap<K,
         }
     }
 
+    /**
+     * If the given map is sorted (i.e. it's a {@link SortedArrayMap} or a {@link SortedMap} using
+     * natural ordering) it is merged in linear time, otherwise its entries are sorted first.
+     * Existing values are overwritten.
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        putAll(map, (a, b) -> b);
+    }
+
+    /**
+     * Like {@link #putAll(java.util.Map)} but the given resolver is called with the current and
+     * the new value to decide which value to keep when a key is already present.
+     */
+    public void putAll(Map<? extends K, ? extends V> map,
+            BiFunction<? super V, ? super V, ? extends V> resolver) {
+        readOnlyCheck();
+        if (map.isEmpty()) {
+            return;
+        }
+        array = mergeSortedArrays(resolver, array, toSortedArray(map));
+    }
+
+    /**
+     * @return an array of interleaved keys and values sorted by keys. It could be the internal
+     *         array of the given map so it must not be modified.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object[] toSortedArray(Map<?, ?> map) {
+        if (map instanceof SortedArrayMap) {
+            return ((SortedArrayMap<?, ?>) map).array;
+        }
+        final Object[] result = new Object[map.size() << 1];
+        if (map instanceof SortedMap && ((SortedMap<?, ?>) map).comparator() == null) {
+            int idx = 0;
+            for (Entry<?, ?> e : map.entrySet()) {
+                result[idx++] = e.getKey();
+                result[idx++] = e.getValue();
+            }
+            return result;
+        }
+        // entries must be copied because they could be cursors
+        Entry<?, ?>[] entries = new Entry<?, ?>[map.size()];
+        int idx = 0;
+        for (Entry<?, ?> e : map.entrySet()) {
+            entries[idx++] = new SimpleImmutableEntry<>(e.getKey(), e.getValue());
+        }
+        Arrays.sort(entries, (a, b) -> ((Comparable<Object>) a.getKey()).compareTo(b.getKey()));
+        idx = 0;
+        for (Entry<?, ?> e : entries) {
+            result[idx++] = e.getKey();
+            result[idx++] = e.getValue();
+        }
+        return result;
+    }
+
+    /**
+     * K-way merge of arrays of interleaved sorted keys and values. The heads of the arrays are kept
+     * in a binary heap so the cost is O(N log k) where N is the total number of entries and k the
+     * number of arrays. Keys present in more than one array are resolved in array order.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Object[] mergeSortedArrays(
+            BiFunction<? super V, ? super V, ? extends V> resolver, Object[]... arrays) {
+        int total = 0;
+        int count = 0;
+        // heap of the indexes of the arrays having entries left to merge
+        final int[] heap = new int[arrays.length];
+        for (int i = 0; i < arrays.length; i++) {
+            if (arrays[i] != null && arrays[i].length > 0) {
+                total += arrays[i].length;
+                heap[count++] = i;
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        if (count == 1) {
+            return arrays[heap[0]].clone();
+        }
+        final int[] positions = new int[arrays.length];
+        for (int i = (count >> 1) - 1; i >= 0; i--) {
+            siftDown(heap, i, count, arrays, positions);
+        }
+        final Object[] result = new Object[total];
+        int idx = 0;
+        while (count > 0) {
+            final int src = heap[0];
+            final int pos = positions[src];
+            final Object key = arrays[src][pos];
+            final Object value = arrays[src][pos + 1];
+            if (idx > 0 && ((Comparable<Object>) result[idx - 2]).compareTo(key) == 0) {
+                result[idx - 1] = resolver.apply((V) result[idx - 1], (V) value);
+            } else {
+                result[idx] = key;
+                result[idx + 1] = value;
+                idx += 2;
+            }
+            positions[src] = pos + 2;
+            if (positions[src] == arrays[src].length) {
+                heap[0] = heap[--count];
+            }
+            siftDown(heap, 0, count, arrays, positions);
+        }
+        return idx == total ? result : Arrays.copyOf(result, idx);
+    }
+
+    private static void siftDown(int[] heap, int i, int count,
+            Object[][] arrays, int[] positions) {
+        while (true) {
+            int smallest = i;
+            final int left = (i << 1) + 1;
+            final int right = left + 1;
+            if (left < count && isHeadLess(heap[left], heap[smallest], arrays, positions)) {
+                smallest = left;
+            }
+            if (right < count && isHeadLess(heap[right], heap[smallest], arrays, positions)) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            final int tmp = heap[i];
+            heap[i] = heap[smallest];
+            heap[smallest] = tmp;
+            i = smallest;
+        }
+    }
+
+    /** Equal keys are ordered by array index so that conflicts are resolved in order. */
+    @SuppressWarnings("unchecked")
+    private static boolean isHeadLess(int a, int b, Object[][] arrays, int[] positions) {
+        final int cmp = ((Comparable<Object>) arrays[a][positions[a]])
+                .compareTo(arrays[b][positions[b]]);
+        return cmp < 0 || (cmp == 0 && a < b);
+    }
+
     /**
      * Search an element using the bisection algorithm on the sorted keys. It's performance is
      * O(LogN).
@@ -1,14 +1,97 @@
 package com.fillumina.collections;
 
 import com.fillumina.collections.AbstractEntryMap.InternalState;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Full {@link java.util.Map} conform implementation of {@link AbstractEntryMap}.
+ * <p>
+ * {@link #immutable()} takes O(1): the returned {@link ImmutableTableMap} shares the internal
+ * state of this map which is frozen and copied only on the next write. Frozen entries are shared
+ * by the two maps and never modified again so updating the value of an existing key after a
+ * freeze substitutes its entry.
  */
 public class TableMap<K, V>
-        extends AbstractEntryMap<K, V, Map.Entry<K, V>, TableMap<K, V>, InternalState<Map.Entry<K,V>>> {
+        extends AbstractEntryMap<K, V, Map.Entry<K, V>, TableMap<K, V>, InternalState<Map.Entry<K,V>>>
+        implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Shared by all the entries created between two freezes. */
+    private static final class Generation implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        boolean frozen;
+    }
+
+    /**
+     * Entry that can be modified until its generation gets frozen. It extends
+     * {@link AbstractMap.SimpleImmutableEntry} so it can be shared with {@link ImmutableTableMap}.
+     */
+    static final class TableEntry<K, V> extends AbstractMap.SimpleImmutableEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        private V value;
+        private final Generation generation;
+
+        private TableEntry(K key, V value, Generation generation) {
+            super(key, null);
+            this.value = value;
+            this.generation = generation;
+        }
+
+        boolean isFrozen() {
+            return generation.frozen;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (generation.frozen) {
+                throw new UnsupportedOperationException("read only");
+            }
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + value;
+        }
+    }
+
+    // no initializers: createEntry() is called by the super constructors
+    private transient Generation generation;
+    private transient InternalState<Entry<K, V>> frozenState;
+    private transient ImmutableTableMap<K, V> snapshot;
+    private transient Set<Entry<K, V>> writeThroughEntrySet;
 
     public TableMap() {
         super();
@@ -46,7 +129,30 @@ public class TableMap<K, V>
         if (k == null && v == null) {
             return (Entry<K, V>) AbstractEntryMap.NULL_ENTRY;
         }
-        return new AbstractMap.SimpleEntry<>(k, v);
+        if (generation == null) {
+            generation = new Generation();
+        }
+        return new TableEntry<>(k, v, generation);
+    }
+
+    @Override
+    protected boolean isEntryUpdatable(Entry<K, V> entry) {
+        return !(entry instanceof TableEntry) || !((TableEntry<K, V>) entry).isFrozen();
+    }
+
+    /** Copies the state shared with the last {@link #immutable()} snapshot before modifying it. */
+    @Override
+    protected InternalState<Entry<K, V>> getInternalStateClone() {
+        final InternalState<Entry<K, V>> state = getInternalState();
+        if (state != frozenState) {
+            return state;
+        }
+        final Object event = CollectionEvents.beginCopy();
+        frozenState = null;
+        final InternalState<Entry<K, V>> copy = new InternalState<>(state);
+        setInternalState(copy);
+        CollectionEvents.commitCopy(event, getClass(), copy);
+        return copy;
     }
 
     @Override
@@ -54,9 +160,132 @@ public class TableMap<K, V>
         return new TableMap<>(size);
     }
 
-    /** @return an immutable <i>clone</i> of this map. */
+    /**
+     * @return an immutable <i>snapshot</i> of this map. It takes O(1) because the internal state
+     * is shared and copied by this map only on its next write. The same instance is returned
+     * until this map gets modified.
+     */
+    @SuppressWarnings("unchecked")
     public ImmutableTableMap<K, V> immutable() {
-        return new ImmutableTableMap<K, V>(this);
+        final InternalState<Entry<K, V>> state = getInternalState();
+        if (snapshot == null || state != frozenState) {
+            if (generation != null) {
+                generation.frozen = true;
+                // entries created from now on belong to a new generation
+                generation = null;
+            }
+            frozenState = state;
+            snapshot = new ImmutableTableMap<>(
+                    (InternalState<AbstractMap.SimpleImmutableEntry<K, V>>) (Object) state);
+        }
+        return snapshot;
+    }
+
+    /**
+     * The returned entry writes through this map even if it has been frozen by
+     * {@link #immutable()}.
+     */
+    @Override
+    public Entry<K, V> getEntry(Object key) {
+        final Entry<K, V> e = super.getEntry(key);
+        if (e instanceof TableEntry && ((TableEntry<K, V>) e).isFrozen()) {
+            return new WriteThroughEntry(e.getKey(), e.getValue());
+        }
+        return e;
+    }
+
+    @Override
+    public V get(Object key) {
+        // avoids wrapping frozen entries
+        final Entry<K, V> e = innerGetEntry(key, getInternalState());
+        return e == null ? null : e.getValue();
+    }
+
+    /**
+     * The returned entries write through this map even if they have been frozen by
+     * {@link #immutable()}.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (writeThroughEntrySet != null) {
+            return writeThroughEntrySet;
+        }
+        final Set<Entry<K, V>> entrySet = super.entrySet();
+        return writeThroughEntrySet = new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                final Iterator<Entry<K, V>> iterator = entrySet.iterator();
+                return new Iterator<Entry<K, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        final Entry<K, V> e = iterator.next();
+                        if (e instanceof TableEntry && ((TableEntry<K, V>) e).isFrozen()) {
+                            return new WriteThroughEntry(e.getKey(), e.getValue());
+                        }
+                        return e;
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entrySet.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return entrySet.isEmpty();
+            }
+
+            @Override
+            public void clear() {
+                entrySet.clear();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return entrySet.contains(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                return entrySet.remove(o);
+            }
+        };
+    }
+
+    private class WriteThroughEntry extends AbstractMap.SimpleEntry<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        WriteThroughEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            super.setValue(value);
+            return TableMap.this.put(getKey(), value);
+        }
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        writeEntries(out);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        readEntries(in);
     }
 
     @Override
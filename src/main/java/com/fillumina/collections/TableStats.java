@@ -0,0 +1,172 @@
+package com.fillumina.collections;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Statistics of the open addressing table of an {@link AbstractEntryMap} returned by
+ * {@link AbstractEntryMap#tableStats() }. The <i>displacement</i> of an entry is the distance
+ * between the slot it occupies and its home slot (given by its hash): a successful lookup of the
+ * entry checks {@code displacement + 1} slots. A <i>cluster</i> is a run of consecutive occupied
+ * slots: a lookup of a missing key checks all the slots from its home to the end of the cluster
+ * plus the empty slot closing it. Long clusters and high displacements at a low load factor
+ * reveal a poor {@code hashCode()} implementation of the keys.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public final class TableStats {
+    private final int size;
+    private final int capacity;
+    private final double averageProbeLength;
+    private final int maxProbeLength;
+    private final double averageMissProbeLength;
+    private final int clusters;
+    private final int longestCluster;
+    private final int[] displacementHistogram;
+
+    /**
+     * Computes the statistics in two passes over the table without allocating anything but the
+     * result.
+     */
+    static TableStats of(Map.Entry<?, ?>[] array, AbstractEntryMap<?, ?, ?, ?, ?> map) {
+        if (array == null || array.length == 0) {
+            return new TableStats(0, 0, 0, 0, 0, 0, 0, new int[0]);
+        }
+        final int capacity = array.length;
+        final int mask = capacity - 1;
+        // starts after an empty slot so no cluster wraps around the end of the table
+        int start = 0;
+        while (start < capacity && array[start] != null) {
+            start++;
+        }
+        int size = 0;
+        long displacements = 0;
+        int maxDisplacement = 0;
+        long missProbes = 0;
+        int clusters = 0;
+        int longestCluster = 0;
+        int cluster = 0;
+        for (int i = 1; i <= capacity; i++) {
+            final int idx = (start + i) & mask;
+            final Map.Entry<?, ?> e = array[idx];
+            if (e == null) {
+                if (cluster > 0) {
+                    // from each slot of the cluster to the closing empty slot
+                    missProbes += (long) cluster * (cluster + 3) / 2;
+                    clusters++;
+                    longestCluster = Math.max(longestCluster, cluster);
+                    cluster = 0;
+                }
+                missProbes++;
+            } else {
+                final int displacement = (idx - map.hash(e.getKey())) & mask;
+                displacements += displacement;
+                maxDisplacement = Math.max(maxDisplacement, displacement);
+                size++;
+                cluster++;
+            }
+        }
+        if (cluster > 0) {
+            // the table is full
+            clusters = 1;
+            longestCluster = cluster;
+            missProbes = (long) cluster * (cluster + 1) / 2;
+        }
+        final int[] histogram = new int[size == 0 ? 0 : maxDisplacement + 1];
+        for (int idx = 0; idx < capacity; idx++) {
+            final Map.Entry<?, ?> e = array[idx];
+            if (e != null) {
+                final int displacement = (idx - map.hash(e.getKey())) & mask;
+                // the map could have been modified since the first pass
+                if (displacement < histogram.length) {
+                    histogram[displacement]++;
+                }
+            }
+        }
+        return new TableStats(size, capacity,
+                size == 0 ? 0 : 1 + displacements / (double) size,
+                size == 0 ? 0 : maxDisplacement + 1,
+                missProbes / (double) capacity,
+                clusters, longestCluster, histogram);
+    }
+
+    private TableStats(int size, int capacity, double averageProbeLength, int maxProbeLength,
+            double averageMissProbeLength, int clusters, int longestCluster,
+            int[] displacementHistogram) {
+        this.size = size;
+        this.capacity = capacity;
+        this.averageProbeLength = averageProbeLength;
+        this.maxProbeLength = maxProbeLength;
+        this.averageMissProbeLength = averageMissProbeLength;
+        this.clusters = clusters;
+        this.longestCluster = longestCluster;
+        this.displacementHistogram = displacementHistogram;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /** @return the number of slots of the table */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public double getLoadFactor() {
+        return capacity == 0 ? 0 : size / (double) capacity;
+    }
+
+    /** @return the average number of slots checked to find a key contained in the map */
+    public double getAverageProbeLength() {
+        return averageProbeLength;
+    }
+
+    /** @return the maximum number of slots checked to find a key contained in the map */
+    public int getMaxProbeLength() {
+        return maxProbeLength;
+    }
+
+    /**
+     * @return the average number of slots checked to find a missing key (assuming its hash is
+     *         uniformly distributed)
+     */
+    public double getAverageMissProbeLength() {
+        return averageMissProbeLength;
+    }
+
+    /** @return the number of runs of consecutive occupied slots */
+    public int getClusters() {
+        return clusters;
+    }
+
+    /** @return the length of the longest run of consecutive occupied slots */
+    public int getLongestCluster() {
+        return longestCluster;
+    }
+
+    /** @return the number of entries by displacement from their home slot */
+    public int getDisplacementCount(int displacement) {
+        return displacement < displacementHistogram.length ?
+                displacementHistogram[displacement] : 0;
+    }
+
+    /** @return a copy of the number of entries by displacement from their home slot */
+    public int[] getDisplacementHistogram() {
+        return displacementHistogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "TableStats{" +
+                "size=" + size +
+                ", capacity=" + capacity +
+                ", loadFactor=" + getLoadFactor() +
+                ", averageProbeLength=" + averageProbeLength +
+                ", maxProbeLength=" + maxProbeLength +
+                ", averageMissProbeLength=" + averageMissProbeLength +
+                ", clusters=" + clusters +
+                ", longestCluster=" + longestCluster +
+                ", displacementHistogram=" + Arrays.toString(displacementHistogram) +
+                '}';
+    }
+}
@@ -12,6 +12,7 @@ import java.util.Map;
  * @param <V>
  */
 public class UnmodifiableTableMap<K, V> extends VieweableMap<K, V> {
+    private static final long serialVersionUID = 1L;
 
     protected UnmodifiableTableMap() {
         super();
@@ -1,6 +1,10 @@
 package com.fillumina.collections;
 
 import com.fillumina.collections.AbstractEntryMap.InternalState;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.List;
@@ -15,7 +19,9 @@ import java.util.Map;
  */
 public class VieweableMap<K, V>
         extends AbstractEntryMap<K, V, SimpleImmutableEntry<K, V>, VieweableMap<K, V>,
-        InternalState<SimpleImmutableEntry<K,V>>> {
+        InternalState<SimpleImmutableEntry<K,V>>>
+        implements Serializable {
+    private static final long serialVersionUID = 1L;
 
     // cache the view
     private transient UnmodifiableTableMap<K, V> readOnlyView;
@@ -83,4 +89,13 @@ public class VieweableMap<K, V>
         return new VieweableMap<K, V>(this);
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        writeEntries(out);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        readEntries(in);
+    }
 }
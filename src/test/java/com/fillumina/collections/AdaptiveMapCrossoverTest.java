@@ -0,0 +1,89 @@
+package com.fillumina.collections;
+
+import java.util.Map;
+import java.util.function.IntFunction;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Measures the size from which {@link TableMap} lookups are faster than {@link ArrayMap} ones,
+ * used to choose {@link AdaptiveMap#DEFAULT_PROMOTE_THRESHOLD}. It takes some seconds so it
+ * runs only if requested:
+ * <pre>
+ * mvn test -Dtest=AdaptiveMapCrossoverTest -Dcrossover=true
+ * </pre>
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+@EnabledIfSystemProperty(named = "crossover", matches = "true")
+public class AdaptiveMapCrossoverTest {
+    private static final int MAX_SIZE = 32;
+    private static final int LOOKUPS = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    // prevents the JIT from removing the lookups
+    private static int sink;
+
+    @Test
+    public void shouldMeasureTheCrossoverWithIntegerKeys() {
+        final int crossover = measure("Integer", i -> i * 31);
+        assertTrue(crossover > 1);
+    }
+
+    @Test
+    public void shouldMeasureTheCrossoverWithStringKeys() {
+        // keys sharing a prefix make equals() more expensive
+        final int crossover = measure("String", i -> "translation.key." + i);
+        assertTrue(crossover > 1);
+    }
+
+    /** @return the smallest size from which the table is always faster */
+    private static int measure(String name, IntFunction<Object> keyFactory) {
+        // warms up both maps on all the sizes before measuring
+        for (int size = 1; size <= MAX_SIZE; size++) {
+            time(new ArrayMap<>(), keyFactory, size);
+            time(new TableMap<>(), keyFactory, size);
+        }
+        System.out.println(name + " keys: size, ArrayMap ns, TableMap ns (per lookup)");
+        int crossover = MAX_SIZE + 1;
+        for (int size = MAX_SIZE; size >= 1; size--) {
+            long array = Long.MAX_VALUE;
+            long table = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                array = Math.min(array, time(new ArrayMap<>(), keyFactory, size));
+                table = Math.min(table, time(new TableMap<>(), keyFactory, size));
+            }
+            System.out.printf("%4d %8.2f %8.2f%n", size,
+                    array / (double) LOOKUPS, table / (double) LOOKUPS);
+            if (table < array && crossover == size + 1) {
+                crossover = size;
+            }
+        }
+        System.out.println(name + " keys crossover: " + crossover);
+        return crossover;
+    }
+
+    /** @return the nanoseconds taken by the lookups */
+    private static long time(Map<Object, Object> map, IntFunction<Object> keyFactory,
+            int size) {
+        for (int i = 0; i < size; i++) {
+            map.put(keyFactory.apply(i), i);
+        }
+        // equal but not identical keys as it would be with keys coming from outside
+        final Object[] lookups = new Object[size];
+        for (int i = 0; i < size; i++) {
+            lookups[i] = keyFactory.apply(i);
+        }
+        int found = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (map.get(lookups[i % size]) != null) {
+                found++;
+            }
+        }
+        final long time = System.nanoTime() - start;
+        sink += found;
+        return time;
+    }
+}
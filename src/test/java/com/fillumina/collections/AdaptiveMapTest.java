@@ -0,0 +1,195 @@
+package com.fillumina.collections;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class AdaptiveMapTest {
+
+    @Test
+    public void shouldPromoteAndDemoteWithHysteresis() {
+        AdaptiveMap<Integer,String> map = new AdaptiveMap<>(4, 2);
+        for (int i = 0; i < 4; i++) {
+            map.put(i, "v" + i);
+        }
+        assertFalse(map.isHashed());
+
+        map.put(4, "v4");
+        assertTrue(map.isHashed());
+
+        map.remove(4);
+        map.remove(3);
+        assertTrue(map.isHashed(), "should not demote between thresholds");
+
+        map.remove(2);
+        assertTrue(map.isHashed());
+
+        map.remove(1);
+        assertFalse(map.isHashed());
+
+        assertEquals(1, map.size());
+        assertEquals("v0", map.get(0));
+    }
+
+    @Test
+    public void shouldDemoteAfterEveryRemoval() {
+        AdaptiveMap<Integer,String> map = hashedMap();
+        map.entrySet().remove(new AbstractMap.SimpleEntry<>(4, "v4"));
+        assertTrue(map.isHashed());
+        map.entrySet().remove(new AbstractMap.SimpleEntry<>(3, "v3"));
+        assertFalse(map.isHashed());
+
+        map = hashedMap();
+        map.keySet().remove(4);
+        map.keySet().remove(3);
+        assertFalse(map.isHashed());
+
+        map = hashedMap();
+        map.values().remove("v4");
+        map.values().remove("v3");
+        assertFalse(map.isHashed());
+
+        map = hashedMap();
+        map.keySet().removeIf(k -> k > 0);
+        assertFalse(map.isHashed());
+        assertEquals(1, map.size());
+
+        map = hashedMap();
+        map.values().retainAll(Arrays.asList("v0", "v1"));
+        assertFalse(map.isHashed());
+        assertEquals(2, map.size());
+
+        map = hashedMap();
+        Iterator<Map.Entry<Integer,String>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getKey() != 3) {
+                iterator.remove();
+            }
+        }
+        assertFalse(map.isHashed());
+        assertEquals("v3", map.get(3));
+        assertEquals(1, map.size());
+    }
+
+    /** @return a hashed map that gets demoted by removing two entries */
+    private static AdaptiveMap<Integer,String> hashedMap() {
+        AdaptiveMap<Integer,String> map = new AdaptiveMap<>(4, 4);
+        for (int i = 0; i < 5; i++) {
+            map.put(i, "v" + i);
+        }
+        assertTrue(map.isHashed());
+        return map;
+    }
+
+    @Test
+    public void shouldPromoteOnPutAll() {
+        Map<Integer,String> other = new HashMap<>();
+        for (int i = 0; i < 10; i++) {
+            other.put(i, "v" + i);
+        }
+        AdaptiveMap<Integer,String> map = new AdaptiveMap<>(4);
+        map.put(100, "v100");
+        map.putAll(other);
+
+        assertTrue(map.isHashed());
+        assertEquals(11, map.size());
+        assertEquals("v100", map.get(100));
+        assertEquals("v9", map.get(9));
+    }
+
+    @Test
+    public void shouldRejectInvalidThresholds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveMap<>(2, 4));
+    }
+
+    @Test
+    public void shouldCloneBothLayouts() {
+        AdaptiveMap<Integer,String> small = new AdaptiveMap<>();
+        small.put(1, "one");
+        AdaptiveMap<Integer,String> large = new AdaptiveMap<>();
+        for (int i = 0; i < 100; i++) {
+            large.put(i, "v" + i);
+        }
+
+        AdaptiveMap<Integer,String> smallClone = small.clone();
+        AdaptiveMap<Integer,String> largeClone = large.clone();
+
+        assertFalse(smallClone.isHashed());
+        assertTrue(largeClone.isHashed());
+        assertEquals(small, smallClone);
+        assertEquals(large, largeClone);
+
+        smallClone.put(2, "two");
+        largeClone.remove(0);
+        assertEquals(1, small.size());
+        assertEquals(100, large.size());
+    }
+
+    @Test
+    public void shouldCreateImmutableCloneOfBothLayouts() {
+        AdaptiveMap<Integer,String> small = new AdaptiveMap<>();
+        small.put(1, "one");
+        AdaptiveMap<Integer,String> large = new AdaptiveMap<>();
+        for (int i = 0; i < 100; i++) {
+            large.put(i, "v" + i);
+        }
+
+        AdaptiveMap<Integer,String> smallImmutable = small.immutable();
+        AdaptiveMap<Integer,String> largeImmutable = large.immutable();
+
+        assertFalse(smallImmutable.isHashed());
+        assertTrue(largeImmutable.isHashed());
+        assertTrue(smallImmutable.immutable() == smallImmutable);
+        assertTrue(new ImmutableAdaptiveMap<>(largeImmutable).isHashed());
+
+        small.put(2, "two");
+        large.remove(0);
+        assertEquals(1, smallImmutable.size());
+        assertEquals(100, largeImmutable.size());
+
+        assertThrows(UnsupportedOperationException.class, () -> smallImmutable.put(3, "three"));
+        assertThrows(UnsupportedOperationException.class, () -> largeImmutable.remove(1));
+        assertThrows(UnsupportedOperationException.class,
+                () -> largeImmutable.entrySet().iterator().next().setValue("x"));
+    }
+
+    @Test
+    public void shouldKeepEntrySetViewAcrossMigrations() {
+        AdaptiveMap<Integer,String> map = new AdaptiveMap<>(2);
+        Map<Integer,String> copy = new HashMap<>();
+        java.util.Set<Map.Entry<Integer,String>> entrySet = map.entrySet();
+        for (int i = 0; i < 10; i++) {
+            map.put(i, "v" + i);
+            copy.put(i, "v" + i);
+        }
+        assertEquals(10, entrySet.size());
+        assertEquals(copy, map);
+
+        map.clear();
+        assertTrue(entrySet.isEmpty());
+        assertFalse(map.isHashed());
+    }
+
+    @Test
+    public void shouldBuildMap() {
+        AdaptiveMap<Integer,String> map = AdaptiveMap.<Integer,String>builder()
+                .put(1, "one")
+                .put(2, "two")
+                .build();
+
+        assertEquals(2, map.size());
+        assertEquals("one", map.get(1));
+        assertEquals("two", map.get(2));
+    }
+}
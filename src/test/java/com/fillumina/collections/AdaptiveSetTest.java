@@ -0,0 +1,152 @@
+package com.fillumina.collections;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class AdaptiveSetTest {
+
+    @Test
+    public void shouldPromoteAndDemoteWithHysteresis() {
+        AdaptiveSet<Integer> set = new AdaptiveSet<>();
+        for (int i = 0; i < AdaptiveSet.PROMOTE_THRESHOLD; i++) {
+            set.add(i);
+        }
+        assertFalse(set.isHashed());
+
+        set.add(AdaptiveSet.PROMOTE_THRESHOLD);
+        assertTrue(set.isHashed());
+
+        for (int i = AdaptiveSet.PROMOTE_THRESHOLD; i >= AdaptiveSet.DEMOTE_THRESHOLD; i--) {
+            set.remove(i);
+            assertTrue(set.isHashed(), "should not demote between thresholds");
+        }
+
+        set.remove(AdaptiveSet.DEMOTE_THRESHOLD - 1);
+        assertFalse(set.isHashed());
+
+        assertEquals(AdaptiveSet.DEMOTE_THRESHOLD - 1, set.size());
+        for (int i = 0; i < AdaptiveSet.DEMOTE_THRESHOLD - 1; i++) {
+            assertTrue(set.contains(i));
+        }
+    }
+
+    @Test
+    public void shouldPromoteOnAddAll() {
+        AdaptiveSet<Integer> set = new AdaptiveSet<>(100, 101);
+        Set<Integer> other = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            other.add(i);
+        }
+        set.addAll(other);
+
+        assertTrue(set.isHashed());
+        assertEquals(102, set.size());
+        assertTrue(set.contains(99));
+        assertTrue(set.contains(101));
+        assertFalse(set.contains(102));
+    }
+
+    @Test
+    public void shouldNotStayHashedWhenAddingDuplicates() {
+        AdaptiveSet<Integer> set = new AdaptiveSet<>(1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 2);
+
+        assertFalse(set.isHashed());
+        assertEquals(2, set.size());
+        assertEquals(new HashSet<>(Arrays.asList(1, 2)), set);
+    }
+
+    @Test
+    public void shouldPromoteOnTheDistinctElementsOfABulkInsertion() {
+        Integer[] duplicates = new Integer[1000];
+        for (int i = 0; i < duplicates.length; i++) {
+            duplicates[i] = i % 5;
+        }
+        AdaptiveSet<Integer> set = new AdaptiveSet<>(duplicates);
+        assertFalse(set.isHashed());
+        assertEquals(5, set.size());
+
+        set = new AdaptiveSet<>();
+        set.addAll(Arrays.asList(duplicates));
+        assertFalse(set.isHashed());
+        assertEquals(5, set.size());
+
+        for (int i = 0; i < duplicates.length; i++) {
+            duplicates[i] = i % 20;
+        }
+        set = new AdaptiveSet<>();
+        set.addAll(Arrays.asList(duplicates));
+        AdaptiveSet<Integer> distinct = new AdaptiveSet<>();
+        distinct.addAll(Arrays.asList(Arrays.copyOf(duplicates, 20)));
+        assertTrue(set.isHashed());
+        assertEquals(distinct, set);
+        // the table is trimmed to the distinct elements
+        assertEquals(MemoryFootprint.retainedBytes(distinct), MemoryFootprint.retainedBytes(set));
+    }
+
+    @Test
+    public void shouldRemoveWithIteratorWhenHashed() {
+        AdaptiveSet<Integer> set = new AdaptiveSet<>();
+        for (int i = 0; i < 50; i++) {
+            set.add(i);
+        }
+
+        int count = 0;
+        Iterator<Integer> it = set.iterator();
+        while (it.hasNext()) {
+            Integer i = it.next();
+            count++;
+            if (i % 2 == 0) {
+                it.remove();
+            }
+        }
+
+        assertEquals(50, count);
+        assertEquals(25, set.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i % 2 == 1, set.contains(i));
+        }
+    }
+
+    @Test
+    public void shouldMaintainInsertionOrderWhileUsingArray() {
+        AdaptiveSet<String> set = new AdaptiveSet<>("c", "a", "b");
+
+        assertEquals("[c, a, b]", set.toString());
+    }
+
+    @Test
+    public void shouldNotAcceptNull() {
+        AdaptiveSet<String> set = new AdaptiveSet<>();
+
+        assertThrows(IllegalArgumentException.class, () -> set.add(null));
+    }
+
+    @Test
+    public void shouldCreateAnIndependentImmutableClone() {
+        AdaptiveSet<Integer> set = new AdaptiveSet<>();
+        for (int i = 0; i < 20; i++) {
+            set.add(i);
+        }
+
+        ImmutableAdaptiveSet<Integer> immutable = set.immutable();
+        set.remove(0);
+
+        assertTrue(immutable.isHashed());
+        assertEquals(20, immutable.size());
+        assertTrue(immutable.contains(0));
+        assertSame(immutable, immutable.immutable());
+        assertThrows(UnsupportedOperationException.class, () -> immutable.add(100));
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Map;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
@@ -382,4 +383,37 @@ public class ArrayMapTest extends AbstractArrayMapTestHelper {
         arrayMap.assertEntry("k3", "v3");
     }
 
+    @Test
+    public void shouldUseFingerprintsToAvoidEqualsWhenUpdating() {
+        ArrayMap<Utils.CountingKey,Integer> map = new ArrayMap<>();
+        map.withFingerprints();
+        for (int i = 0; i < 10; i++) {
+            map.put(new Utils.CountingKey("key" + i), i);
+        }
+
+        Utils.CountingKey.equalsCalls = 0;
+        assertEquals(7, map.put(new Utils.CountingKey("key7"), 70));
+        assertNull(map.put(new Utils.CountingKey("key10"), 10));
+        assertEquals(3, map.remove(new Utils.CountingKey("key3")));
+        assertNull(map.remove(new Utils.CountingKey("missing")));
+        assertEquals(70, map.immutable().get(new Utils.CountingKey("key7")));
+        assertTrue(Utils.CountingKey.equalsCalls < 5);
+        assertEquals(10, map.size());
+    }
+
+    @Test
+    public void shouldKeepFingerprintsAfterSorting() {
+        ArrayMap<String,Integer> map = new ArrayMap<String,Integer>(
+                "c", 3, "a", 1, "b", 2).withFingerprints();
+        map.sortByKeys((a, b) -> a.compareTo(b));
+        assertEquals("a", map.getKeyAtIndex(0));
+        assertEquals(1, map.get("a"));
+        assertEquals(2, map.get("b"));
+        assertEquals(3, map.get("c"));
+
+        map.clear();
+        assertNull(map.get("a"));
+        map.put("d", 4);
+        assertEquals(4, map.get("d"));
+    }
 }
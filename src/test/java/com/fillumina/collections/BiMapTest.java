@@ -2,6 +2,7 @@ package com.fillumina.collections;
 
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -489,4 +490,103 @@ public class BiMapTest {
         });
 
     }
+
+    private static Map<String, Integer> conflicting() {
+        final Map<String, Integer> map = new LinkedHashMap<>();
+        map.put("four", 4);
+        map.put("uno", 1);      // value already mapped to "one"
+        map.put("five", 5);
+        return map;
+    }
+
+    private static BiMap<String, Integer> oneTwoThree() {
+        final BiMap<String, Integer> biMap = new BiMap<>();
+        biMap.put("one", 1);
+        biMap.put("two", 2);
+        biMap.put("three", 3);
+        return biMap;
+    }
+
+    @Test
+    public void testPutAllOverwrite() {
+        final BiMap<String, Integer> biMap = oneTwoThree();
+        biMap.putAll(conflicting(), BiMap.ConflictPolicy.OVERWRITE);
+
+        assertEquals(5, biMap.size());
+        assertEquals(5, biMap.inverse().size());
+        assertFalse(biMap.containsKey("one"));
+        assertEquals(1, biMap.get("uno"));
+        assertEquals("uno", biMap.inverse().get(1));
+        assertEquals("four", biMap.inverse().get(4));
+        assertEquals("five", biMap.inverse().get(5));
+    }
+
+    @Test
+    public void testPutAllSkip() {
+        final BiMap<String, Integer> biMap = oneTwoThree();
+        biMap.putAll(conflicting(), BiMap.ConflictPolicy.SKIP);
+
+        assertEquals(5, biMap.size());
+        assertEquals(5, biMap.inverse().size());
+        assertFalse(biMap.containsKey("uno"));
+        assertEquals(1, biMap.get("one"));
+        assertEquals("one", biMap.inverse().get(1));
+        assertEquals(4, biMap.get("four"));
+        assertEquals(5, biMap.get("five"));
+    }
+
+    @Test
+    public void testPutAllFailRollsBack() {
+        final BiMap<String, Integer> biMap = oneTwoThree();
+        final Map<String, Integer> copy = new HashMap<>(biMap);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> biMap.putAll(conflicting(), BiMap.ConflictPolicy.FAIL));
+
+        assertEquals(copy, biMap);
+        assertEquals(3, biMap.inverse().size());
+        assertFalse(biMap.containsKey("four"));
+        assertFalse(biMap.inverse().containsKey(4));
+    }
+
+    @Test
+    public void testPutAllFailAcceptsExistingPairs() {
+        final BiMap<String, Integer> biMap = oneTwoThree();
+        final Map<String, Integer> map = new HashMap<>();
+        map.put("one", 1);
+        map.put("four", 4);
+
+        biMap.putAll(map, BiMap.ConflictPolicy.FAIL);
+
+        assertEquals(4, biMap.size());
+        assertEquals("four", biMap.inverse().get(4));
+    }
+
+    @Test
+    public void testPutAllResizesOnce() {
+        final Map<Integer, String> map = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "v" + i);
+        }
+        final BiMap<Integer, String> biMap = new BiMap<>();
+        biMap.put(-1, "x");
+        biMap.putAll(map, BiMap.ConflictPolicy.FAIL);
+
+        assertEquals(1001, biMap.size());
+        assertEquals(1001, biMap.inverse().size());
+        // a single table at most half full
+        assertEquals(2048, biMap.tableStats().getCapacity());
+        assertEquals(2048, biMap.inverse().tableStats().getCapacity());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("v" + i, biMap.get(i));
+            assertEquals(i, biMap.inverse().get("v" + i));
+        }
+    }
+
+    @Test
+    public void testPutAllReadOnly() {
+        final BiMap<String, Integer> biMap = oneTwoThree().immutableView();
+        assertThrows(UnsupportedOperationException.class,
+                () -> biMap.putAll(conflicting(), BiMap.ConflictPolicy.SKIP));
+    }
 }
@@ -0,0 +1,116 @@
+package com.fillumina.collections;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class CollectionEventsTest {
+    private static final String RESIZE = "com.fillumina.collections.Resize";
+    private static final String COPY = "com.fillumina.collections.Copy";
+    private static final String EVICTION = "com.fillumina.collections.Eviction";
+
+    @TempDir
+    Path dir;
+
+    private List<RecordedEvent> record(boolean enabled, Runnable runnable) throws IOException {
+        final Path file = dir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            if (enabled) {
+                recording.enable(RESIZE);
+                recording.enable(COPY);
+                recording.enable(EVICTION);
+            }
+            recording.start();
+            runnable.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("com.fillumina"))
+                .collect(Collectors.toList());
+    }
+
+    private static List<RecordedEvent> filter(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void shouldBeDisabledByDefault() throws IOException {
+        List<RecordedEvent> events = record(false, () -> {
+            TableMap<Integer, Integer> map = new TableMap<>();
+            for (int i = 0; i < 100; i++) {
+                map.put(i, i);
+            }
+        });
+
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void shouldRecordResizes() throws IOException {
+        List<RecordedEvent> events = filter(record(true, () -> {
+            TableMap<Integer, Integer> map = new TableMap<>();
+            for (int i = 0; i < 100; i++) {
+                map.put(i, i);
+            }
+        }), RESIZE);
+
+        assertFalse(events.isEmpty());
+        RecordedEvent last = events.get(events.size() - 1);
+        assertEquals(TableMap.class.getName(), last.getClass("containerClass").getName());
+        assertEquals(2 * last.getInt("oldTableSize"), last.getInt("newTableSize"));
+        assertTrue(last.getLong("bytes") > 0);
+    }
+
+    @Test
+    public void shouldRecordCopies() throws IOException {
+        List<RecordedEvent> events = filter(record(true, () -> {
+            CopyOnWriteMap<Integer, Integer> map = new CopyOnWriteMap<>(8);
+            map.put(1, 1);
+            map.put(2, 2);
+
+            TableMap<Integer, Integer> tableMap = new TableMap<>(8);
+            tableMap.put(1, 1);
+            tableMap.immutable();
+            tableMap.put(2, 2);
+        }), COPY);
+
+        assertEquals(3, events.size());
+        assertEquals(CopyOnWriteMap.class.getName(),
+                events.get(0).getClass("containerClass").getName());
+        assertEquals(16, events.get(0).getInt("tableSize"));
+        assertEquals(16 + 16 * 4, events.get(0).getLong("bytes"));
+        assertEquals(TableMap.class.getName(),
+                events.get(2).getClass("containerClass").getName());
+        assertEquals(1, events.get(2).getInt("size"));
+    }
+
+    @Test
+    public void shouldRecordEvictions() throws IOException {
+        List<RecordedEvent> events = filter(record(true, () -> {
+            CopyOnWriteCache<Integer, Integer> cache = new CopyOnWriteCache<>(4);
+            for (int i = 0; i < 20; i++) {
+                cache.put(i, i);
+            }
+        }), EVICTION);
+
+        assertFalse(events.isEmpty());
+        assertEquals(CopyOnWriteCache.class.getName(),
+                events.get(0).getClass("containerClass").getName());
+    }
+}
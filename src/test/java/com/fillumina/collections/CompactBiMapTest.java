@@ -0,0 +1,185 @@
+package com.fillumina.collections;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class CompactBiMapTest {
+
+    @Test
+    public void shouldAccessBothDirections() {
+        CompactBiMap<String, Integer> map = new CompactBiMap<>();
+        map.put("one", 1);
+        map.put("two", 2);
+
+        assertEquals(2, map.get("two"));
+        assertEquals("two", map.inverse().get(2));
+        assertEquals("one", map.getKey(1));
+        assertTrue(map.containsValue(1));
+        assertTrue(map.inverse() == map.inverse());
+        assertTrue(map == map.inverse().inverse());
+    }
+
+    @Test
+    public void shouldRemoveThePreviousMappingOfTheValue() {
+        CompactBiMap<String, Integer> map = new CompactBiMap<>();
+        map.put("one", 1);
+        map.put("two", 2);
+
+        map.put("uno", 1);
+
+        assertEquals(2, map.size());
+        assertNull(map.get("one"));
+        assertEquals("uno", map.inverse().get(1));
+        assertEquals(2, map.inverse().size());
+    }
+
+    @Test
+    public void shouldReplaceTheValueOfAKey() {
+        CompactBiMap<String, Integer> map = new CompactBiMap<>();
+        map.put("one", 1);
+        map.put("two", 2);
+
+        assertEquals(1, map.put("one", 11));
+        assertNull(map.inverse().get(1));
+        assertEquals("one", map.inverse().get(11));
+
+        // both the key and the value are already present in different pairs
+        assertEquals(11, map.put("one", 2));
+        assertEquals(1, map.size());
+        assertEquals("one", map.inverse().get(2));
+        assertNull(map.get("two"));
+    }
+
+    @Test
+    public void shouldModifyThroughTheInverse() {
+        CompactBiMap<String, Integer> map = new CompactBiMap<>();
+        map.inverse().put(1, "one");
+        map.inverse().put(2, "two");
+
+        map.inverse().remove(1);
+
+        assertEquals(1, map.size());
+        assertEquals(2, map.get("two"));
+        assertFalse(map.containsKey("one"));
+    }
+
+    @Test
+    public void shouldRejectADuplicatedValueFromEntrySetValue() {
+        CompactBiMap<String, Integer> map = new CompactBiMap<>();
+        map.put("one", 1);
+        map.put("two", 2);
+
+        Map.Entry<String, Integer> entry = map.entrySet().iterator().next();
+
+        assertThrows(IllegalArgumentException.class, () -> entry.setValue(2));
+        assertEquals(1, entry.setValue(10));
+        assertEquals(10, map.get("one"));
+        assertEquals("one", map.inverse().get(10));
+    }
+
+    @Test
+    public void shouldRemoveWhileIterating() {
+        CompactBiMap<Integer, String> map = new CompactBiMap<>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "" + i);
+        }
+
+        int count = 0;
+        for (Iterator<Integer> it = map.keySet().iterator(); it.hasNext();) {
+            Integer key = it.next();
+            count++;
+            if (key % 2 == 0) {
+                it.remove();
+            }
+        }
+
+        assertEquals(100, count);
+        assertEquals(50, map.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i % 2 == 0 ? null : "" + i, map.get(i));
+            assertEquals(i % 2 == 0 ? null : i, map.inverse().get("" + i));
+        }
+    }
+
+    @Test
+    public void shouldBehaveAsTwoMapsWithRandomOperations() {
+        CompactBiMap<Integer, Integer> map = new CompactBiMap<>();
+        Map<Integer, Integer> forward = new HashMap<>();
+        Map<Integer, Integer> backward = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            final int key = random.nextInt(500);
+            final int value = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(forward.get(key), map.remove(key));
+                Integer removed = forward.remove(key);
+                if (removed != null) {
+                    backward.remove(removed);
+                }
+            } else {
+                Integer prevKey = backward.get(value);
+                if (prevKey != null) {
+                    forward.remove(prevKey);
+                }
+                Integer prevValue = forward.put(key, value);
+                if (prevValue != null) {
+                    backward.remove(prevValue);
+                }
+                backward.put(value, key);
+                map.put(key, value);
+            }
+        }
+        assertEquals(forward, map);
+        assertEquals(backward, map.inverse());
+    }
+
+    @Test
+    public void shouldAcceptNulls() {
+        CompactBiMap<String, Integer> map = new CompactBiMap<>();
+        map.put(null, 1);
+        map.put("two", null);
+
+        assertEquals(1, map.get(null));
+        assertEquals("two", map.inverse().get(null));
+        assertTrue(map.containsKey(null));
+        assertTrue(map.inverse().containsKey(null));
+    }
+
+    @Test
+    public void shouldUseLessMemoryThanBiMap() {
+        Map<Integer, String> source = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            source.put(i, "" + i);
+        }
+
+        double compact = MemoryFootprint.bytesPerEntry(new CompactBiMap<>(source));
+        double biMap = MemoryFootprint.bytesPerEntry(new BiMap<>(source));
+
+        assertTrue(compact * 2 < biMap, compact + " vs " + biMap);
+    }
+
+    @Test
+    public void shouldClear() {
+        CompactBiMap<String, Integer> map = new CompactBiMap<>();
+        map.put("one", 1);
+
+        map.inverse().clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get("one"));
+        map.put("one", 1);
+        assertEquals(1, map.get("one"));
+    }
+}
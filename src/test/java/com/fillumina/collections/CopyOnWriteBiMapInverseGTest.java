@@ -0,0 +1,19 @@
+package com.fillumina.collections;
+
+import java.util.Map;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class CopyOnWriteBiMapInverseGTest extends GenericMapTest {
+
+    @Override
+    protected <K extends Comparable<K>, V extends Comparable<V>> Map<K, V> create(Map<K, V> m) {
+        CopyOnWriteBiMap<V, K> reversedMap = new CopyOnWriteBiMap<>();
+        Map<K, V> map = reversedMap.inverse();
+        map.putAll(m);
+        return map;
+    }
+
+}
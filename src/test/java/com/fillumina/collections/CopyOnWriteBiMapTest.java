@@ -0,0 +1,156 @@
+package com.fillumina.collections;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class CopyOnWriteBiMapTest {
+
+    @Test
+    public void shouldModifyBothDirections() {
+        CopyOnWriteBiMap<String, Integer> map = new CopyOnWriteBiMap<>();
+        map.put("one", 1);
+        map.inverse().put(2, "two");
+
+        assertEquals(2, map.get("two"));
+        assertEquals("one", map.inverse().get(1));
+        assertEquals("one", map.getKey(1));
+
+        map.put("uno", 1);
+
+        assertNull(map.get("one"));
+        assertEquals("uno", map.inverse().get(1));
+        assertEquals(2, map.inverse().size());
+    }
+
+    @Test
+    public void shouldNotChangeTheSnapshot() {
+        CopyOnWriteBiMap<String, Integer> map = new CopyOnWriteBiMap<>();
+        map.put("one", 1);
+
+        CopyOnWriteBiMap<String, Integer> snapshot = map.snapshot();
+        map.put("two", 2);
+        map.remove("one");
+
+        assertEquals(1, snapshot.size());
+        assertEquals(1, snapshot.get("one"));
+        assertEquals("one", snapshot.inverse().get(1));
+        assertTrue(snapshot.isReadOnly());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put("three", 3));
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.inverse().remove(1));
+    }
+
+    @Test
+    public void shouldApplyABatchOfModifications() {
+        CopyOnWriteBiMap<String, Integer> map = new CopyOnWriteBiMap<>();
+        map.put("one", 1);
+        CopyOnWriteBiMap<String, Integer> before = map.snapshot();
+
+        map.update(m -> {
+            m.put("two", 2);
+            m.put("three", 3);
+            m.remove("one");
+        });
+
+        assertEquals(1, before.size());
+        assertEquals(2, map.size());
+        assertEquals("three", map.inverse().get(3));
+    }
+
+    @Test
+    public void shouldIterateOverTheStateAtCreation() {
+        CopyOnWriteBiMap<String, Integer> map = new CopyOnWriteBiMap<>();
+        map.put("one", 1);
+        map.put("two", 2);
+
+        Iterator<Map.Entry<String, Integer>> it = map.entrySet().iterator();
+        map.put("three", 3);
+        int count = 0;
+        while (it.hasNext()) {
+            Map.Entry<String, Integer> e = it.next();
+            count++;
+            if (e.getKey().equals("one")) {
+                it.remove();
+            }
+        }
+
+        assertEquals(2, count);
+        assertEquals(2, map.size());
+        assertFalse(map.containsKey("one"));
+        assertFalse(map.inverse().containsKey(1));
+    }
+
+    @Test
+    public void shouldSetTheValueOfAnEntry() {
+        CopyOnWriteBiMap<String, Integer> map = new CopyOnWriteBiMap<>();
+        map.put("one", 1);
+
+        map.entrySet().iterator().next().setValue(11);
+
+        assertEquals(11, map.get("one"));
+        assertEquals("one", map.inverse().get(11));
+    }
+
+    @Test
+    public void shouldAlwaysReadConsistentDirections() throws InterruptedException {
+        final int size = 100;
+        CopyOnWriteBiMap<Integer, Integer> map = new CopyOnWriteBiMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(i, i);
+        }
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<String> error = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            for (int round = 1; round < 2000; round++) {
+                final int offset = round * size;
+                // shifts all the values in a single new state
+                map.update(m -> {
+                    for (int i = 0; i < size; i++) {
+                        m.put(i, offset + i);
+                    }
+                });
+            }
+            stop.set(true);
+        });
+        Runnable reader = () -> {
+            while (!stop.get()) {
+                CopyOnWriteBiMap<Integer, Integer> snapshot = map.snapshot();
+                if (snapshot.size() != size) {
+                    error.set("wrong size " + snapshot.size());
+                }
+                final int offset = snapshot.get(0);
+                for (int i = 0; i < size; i++) {
+                    Integer value = snapshot.get(i);
+                    if (value == null || value != offset + i ||
+                            !Integer.valueOf(i).equals(snapshot.inverse().get(value))) {
+                        error.set("inconsistent key " + i + " value " + value);
+                    }
+                }
+            }
+        };
+        Thread reader1 = new Thread(reader);
+        Thread reader2 = new Thread(reader);
+        reader1.start();
+        reader2.start();
+        writer.start();
+        writer.join();
+        reader1.join();
+        reader2.join();
+
+        assertNull(error.get());
+        assertEquals(1999 * size, map.get(0));
+    }
+}
@@ -0,0 +1,302 @@
+package com.fillumina.collections;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class DelimitedTextTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void shouldReadTheHeaderAsKeys() throws IOException {
+        Matrix<String, String> matrix = DelimitedText.read(
+                new StringReader("en\tit\none\tuno\ntwo\tdue\n"), DelimitedText.TAB, true);
+
+        assertEquals(2, matrix.rowSize());
+        assertEquals(2, matrix.colSize());
+        assertEquals(Arrays.asList("en", "it"),
+                Arrays.asList(matrix.getKeyAtColumn(0), matrix.getKeyAtColumn(1)));
+        assertEquals("due", matrix.getByKey("it", 1));
+        assertEquals(1, matrix.rowIndexOf("en", "two"));
+    }
+
+    @Test
+    public void shouldReadWithoutHeader() throws IOException {
+        Matrix<String, String> matrix = DelimitedText.read(
+                new StringReader("a,b,c\r\nd,e,f"), DelimitedText.COMMA, false);
+
+        assertTrue(matrix.getKeys().isEmpty());
+        assertEquals(Arrays.asList("a", "b", "c"), matrix.getRowAsListByIndex(0));
+        assertEquals(Arrays.asList("d", "e", "f"), matrix.getRowAsListByIndex(1));
+    }
+
+    @Test
+    public void shouldReadQuotedFields() throws IOException {
+        Matrix<String, String> matrix = DelimitedText.read(new StringReader(
+                "\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\"\n,\"\",x\n"),
+                DelimitedText.COMMA, false);
+
+        assertEquals(Arrays.asList("a,b", "say \"hi\"", "two\nlines"),
+                matrix.getRowAsListByIndex(0));
+        assertNull(matrix.get(1, 0));
+        assertEquals("", matrix.get(1, 1));
+        assertEquals("x", matrix.get(1, 2));
+    }
+
+    @Test
+    public void shouldSkipEmptyLines() throws IOException {
+        Matrix<String, String> matrix = DelimitedText.read(
+                new StringReader("\n\na\tb\n\n\nc\td\n\n"), DelimitedText.TAB, false);
+
+        assertEquals(2, matrix.rowSize());
+        assertEquals("d", matrix.get(1, 1));
+    }
+
+    @Test
+    public void shouldReadAnEmptyTable() throws IOException {
+        Matrix<String, String> matrix =
+                DelimitedText.read(new StringReader(""), DelimitedText.TAB, true);
+
+        assertEquals(0, matrix.rowSize());
+    }
+
+    @Test
+    public void shouldConvertTheFields() throws IOException {
+        Matrix<String, Integer> matrix = DelimitedText.read(
+                new StringReader("a\tb\n1\t\n3\t4\n"), DelimitedText.TAB, true,
+                Integer::valueOf);
+
+        assertNull(matrix.getByKey("b", 0));
+        assertEquals(4, matrix.getByKey("b", 1));
+        assertEquals(1, matrix.rowIndexOf("a", 3));
+    }
+
+    @Test
+    public void shouldRejectRecordsOfDifferentSize() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> DelimitedText.read(new StringReader("a\tb\n1\t2\n3\n"),
+                        DelimitedText.TAB, true));
+        assertTrue(ex.getMessage().contains("record 3"), ex.getMessage());
+    }
+
+    @Test
+    public void shouldRejectMalformedQuotes() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DelimitedText.read(new StringReader("\"abc"), ',', false));
+        assertThrows(IllegalArgumentException.class,
+                () -> DelimitedText.read(new StringReader("\"abc\"d,e"), ',', false));
+    }
+
+    @Test
+    public void shouldRejectAQuoteAsDelimiter() {
+        assertThrows(IllegalArgumentException.class,
+                () -> DelimitedText.read(new StringReader("a"), '"', false));
+    }
+
+    @Test
+    public void shouldReadFieldsBiggerThanTheBuffer() throws IOException {
+        char[] chars = new char[200_000];
+        Arrays.fill(chars, 'x');
+        String big = new String(chars);
+
+        Matrix<String, String> matrix = DelimitedText.read(
+                new StringReader("a\t" + big + "\t\"" + big + "\"\n"), DelimitedText.TAB, false);
+
+        assertEquals(big, matrix.get(0, 1));
+        assertEquals(big, matrix.get(0, 2));
+    }
+
+    @Test
+    public void shouldWriteAndReadBack() throws IOException {
+        Matrix<String, String> matrix = Matrix.<String, String>rowBuilder()
+                .keys("key", "text", "note")
+                .row("a", "plain", null)
+                .row("b", "with\ttab", "")
+                .row("c", "\"quoted\"", "multi\r\nline")
+                .build();
+
+        StringWriter writer = new StringWriter();
+        DelimitedText.write(matrix, writer, DelimitedText.TAB, true);
+
+        assertEquals("key\ttext\tnote\n" +
+                "a\tplain\t\n" +
+                "b\t\"with\ttab\"\t\"\"\n" +
+                "c\t\"\"\"quoted\"\"\"\t\"multi\r\nline\"\n", writer.toString());
+
+        Matrix<String, String> read = DelimitedText.read(
+                new StringReader(writer.toString()), DelimitedText.TAB, true);
+        assertEquals(matrix, read);
+    }
+
+    @Test
+    public void shouldWriteAndReadBackNullsOfASingleColumn() throws IOException {
+        Matrix<String, String> matrix = Matrix.<String, String>rowBuilder()
+                .keys("k")
+                .row("x")
+                .row((String) null)
+                .row("y")
+                .row((String) null)
+                .build();
+
+        StringWriter writer = new StringWriter();
+        DelimitedText.write(matrix, writer, DelimitedText.TAB, true);
+        assertEquals("k\nx\n\ny\n\n", writer.toString());
+
+        Matrix<String, String> read = DelimitedText.read(
+                new StringReader(writer.toString()), DelimitedText.TAB, true);
+        assertEquals(4, read.rowSize());
+        assertEquals(matrix, read);
+
+        Matrix<String, String> withoutHeader = DelimitedText.read(
+                new StringReader("x\r\n\r\ny\n"), DelimitedText.TAB, false);
+        assertEquals(Arrays.asList("x", null, "y"), withoutHeader.getColumnAsListByIndex(0));
+    }
+
+    @Test
+    public void shouldWriteAColumnMajorMatrix() throws IOException {
+        Matrix<String, String> matrix = Matrix.<String, String>rowBuilder()
+                .columnMajor()
+                .row("a", "b")
+                .row("c", "d")
+                .build();
+
+        StringWriter writer = new StringWriter();
+        DelimitedText.write(matrix, writer, DelimitedText.COMMA, false);
+
+        assertEquals("a,b\nc,d\n", writer.toString());
+    }
+
+    @Test
+    public void shouldNotCloseTheWriter() throws IOException {
+        boolean[] closed = new boolean[1];
+        StringWriter target = new StringWriter();
+        Writer writer = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) {
+                target.write(cbuf, off, len);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        DelimitedText.write(new IntMatrix<>(1, 2).set(0, 1, 7), writer, ',', false);
+
+        assertEquals("0,7\n", target.toString());
+        assertTrue(!closed[0]);
+    }
+
+    @Test
+    public void shouldReadAnIntMatrix() throws IOException {
+        IntMatrix<String> matrix = DelimitedText.readIntMatrix(
+                new StringReader("x,y\n1,-2\n3,4\n5,6\n"), DelimitedText.COMMA, true);
+
+        assertEquals(3, matrix.rowSize());
+        assertEquals(2, matrix.colSize());
+        assertEquals(-2, matrix.getByKey("y", 0));
+        assertArrayEquals(new int[] { 1, -2, 3, 4, 5, 6 }, matrix.toArray());
+    }
+
+    @Test
+    public void shouldReadALongMatrix() throws IOException {
+        LongMatrix<String> matrix = DelimitedText.readLongMatrix(
+                new StringReader("10000000000 2\n3 4\n"), ' ', false);
+
+        assertEquals(10_000_000_000L, matrix.get(0, 0));
+        assertEquals(4L, matrix.get(1, 1));
+    }
+
+    @Test
+    public void shouldReadADoubleMatrix() throws IOException {
+        DoubleMatrix<String> matrix = DelimitedText.readDoubleMatrix(
+                new StringReader("a;b\n1.5;-2e3\n"), ';', true);
+
+        assertEquals(1.5, matrix.getByKey("a", 0));
+        assertEquals(-2000.0, matrix.getByKey("b", 0));
+    }
+
+    @Test
+    public void shouldReportInvalidNumbers() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> DelimitedText.readIntMatrix(
+                        new StringReader("1,2\n3,x\n"), DelimitedText.COMMA, false));
+        assertTrue(ex.getMessage().contains("record 2"), ex.getMessage());
+    }
+
+    @Test
+    public void shouldWriteAndReadBackAPrimitiveMatrix() throws IOException {
+        DoubleMatrix<String> matrix = new DoubleMatrix<>(List.of("a", "b", "c"), 500);
+        for (int row = 0; row < matrix.rowSize(); row++) {
+            for (int col = 0; col < matrix.colSize(); col++) {
+                matrix.set(row, col, row / 7.0 - col);
+            }
+        }
+
+        StringWriter writer = new StringWriter();
+        DelimitedText.write(matrix, writer, DelimitedText.TAB, true);
+        DoubleMatrix<String> read = DelimitedText.readDoubleMatrix(
+                new StringReader(writer.toString()), DelimitedText.TAB, true);
+
+        assertEquals(matrix, read);
+    }
+
+    @Test
+    public void shouldReadAMappedFile() throws IOException {
+        Path file = dir.resolve("table.tsv");
+        StringBuilder buf = new StringBuilder("en\tit\n");
+        for (int i = 0; i < 100_000; i++) {
+            buf.append("word").append(i).append("\tparola è ").append(i).append('\n');
+        }
+        Files.write(file, buf.toString().getBytes(StandardCharsets.UTF_8));
+
+        Matrix<String, String> matrix = DelimitedText.read(file, DelimitedText.TAB, true);
+
+        assertEquals(100_000, matrix.rowSize());
+        assertEquals("parola è 99999", matrix.getByKey("it", 99_999));
+        assertEquals(12_345, matrix.rowIndexOf("en", "word12345"));
+    }
+
+    @Test
+    public void shouldReadAMappedFileOfNumbers() throws IOException {
+        Path file = dir.resolve("numbers.csv");
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            IntMatrix<String> matrix = new IntMatrix<>(10_000, 3);
+            matrix.forEachRow(row -> matrix.setRow(row, row, row * 2, row * 3));
+            DelimitedText.write(matrix, writer, DelimitedText.COMMA, false);
+        }
+
+        IntMatrix<String> read;
+        try (Reader reader = DelimitedText.mappedReader(file)) {
+            read = DelimitedText.readIntMatrix(reader, DelimitedText.COMMA, false);
+        }
+
+        assertEquals(10_000, read.rowSize());
+        assertEquals(3 * 9_999, read.get(9_999, 2));
+    }
+}
@@ -0,0 +1,58 @@
+package com.fillumina.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class DoubleMatrixTest {
+
+    private static DoubleMatrix<String> create(boolean columnMajor) {
+        return new DoubleMatrix<String>(Arrays.asList("A", "B", "C"), 2, columnMajor)
+                .setRow(0, 1.0, 2.0, 3.0)
+                .setRow(1, 4.0, 5.0, 6.0);
+    }
+
+    @Test
+    public void shouldAccessCells() {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            DoubleMatrix<String> mtx = create(columnMajor);
+
+            assertEquals(5.0, mtx.get(1, 1));
+            assertEquals(3.0, mtx.getByKey("C", 0));
+            assertArrayEquals(new double[] {2.0, 5.0}, mtx.getColumnByKey("B"));
+            assertArrayEquals(new double[] {4.0, 5.0, 6.0}, mtx.getRow(1));
+            assertEquals(Arrays.asList(3.0, 6.0), mtx.getColumnAsListByIndex(2));
+
+            mtx.fillColumn(0, 0.0).setByKey("B", 1, 9.0);
+            assertArrayEquals(new double[] {0.0, 2.0, 3.0, 0.0, 9.0, 6.0},
+                    mtx.toArray());
+            assertThrows(IndexOutOfBoundsException.class, () -> mtx.get(2, 0));
+        }
+    }
+
+    @Test
+    public void shouldVisitInStorageOrder() {
+        List<Double> byColumn = new ArrayList<>();
+        create(true).forEachElement(byColumn::add);
+        assertEquals(Arrays.asList(1.0, 4.0, 2.0, 5.0, 3.0, 6.0), byColumn);
+    }
+
+    @Test
+    public void shouldCompareDifferentLayouts() {
+        DoubleMatrix<String> rows = create(false);
+        DoubleMatrix<String> cols = new DoubleMatrix<>(Arrays.asList("A", "B", "C"), 2, true)
+                .copyFrom(rows);
+
+        assertEquals(rows, cols);
+        assertEquals(rows.hashCode(), cols.hashCode());
+        assertEquals(rows, cols.clone());
+    }
+}
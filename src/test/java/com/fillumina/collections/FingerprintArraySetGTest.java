@@ -0,0 +1,17 @@
+package com.fillumina.collections;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class FingerprintArraySetGTest extends GenericSetTest {
+
+    @Override
+    protected <T extends Comparable<T>> Set<T> create(Collection<T> collection) {
+        return new ArraySet<>(collection).withFingerprints();
+    }
+
+}
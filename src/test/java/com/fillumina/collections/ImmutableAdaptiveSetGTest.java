@@ -0,0 +1,22 @@
+package com.fillumina.collections;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class ImmutableAdaptiveSetGTest extends GenericSetTest {
+
+    @Override
+    protected <T extends Comparable<T>> Set<T> create(Collection<T> collection) {
+        return new ImmutableAdaptiveSet<>(collection);
+    }
+
+    @Override
+    protected boolean isReadOnly() {
+        return true;
+    }
+
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Set;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
@@ -164,4 +165,9 @@ public class ImmutableArraySetTest {
         assertEquals(set, ImmutableArraySet.of(1, 2, 3));
     }
 
+    @Test
+    public void shouldReturnTheSameImmutableSet() {
+        ImmutableArraySet<Integer> set = ImmutableArraySet.of(1, 2, 3);
+        assertSame(set, ImmutableArraySet.of(set));
+    }
 }
@@ -0,0 +1,90 @@
+package com.fillumina.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class ImmutableCompactTableMapTest {
+
+    @Test
+    public void shouldFindAllKeysWithAHighLoadFactor() {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            map.put("key" + i, i);
+        }
+        ImmutableCompactTableMap<String, Integer> compact =
+                ImmutableTableMap.of(map).compact(0.95f);
+
+        assertEquals(map.size(), compact.size());
+        for (int i = 0; i < 10_000; i++) {
+            assertEquals(i, compact.get("key" + i));
+        }
+        assertNull(compact.get("key10000"));
+        assertFalse(compact.containsKey("missing"));
+        assertEquals(map, compact);
+    }
+
+    @Test
+    public void shouldKeepTheIterationOrderOfTheOriginalMap() {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        map.put("z", 1);
+        map.put("a", 2);
+        map.put("m", 3);
+        ImmutableCompactTableMap<String, Integer> compact = ImmutableCompactTableMap.of(map);
+
+        List<String> keys = new ArrayList<>();
+        compact.forEach((k, v) -> keys.add(k));
+        assertEquals(Arrays.asList("z", "a", "m"), keys);
+        assertEquals(keys, new ArrayList<>(compact.keySet()));
+        assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(compact.values()));
+    }
+
+    @Test
+    public void shouldAcceptNullKeysAndValues() {
+        ImmutableCompactTableMap<String, Integer> map = ImmutableCompactTableMap.of(
+                null, 1, "a", null);
+
+        assertEquals(1, map.get(null));
+        assertTrue(map.containsKey("a"));
+        assertTrue(map.containsValue(null));
+        assertNull(map.get("a"));
+    }
+
+    @Test
+    public void shouldRejectInvalidLoadFactors() {
+        Map<String, Integer> map = ImmutableTableMap.of("a", 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new ImmutableCompactTableMap<>(map, 1f));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ImmutableCompactTableMap<>(map, 0f));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ImmutableCompactTableMap<>(map, Float.NaN));
+    }
+
+    @Test
+    public void shouldBeReadOnly() {
+        ImmutableCompactTableMap<Integer, String> map = ImmutableCompactTableMap.<Integer, String>builder()
+                .put(1, "one")
+                .put(2, "two")
+                .build();
+
+        assertSame(map, ImmutableCompactTableMap.of(map));
+        assertThrows(UnsupportedOperationException.class, () -> map.put(3, "three"));
+        assertThrows(UnsupportedOperationException.class, () -> map.remove(1));
+        assertThrows(UnsupportedOperationException.class, () -> map.clear());
+    }
+}
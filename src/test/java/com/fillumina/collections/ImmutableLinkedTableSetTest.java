@@ -6,8 +6,10 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
@@ -183,4 +185,96 @@ public class ImmutableLinkedTableSetTest {
         assertEquals(set, ImmutableLinkedTableSet.of(1, 2, 3));
     }
 
+    @Test
+    public void shouldAccessByPositionInConstantTime() {
+        Integer[] array = new Integer[10_000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = array.length - i;
+        }
+        ImmutableLinkedTableSet<Integer> set = ImmutableLinkedTableSet.of(array);
+
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(array[i], set.get(i));
+            assertEquals(i, set.indexOf(array[i]));
+        }
+        assertEquals(-1, set.indexOf(0));
+        assertFalse(set.contains(array.length + 1));
+    }
+
+    @Test
+    public void shouldRemoveDuplicatesKeepingFirstOccurrence() {
+        ImmutableLinkedTableSet<String> set = ImmutableLinkedTableSet.of("b", "a", "b", "c", "a");
+
+        assertEquals(3, set.size());
+        assertEquals(Arrays.asList("b", "a", "c"), new ArrayList<>(set));
+        assertEquals(2, set.indexOf("c"));
+    }
+
+    @Test
+    public void shouldNotShareTheArrayOfTheCaller() {
+        String[] array = new String[] { "a", "b" };
+        ImmutableLinkedTableSet<String> set = new ImmutableLinkedTableSet<>(array);
+        array[0] = "z";
+
+        assertEquals("a", set.get(0));
+        assertTrue(set.contains("a"));
+    }
+
+    @Test
+    public void shouldBeEqualToOtherSets() {
+        ImmutableLinkedTableSet<Integer> set = ImmutableLinkedTableSet.of(1, 2, 3);
+        Set<Integer> other = new HashSet<>(Arrays.asList(3, 2, 1));
+
+        assertEquals(other, set);
+        assertEquals(set, other);
+        assertEquals(other.hashCode(), set.hashCode());
+        assertFalse(set.equals(Arrays.asList(1, 2, 3)));
+    }
+
+    @Test
+    public void shouldReturnTheSameImmutableSet() {
+        ImmutableLinkedTableSet<Integer> set = ImmutableLinkedTableSet.of(1, 2, 3);
+        assertSame(set, ImmutableLinkedTableSet.of(set));
+    }
+
+    @Test
+    public void shouldCopyToArrayOfAnySize() {
+        ImmutableLinkedTableSet<Integer> set = ImmutableLinkedTableSet.of(1, 2, 3);
+
+        assertArrayEquals(new Integer[] { 1, 2, 3 }, set.toArray(new Integer[0]));
+        Integer[] bigger = set.toArray(new Integer[] { 9, 9, 9, 9, 9 });
+        assertArrayEquals(new Integer[] { 1, 2, 3, null, 9 }, bigger);
+    }
+
+    @Test
+    public void shouldUsePerfectHashing() {
+        String[] array = new String[10_000];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = "element" + i;
+        }
+        ImmutableLinkedTableSet<String> set = ImmutableLinkedTableSet.of(array).perfectHashed();
+
+        assertSame(set, set.perfectHashed());
+        assertEquals(array.length, set.size());
+        for (int i = 0; i < array.length; i++) {
+            assertEquals(array[i], set.get(i));
+            assertEquals(i, set.indexOf(array[i]));
+            assertTrue(set.contains(array[i]));
+        }
+        assertEquals(-1, set.indexOf("element10000"));
+        assertFalse(set.contains("missing"));
+    }
+
+    @Test
+    public void shouldUsePerfectHashingWithCollidingHashCodes() {
+        ImmutableLinkedTableSet<String> set =
+                ImmutableLinkedTableSet.of("Aa", "BB", "C", null).perfectHashed();
+
+        assertEquals(0, set.indexOf("Aa"));
+        assertEquals(1, set.indexOf("BB"));
+        assertEquals(2, set.indexOf("C"));
+        assertEquals(3, set.indexOf(null));
+        assertFalse(set.contains("D"));
+        assertEquals(Arrays.asList("Aa", "BB", "C", null), new ArrayList<>(set));
+    }
 }
@@ -0,0 +1,34 @@
+package com.fillumina.collections;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class ImmutableMappedMapGTest extends GenericMapTest {
+
+    @Override
+    protected boolean isReadOnly() {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <K extends Comparable<K>, V extends Comparable<V>> Map<K, V> create(Map<K, V> m) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImmutableMappedMap.write((Map<Integer, String>) m, out,
+                    ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING);
+            return (Map<K, V>) new ImmutableMappedMap<>(ByteBuffer.wrap(out.toByteArray()),
+                    ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,183 @@
+package com.fillumina.collections;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class ImmutableMappedMapTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void shouldReadTheTableMapFromTheFile() throws IOException {
+        Map<String, Long> map = new HashMap<>();
+        for (long i = 0; i < 10_000; i++) {
+            map.put("key" + i, i * 3);
+        }
+        ImmutableTableMap<String, Long> immutable = ImmutableTableMap.of(map);
+        Path file = dir.resolve("map.bin");
+
+        ImmutableMappedMap.write(immutable, file,
+                ImmutableMappedMap.STRING, ImmutableMappedMap.LONG);
+        ImmutableMappedMap<String, Long> mapped = ImmutableMappedMap.open(file,
+                ImmutableMappedMap.STRING, ImmutableMappedMap.LONG);
+
+        assertEquals(10_000, mapped.size());
+        for (long i = 0; i < 10_000; i++) {
+            assertEquals(i * 3, mapped.get("key" + i));
+        }
+        assertNull(mapped.get("key10000"));
+        assertFalse(mapped.containsKey("missing"));
+        assertEquals(immutable, mapped);
+    }
+
+    @Test
+    public void shouldKeepTheOrderOfTheSortedMap() throws IOException {
+        ImmutableSortedArrayMap<Integer, String> sorted =
+                new ImmutableSortedArrayMap<>(3, "three", 1, "one", 2, "two");
+        Path file = dir.resolve("sorted.bin");
+
+        ImmutableMappedMap.write(sorted, file,
+                ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING);
+        ImmutableMappedMap<Integer, String> mapped = ImmutableMappedMap.open(file,
+                ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING);
+
+        assertEquals(Arrays.asList(1, 2, 3), new ArrayList<>(mapped.keySet()));
+        assertEquals(Arrays.asList("one", "two", "three"), new ArrayList<>(mapped.values()));
+        List<Integer> keys = new ArrayList<>();
+        mapped.forEach((k, v) -> keys.add(k));
+        assertEquals(Arrays.asList(1, 2, 3), keys);
+    }
+
+    @Test
+    public void shouldReturnACopyOfTheBytes() throws IOException {
+        Map<String, byte[]> map = new HashMap<>();
+        map.put("a", new byte[] {1, 2, 3});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImmutableMappedMap.write(map, out, ImmutableMappedMap.STRING, ImmutableMappedMap.BYTES);
+        ImmutableMappedMap<String, byte[]> mapped = new ImmutableMappedMap<>(
+                ByteBuffer.wrap(out.toByteArray()),
+                ImmutableMappedMap.STRING, ImmutableMappedMap.BYTES);
+
+        mapped.get("a")[0] = 42;
+
+        assertArrayEquals(new byte[] {1, 2, 3}, mapped.get("a"));
+    }
+
+    @Test
+    public void shouldReadFromTheBufferPosition() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] {7, 7, 7});
+        ImmutableMappedMap.write(ImmutableTableMap.of(1, "one"), out,
+                ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING);
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        buffer.position(3);
+
+        ImmutableMappedMap<Integer, String> mapped = new ImmutableMappedMap<>(buffer,
+                ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING);
+
+        assertEquals("one", mapped.get(1));
+        assertEquals(3, buffer.position());
+    }
+
+    @Test
+    public void shouldNotFindKeysOfAnotherType() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImmutableMappedMap.write(ImmutableTableMap.of(1, "one"), out,
+                ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING);
+        ImmutableMappedMap<Integer, String> mapped = new ImmutableMappedMap<>(
+                ByteBuffer.wrap(out.toByteArray()),
+                ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING);
+
+        assertNull(mapped.get("one"));
+        assertNull(mapped.get(null));
+        assertFalse(mapped.containsKey(1L));
+    }
+
+    @Test
+    public void shouldRejectNullKeysAndValues() {
+        Map<String, String> map = new HashMap<>();
+        map.put("a", null);
+
+        assertThrows(IllegalArgumentException.class, () -> ImmutableMappedMap.write(map,
+                new ByteArrayOutputStream(), ImmutableMappedMap.STRING, ImmutableMappedMap.STRING));
+    }
+
+    @Test
+    public void shouldRejectKeysEncodedToTheSameBytes() {
+        ImmutableMappedMap.Codec<String> caseInsensitive =
+                new ImmutableMappedMap.Codec<String>() {
+            @Override
+            public byte[] encode(String t) {
+                return ImmutableMappedMap.STRING.encode(t.toLowerCase());
+            }
+
+            @Override
+            public String decode(ByteBuffer buffer, int offset, int length) {
+                return ImmutableMappedMap.STRING.decode(buffer, offset, length);
+            }
+        };
+        Map<String, String> map = new HashMap<>();
+        map.put("key", "lower");
+        map.put("KEY", "upper");
+
+        assertThrows(IllegalArgumentException.class, () -> ImmutableMappedMap.write(map,
+                new ByteArrayOutputStream(), caseInsensitive, ImmutableMappedMap.STRING));
+    }
+
+    @Test
+    public void shouldRejectAnInvalidFile() throws IOException {
+        Path file = dir.resolve("invalid.bin");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+
+        assertThrows(IllegalArgumentException.class, () -> ImmutableMappedMap.open(file,
+                ImmutableMappedMap.STRING, ImmutableMappedMap.STRING));
+    }
+
+    @Test
+    public void shouldRejectATruncatedFile() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImmutableMappedMap.write(ImmutableTableMap.of(1, "one", 2, "two"), out,
+                ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING);
+        byte[] bytes = out.toByteArray();
+        Path file = dir.resolve("truncated.bin");
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThrows(IllegalArgumentException.class, () -> ImmutableMappedMap.open(file,
+                ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING));
+    }
+
+    @Test
+    public void shouldBeReadOnly() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImmutableMappedMap.write(ImmutableTableMap.of(1, "one"), out,
+                ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING);
+        ImmutableMappedMap<Integer, String> mapped = new ImmutableMappedMap<>(
+                ByteBuffer.wrap(out.toByteArray()),
+                ImmutableMappedMap.INTEGER, ImmutableMappedMap.STRING);
+
+        assertThrows(UnsupportedOperationException.class, () -> mapped.put(2, "two"));
+        assertThrows(UnsupportedOperationException.class, () -> mapped.remove(1));
+        assertTrue(mapped == mapped.immutable());
+    }
+}
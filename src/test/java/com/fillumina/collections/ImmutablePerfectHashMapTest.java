@@ -0,0 +1,93 @@
+package com.fillumina.collections;
+
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class ImmutablePerfectHashMapTest {
+
+    @Test
+    public void shouldFindAllKeysOfABigMap() {
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            map.put("key" + i, i);
+        }
+        ImmutablePerfectHashMap<String, Integer> perfect = ImmutablePerfectHashMap.of(map);
+
+        assertEquals(map.size(), perfect.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i, perfect.get("key" + i));
+        }
+        assertNull(perfect.get("key100000"));
+        assertFalse(perfect.containsKey("missing"));
+        assertEquals(map, perfect);
+    }
+
+    @Test
+    public void shouldManageKeysWithCollidingHashCodes() {
+        // "Aa" and "BB" have the same hash code
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        ImmutablePerfectHashMap<String, Integer> map = ImmutablePerfectHashMap.of(
+                "Aa", 1, "BB", 2, "AaAa", 3, "BBBB", 4, "AaBB", 5, "C", 6);
+
+        assertEquals(6, map.size());
+        assertEquals(1, map.get("Aa"));
+        assertEquals(2, map.get("BB"));
+        assertEquals(3, map.get("AaAa"));
+        assertEquals(4, map.get("BBBB"));
+        assertEquals(5, map.get("AaBB"));
+        assertEquals(6, map.get("C"));
+        assertNull(map.get("BBAa"));
+    }
+
+    @Test
+    public void shouldAcceptNullKeys() {
+        ImmutablePerfectHashMap<String, Integer> map = ImmutablePerfectHashMap.of(
+                null, 1, "a", 2);
+
+        assertTrue(map.containsKey(null));
+        assertEquals(1, map.get(null));
+        assertEquals(2, map.get("a"));
+    }
+
+    @Test
+    public void shouldUseTheLastValueOfDuplicatedKeys() {
+        ImmutablePerfectHashMap<String, Integer> map = ImmutablePerfectHashMap.<String, Integer>builder()
+                .put("a", 1)
+                .put("b", 2)
+                .put("a", 3)
+                .build();
+
+        assertEquals(2, map.size());
+        assertEquals(3, map.get("a"));
+    }
+
+    @Test
+    public void shouldCreateFromImmutableTableMap() {
+        ImmutableTableMap<Integer, String> table = ImmutableTableMap.of(1, "one", 2, "two");
+        ImmutablePerfectHashMap<Integer, String> map = table.perfectHashed();
+
+        assertEquals(table, map);
+        assertSame(map, ImmutablePerfectHashMap.of(map));
+        assertThrows(UnsupportedOperationException.class, () -> map.put(3, "three"));
+    }
+
+    @Test
+    public void shouldBeEmpty() {
+        ImmutablePerfectHashMap<Integer, String> map = ImmutablePerfectHashMap.empty();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+        assertFalse(map.containsKey(null));
+    }
+}
@@ -0,0 +1,214 @@
+package com.fillumina.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class IntMatrixTest {
+
+    //     A  B  C
+    // 0 | 1  2  3
+    // 1 | 4  5  6
+    private static IntMatrix<String> create(boolean columnMajor) {
+        return new IntMatrix<String>(Arrays.asList("A", "B", "C"), 2, columnMajor)
+                .setRow(0, 1, 2, 3)
+                .setRow(1, 4, 5, 6);
+    }
+
+    @Test
+    public void shouldGetAndSet() {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            IntMatrix<String> mtx = create(columnMajor);
+
+            assertEquals(columnMajor, mtx.isColumnMajor());
+            assertEquals(2, mtx.rowSize());
+            assertEquals(3, mtx.colSize());
+            assertEquals(6, mtx.size());
+            assertEquals(2, mtx.get(0, 1));
+            assertEquals(6, mtx.getByKey("C", 1));
+
+            mtx.set(1, 0, 40).setByKey("B", 0, 20);
+            assertEquals(40, mtx.get(1, 0));
+            assertEquals(20, mtx.get(0, 1));
+        }
+    }
+
+    @Test
+    public void shouldMapKeysToColumns() {
+        IntMatrix<String> mtx = create(false);
+
+        assertEquals(Utils.setOf("A", "B", "C"), mtx.getKeys());
+        assertEquals("B", mtx.getKeyAtColumn(1));
+        assertEquals(2, mtx.columnOf("C"));
+        assertThrows(IllegalArgumentException.class, () -> mtx.columnOf("Z"));
+        assertThrows(UnsupportedOperationException.class, () -> mtx.getKeys().remove("A"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new IntMatrix<>(Arrays.asList("A", "A"), 1));
+    }
+
+    @Test
+    public void shouldCheckBounds() {
+        IntMatrix<String> mtx = create(false);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> mtx.get(2, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> mtx.get(0, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> mtx.set(-1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> mtx.setRow(0, 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> mtx.setColumn(0, 1, 2, 3));
+        assertThrows(IllegalArgumentException.class, () -> new IntMatrix<>(-1, 2));
+    }
+
+    @Test
+    public void shouldCopyRowsAndColumns() {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            IntMatrix<String> mtx = create(columnMajor);
+
+            assertArrayEquals(new int[] {4, 5, 6}, mtx.getRow(1));
+            assertArrayEquals(new int[] {3, 6}, mtx.getColumn(2));
+            assertArrayEquals(new int[] {2, 5}, mtx.getColumnByKey("B"));
+
+            int[] dest = new int[5];
+            mtx.getRow(0, dest, 2);
+            assertArrayEquals(new int[] {0, 0, 1, 2, 3}, dest);
+
+            mtx.setColumn(1, 7, 8);
+            assertArrayEquals(new int[] {1, 7, 3, 4, 8, 6}, mtx.toArray());
+        }
+    }
+
+    @Test
+    public void shouldFill() {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            IntMatrix<String> mtx = create(columnMajor);
+
+            mtx.fillRow(0, 9);
+            assertArrayEquals(new int[] {9, 9, 9, 4, 5, 6}, mtx.toArray());
+
+            mtx.fillColumn(2, 0);
+            assertArrayEquals(new int[] {9, 9, 0, 4, 5, 0}, mtx.toArray());
+
+            mtx.fill(1);
+            assertArrayEquals(new int[] {1, 1, 1, 1, 1, 1}, mtx.toArray());
+        }
+    }
+
+    @Test
+    public void shouldViewRowsAndColumns() {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            IntMatrix<String> mtx = create(columnMajor);
+
+            List<Integer> row = mtx.getRowAsListByIndex(1);
+            assertEquals(Arrays.asList(4, 5, 6), row);
+
+            List<Integer> column = mtx.getColumnAsListByKey("C");
+            assertEquals(Arrays.asList(3, 6), column);
+
+            assertEquals(6, column.set(1, 60));
+            assertEquals(60, mtx.get(1, 2));
+            assertEquals(Arrays.asList(4, 5, 60), row);
+            assertThrows(IndexOutOfBoundsException.class, () -> column.get(2));
+        }
+    }
+
+    @Test
+    public void shouldVisitInStorageOrder() {
+        List<Integer> byRow = new ArrayList<>();
+        create(false).forEachElement(byRow::add);
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5, 6), byRow);
+
+        List<Integer> byColumn = new ArrayList<>();
+        create(true).forEachElement(byColumn::add);
+        assertEquals(Arrays.asList(1, 4, 2, 5, 3, 6), byColumn);
+    }
+
+    @Test
+    public void shouldCompareDifferentLayouts() {
+        IntMatrix<String> rows = create(false);
+        IntMatrix<String> cols = create(true);
+
+        assertEquals(rows, cols);
+        assertEquals(rows.hashCode(), cols.hashCode());
+        assertEquals(rows.toString(), cols.toString());
+
+        IntMatrix<String> clone = cols.clone();
+        assertTrue(clone.isColumnMajor());
+        assertEquals(rows, clone);
+
+        clone.set(0, 0, 0);
+        assertNotEquals(rows, clone);
+        assertEquals(1, cols.get(0, 0));
+
+        assertFalse(rows.equals(new IntMatrix<>(2, 3)));
+    }
+
+    @Test
+    public void shouldCopyFrom() {
+        IntMatrix<String> rows = create(false);
+
+        IntMatrix<String> cols = new IntMatrix<>(Arrays.asList("A", "B", "C"), 2, true);
+        cols.copyFrom(rows);
+        assertEquals(rows, cols);
+        assertEquals(4, cols.get(1, 0));
+
+        IntMatrix<String> other = new IntMatrix<>(Arrays.asList("A", "B", "C"), 2);
+        other.copyFrom(rows);
+        assertEquals(rows, other);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new IntMatrix<String>(2, 3).copyFrom(rows));
+    }
+
+    @Test
+    public void shouldUseLessMemoryThanBoxedMatrix() {
+        final int rows = 1000;
+        final List<String> keys = Arrays.asList("A", "B", "C", "D");
+        IntMatrix<String> primitive = new IntMatrix<>(keys, rows);
+        Matrix<String, Integer> boxed = new Matrix<>(Utils.setOf("A", "B", "C", "D"), 0);
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < keys.size(); col++) {
+                final int value = 1000 + row * keys.size() + col;
+                primitive.set(row, col, value);
+                boxed.set(row, col, value);
+            }
+        }
+
+        final long primitiveBytes = MemoryFootprint.retainedBytes(primitive);
+        final long boxedBytes = MemoryFootprint.retainedBytes(boxed);
+        // a bit more than 4 bytes per cell
+        assertTrue(primitiveBytes < rows * keys.size() * 5, "" + primitiveBytes);
+        assertTrue(primitiveBytes * 4 < boxedBytes, primitiveBytes + " vs " + boxedBytes);
+    }
+
+    @Test
+    public void shouldStream() {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            IntMatrix<String> mtx = create(columnMajor);
+
+            assertEquals(21, mtx.elementStream().parallel().sum());
+            assertArrayEquals(new int[] {4, 5, 6}, mtx.rowStream(1).toArray());
+            assertArrayEquals(new int[] {2, 5}, mtx.columnStream(1).toArray());
+        }
+    }
+
+    @Test
+    public void shouldVisitRowsInParallel() {
+        IntMatrix<String> mtx = new IntMatrix<>(Arrays.asList("A", "B"), 10_000, true);
+        mtx.parallelForEachRow(row -> mtx.set(row, 0, row).set(row, 1, 2 * row));
+
+        assertEquals(3 * 49_995_000L, mtx.elementStream().asLongStream().sum());
+        for (int row = 0; row < mtx.rowSize(); row++) {
+            assertEquals(2 * row, mtx.getByKey("B", row));
+        }
+    }
+}
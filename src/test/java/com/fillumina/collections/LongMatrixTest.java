@@ -0,0 +1,58 @@
+package com.fillumina.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class LongMatrixTest {
+
+    private static LongMatrix<String> create(boolean columnMajor) {
+        return new LongMatrix<String>(Arrays.asList("A", "B", "C"), 2, columnMajor)
+                .setRow(0, 1L, 2L, 3L)
+                .setRow(1, 4L, 5L, 6L);
+    }
+
+    @Test
+    public void shouldAccessCells() {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            LongMatrix<String> mtx = create(columnMajor);
+
+            assertEquals(5L, mtx.get(1, 1));
+            assertEquals(3L, mtx.getByKey("C", 0));
+            assertArrayEquals(new long[] {2L, 5L}, mtx.getColumnByKey("B"));
+            assertArrayEquals(new long[] {4L, 5L, 6L}, mtx.getRow(1));
+            assertEquals(Arrays.asList(3L, 6L), mtx.getColumnAsListByIndex(2));
+
+            mtx.fillColumn(0, 0L).setByKey("B", 1, 9L);
+            assertArrayEquals(new long[] {0L, 2L, 3L, 0L, 9L, 6L},
+                    mtx.toArray());
+            assertThrows(IndexOutOfBoundsException.class, () -> mtx.get(2, 0));
+        }
+    }
+
+    @Test
+    public void shouldVisitInStorageOrder() {
+        List<Long> byColumn = new ArrayList<>();
+        create(true).forEachElement(byColumn::add);
+        assertEquals(Arrays.asList(1L, 4L, 2L, 5L, 3L, 6L), byColumn);
+    }
+
+    @Test
+    public void shouldCompareDifferentLayouts() {
+        LongMatrix<String> rows = create(false);
+        LongMatrix<String> cols = new LongMatrix<>(Arrays.asList("A", "B", "C"), 2, true)
+                .copyFrom(rows);
+
+        assertEquals(rows, cols);
+        assertEquals(rows.hashCode(), cols.hashCode());
+        assertEquals(rows, cols.clone());
+    }
+}
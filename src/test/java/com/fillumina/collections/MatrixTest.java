@@ -1,14 +1,21 @@
 package com.fillumina.collections;
 
 import com.fillumina.collections.Matrix.ColBuilder;
+import com.fillumina.collections.Matrix.JoinType;
 import com.fillumina.collections.Matrix.RowBuilder;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -722,4 +729,615 @@ public class MatrixTest {
         assertEquals(rows, colsImmutable);
         assertEquals(rowsImmutable, cols);
     }
+
+    private static Matrix<String, String> translations() {
+        return Matrix.<String, String>rowBuilder()
+                .keys("IT", "EN", "FR")
+                .row("uno", "one", "une")
+                .row("due", "two", "deux")
+                .row("tre", "three", "trois")
+                .build();
+    }
+
+    @Test
+    public void shouldFindTheLastRowOfDuplicatedValues() {
+        Matrix<String, String> mtx = Matrix.<String, String>rowBuilder()
+                .keys("A", "B")
+                .row("x", "1")
+                .row("y", "2")
+                .row("x", "3")
+                .row(null, "4")
+                .build();
+
+        assertEquals(2, mtx.rowIndexOf("A", "x"));
+        assertEquals(1, mtx.rowIndexOf("A", "y"));
+        assertEquals(3, mtx.rowIndexOf("A", null));
+        assertEquals("3", mtx.getRelationValue("A", "B", "x"));
+    }
+
+    @Test
+    public void shouldMaintainTheIndexOnSet() {
+        Matrix<String, String> mtx = translations();
+        assertEquals(1, mtx.rowIndexOf("IT", "due"));
+
+        mtx.set(1, 0, "two");
+        assertEquals(-1, mtx.rowIndexOf("IT", "due"));
+        assertEquals(1, mtx.rowIndexOf("IT", "two"));
+
+        mtx.set(0, 0, "tre");
+        assertEquals(2, mtx.rowIndexOf("IT", "tre"));
+
+        // the last occurrence is removed
+        mtx.set(2, 0, "quattro");
+        assertEquals(0, mtx.rowIndexOf("IT", "tre"));
+        assertEquals(2, mtx.rowIndexOf("IT", "quattro"));
+
+        mtx.getRowMap(2).entrySet().iterator().next().setValue("tre");
+        assertEquals(2, mtx.rowIndexOf("IT", "tre"));
+        assertEquals(-1, mtx.rowIndexOf("IT", "quattro"));
+    }
+
+    @Test
+    public void shouldKeepTheIndexOverwritingAUniqueValue() {
+        Matrix<String, Integer> mtx = new Matrix<>(1000, 1);
+        for (int row = 0; row < 1000; row++) {
+            mtx.set(row, 0, row);
+        }
+        assertEquals(500, mtx.rowIndexOf(0, 500));
+        final long indexed = MemoryFootprint.retainedBytes(mtx);
+
+        mtx.set(500, 0, -1);
+
+        // an index of 1000 entries would take tens of kilobytes
+        assertTrue(MemoryFootprint.retainedBytes(mtx) > indexed - 1000);
+        assertEquals(-1, mtx.rowIndexOf(0, 500));
+        assertEquals(500, mtx.rowIndexOf(0, -1));
+        assertEquals(999, mtx.rowIndexOf(0, 999));
+    }
+
+    @Test
+    public void shouldRebuildTheIndexWhenRowsMove() {
+        Matrix<String, String> mtx = translations();
+        assertEquals(2, mtx.rowIndexOf("EN", "three"));
+
+        mtx.insertRowAtIndex(0);
+        assertEquals(3, mtx.rowIndexOf("EN", "three"));
+        assertEquals(0, mtx.rowIndexOf("EN", null));
+
+        mtx.removeRowAtIndex(1);
+        assertEquals(-1, mtx.rowIndexOf("EN", "one"));
+        assertEquals(2, mtx.rowIndexOf("EN", "three"));
+    }
+
+    @Test
+    public void shouldRebuildTheIndexWhenColumnsMove() {
+        Matrix<String, String> mtx = translations();
+        assertEquals(2, mtx.rowIndexOf("FR", "trois"));
+
+        mtx.removeColumnAtIndex(0);
+        assertEquals(-1, mtx.rowIndexOf(0, "uno"));
+        assertEquals(2, mtx.rowIndexOf(0, "three"));
+
+        mtx.set(4, 3, "cinq");
+        assertEquals(4, mtx.rowIndexOf(3, "cinq"));
+    }
+
+    @Test
+    public void shouldTranslateBigImmutableMatrix() {
+        final int rows = 50_000;
+        RowBuilder<String, String> builder = Matrix.<String, String>rowBuilder()
+                .keys("IT", "FR");
+        for (int i = 0; i < rows; i++) {
+            builder.row("it" + i, "fr" + i);
+        }
+        Matrix<String, String> mtx = builder.buildImmutable();
+
+        for (int i = 0; i < rows; i++) {
+            assertEquals("fr" + i, mtx.getRelationValue("IT", "FR", "it" + i));
+            assertEquals(i, mtx.rowIndexOf("FR", "fr" + i));
+        }
+        assertEquals(-1, mtx.rowIndexOf("IT", "fr0"));
+    }
+
+    @Test
+    public void shouldBuildColumnMajorByRows() {
+        Matrix<String, String> mtx = Matrix.<String, String>rowBuilder()
+                .keys("IT", "EN", "FR")
+                .row("uno", "one", "une")
+                .row("due", "two", "deux")
+                .row("tre", "three", "trois")
+                .columnMajor()
+                .build();
+
+        assertTrue(mtx.isColumnMajor());
+        assertFalse(translations().isColumnMajor());
+        assertEquals(3, mtx.rowSize());
+        assertEquals(3, mtx.colSize());
+        assertEquals("deux", mtx.get(1, 2));
+        assertEquals(Arrays.asList("one", "two", "three"), mtx.getColumnAsListByKey("EN"));
+        assertEquals(Arrays.asList("due", "two", "deux"), mtx.getRowAsListByIndex(1));
+        assertEquals("une", mtx.getRelationValue("IT", "FR", "uno"));
+
+        assertEquals(translations(), mtx);
+        assertEquals(mtx, translations());
+        assertEquals(translations().hashCode(), mtx.hashCode());
+        assertEquals(translations().toString(), mtx.toString());
+    }
+
+    @Test
+    public void shouldBuildColumnMajorByColumns() {
+        Matrix<String, String> mtx = Matrix.<String, String>columnBuilder()
+                .col("IT", "uno", "due", "tre")
+                .col("EN", "one", "two")
+                .columnMajor()
+                .buildImmutable();
+
+        assertTrue(mtx.isColumnMajor());
+        assertEquals(3, mtx.rowSize());
+        assertEquals(2, mtx.colSize());
+        assertEquals("two", mtx.getRelationValue("IT", "EN", "due"));
+        assertNull(mtx.getByKey("EN", 2));
+
+        Matrix<String, String> rows = Matrix.<String, String>columnBuilder()
+                .col("IT", "uno", "due", "tre")
+                .col("EN", "one", "two")
+                .build();
+        assertEquals(rows, mtx);
+    }
+
+    @Test
+    public void shouldModifyColumnMajor() {
+        Matrix<Integer, String> mtx = Matrix.<Integer, String>rowBuilder()
+                .keys(1, 2)
+                .row("one", "four")
+                .row("two", "five")
+                .row("three", "six")
+                .columnMajor()
+                .build();
+
+        mtx.addColumn(3, "a", "b");
+        assertEquals(Arrays.asList("a", "b", null), mtx.getColumnAsListByIndex(2));
+        assertEquals("b", mtx.getByKey(3, 1));
+
+        mtx.insertRowAtIndex(1);
+        assertEquals(4, mtx.rowSize());
+        assertEquals(Arrays.asList(null, null, null), mtx.getRowAsListByIndex(1));
+        assertEquals(Arrays.asList("one", null, "two", "three"), mtx.getColumnAsListByIndex(0));
+
+        mtx.removeRowAtIndex(0);
+        assertEquals(Arrays.asList(null, "five", "six"), mtx.getColumnAsListByIndex(1));
+
+        mtx.removeColumnAtIndex(0);
+        assertEquals(2, mtx.colSize());
+        assertEquals(Arrays.asList(null, "five", "six"), mtx.getColumnAsListByIndex(0));
+
+        mtx.set(4, 3, "x");
+        assertEquals(5, mtx.rowSize());
+        assertEquals(4, mtx.colSize());
+        assertEquals("x", mtx.get(4, 3));
+        assertEquals(4, mtx.rowIndexOf(3, "x"));
+        assertEquals(2, mtx.rowIndexOf(0, "six"));
+    }
+
+    @Test
+    public void shouldChangeLayout() {
+        Matrix<String, String> rows = translations();
+        Matrix<String, String> cols = new Matrix<>(rows, true);
+
+        assertTrue(cols.isColumnMajor());
+        assertEquals(rows, cols);
+        assertEquals("trois", cols.getRelationValue("EN", "FR", "three"));
+
+        Matrix<String, String> back = new Matrix<>(cols, false);
+        assertFalse(back.isColumnMajor());
+        assertEquals(rows, back);
+
+        assertTrue(cols.clone().isColumnMajor());
+        assertTrue(cols.immutable().isColumnMajor());
+        assertTrue(cols.changeKeys(k -> k.toLowerCase()).isColumnMajor());
+    }
+
+    private static Matrix<String, Integer> numbers(int rows, boolean columnMajor) {
+        RowBuilder<String, Integer> builder = Matrix.<String, Integer>rowBuilder()
+                .keys("A", "B", "C");
+        for (int row = 0; row < rows; row++) {
+            builder.row(row, 2 * row, null);
+        }
+        if (columnMajor) {
+            builder.columnMajor();
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void shouldSplitRows() {
+        Matrix<String, Integer> mtx = numbers(100, false);
+        Spliterator<List<Integer>> spliterator = mtx.rowSpliterator();
+
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+        assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED));
+        assertFalse(spliterator.hasCharacteristics(Spliterator.IMMUTABLE));
+        assertEquals(100, spliterator.getExactSizeIfKnown());
+
+        Spliterator<List<Integer>> prefix = spliterator.trySplit();
+        assertEquals(50, prefix.getExactSizeIfKnown());
+        assertEquals(50, spliterator.getExactSizeIfKnown());
+        prefix.tryAdvance(row -> assertEquals(Arrays.asList(0, 0, null), row));
+        spliterator.tryAdvance(row -> assertEquals(Arrays.asList(50, 100, null), row));
+
+        assertTrue(mtx.immutable().rowSpliterator()
+                .hasCharacteristics(Spliterator.IMMUTABLE));
+    }
+
+    @Test
+    public void shouldStreamRowsColumnsAndElements() {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            Matrix<String, Integer> mtx = numbers(1000, columnMajor);
+
+            assertEquals(499500, mtx.columnStreamByKey("A").mapToInt(i -> i).sum());
+            assertEquals(999000, mtx.columnStream(1).parallel().mapToInt(i -> i).sum());
+            assertEquals(1000, mtx.columnStream(2).filter(Objects::isNull).count());
+            assertEquals(3 * 499500, mtx.elementStream().parallel()
+                    .filter(Objects::nonNull).mapToInt(i -> i).sum());
+            assertEquals(Arrays.asList(7, 14, null),
+                    mtx.rowStream().parallel().skip(7).findFirst().get());
+        }
+        assertEquals(Arrays.asList(0, 0, null, 1, 2, null),
+                numbers(2, false).elementStream().collect(Collectors.toList()));
+        assertEquals(Arrays.asList(0, 1, 0, 2, null, null),
+                numbers(2, true).elementStream().collect(Collectors.toList()));
+        assertEquals(0, new Matrix<String, Integer>().elementStream().count());
+    }
+
+    @Test
+    public void shouldVisitRowsInParallel() throws InterruptedException {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            Matrix<String, Integer> mtx = numbers(10_000, columnMajor);
+            assertEquals(5, mtx.rowIndexOf(0, 5));
+            AtomicIntegerArray visits = new AtomicIntegerArray(mtx.rowSize());
+
+            ForkJoinPool pool = new ForkJoinPool(4);
+            try {
+                mtx.parallelForEachRow(row -> {
+                    visits.incrementAndGet(row);
+                    mtx.set(row, 2, mtx.get(row, 0) + mtx.get(row, 1));
+                }, pool);
+            } finally {
+                pool.shutdown();
+            }
+
+            for (int row = 0; row < mtx.rowSize(); row++) {
+                assertEquals(1, visits.get(row));
+                assertEquals(3 * row, mtx.getByKey("C", row));
+            }
+            // the indexes are rebuilt
+            assertEquals(5, mtx.rowIndexOf(2, 15));
+        }
+    }
+
+    @Test
+    public void shouldRethrowParallelExceptions() {
+        Matrix<String, Integer> mtx = numbers(10_000, false);
+        assertThrows(IllegalStateException.class, () -> mtx.parallelForEachRow(row -> {
+            if (row == 9_000) {
+                throw new IllegalStateException();
+            }
+        }));
+    }
+
+    @Test
+    public void shouldVisitRowsSequentially() {
+        List<Integer> rows = new ArrayList<>();
+        numbers(3, true).forEachRow(rows::add);
+        assertEquals(Arrays.asList(0, 1, 2), rows);
+    }
+
+    @Test
+    public void shouldAppendRows() {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            Matrix<String, String> mtx = new Matrix<>(translations(), columnMajor);
+            assertEquals(2, mtx.rowIndexOf("IT", "tre"));
+
+            mtx.appendRow("quattro", "four", "quatre");
+            mtx.appendRows(Arrays.asList(
+                    new String[] {"cinque", "five", "cinq"},
+                    new String[] {"tre", "three", "trois"}));
+
+            assertEquals(6, mtx.rowSize());
+            assertEquals(3, mtx.colSize());
+            assertEquals("four", mtx.getRelationValue("IT", "EN", "quattro"));
+            assertEquals(Arrays.asList("une", "deux", "trois", "quatre", "cinq", "trois"),
+                    mtx.getColumnAsListByKey("FR"));
+            // the index is kept up to date
+            assertEquals(5, mtx.rowIndexOf("IT", "tre"));
+
+            assertThrows(IllegalArgumentException.class, () -> mtx.appendRow("a", "b"));
+            assertThrows(IndexOutOfBoundsException.class, () -> mtx.get(6, 0));
+        }
+    }
+
+    @Test
+    public void shouldAppendRowsToEmptyMatrix() {
+        Matrix<String, Integer> mtx = new Matrix<>();
+        mtx.appendRow(1, 2).appendRow(3, 4);
+
+        assertEquals(2, mtx.rowSize());
+        assertEquals(2, mtx.colSize());
+        assertEquals(Arrays.asList(3, 4), mtx.getRowAsListByIndex(1));
+    }
+
+    @Test
+    public void shouldHideTheRowCapacity() {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            Matrix<String, String> mtx = new Matrix<>(translations(), columnMajor);
+            mtx.appendRow("quattro", "four", "quatre");
+            Matrix<String, String> exact = Matrix.<String, String>rowBuilder()
+                    .keys("IT", "EN", "FR")
+                    .row("uno", "one", "une")
+                    .row("due", "two", "deux")
+                    .row("tre", "three", "trois")
+                    .row("quattro", "four", "quatre")
+                    .buildImmutable();
+
+            assertEquals(exact, mtx);
+            assertEquals(mtx, exact);
+            assertEquals(exact.hashCode(), mtx.hashCode());
+            assertEquals(exact.toString(), mtx.toString());
+            assertEquals(exact, mtx.clone());
+            assertEquals(exact, new Matrix<>(mtx, !columnMajor));
+            assertEquals(exact, SerializationTest.copy(mtx));
+            assertEquals(12, mtx.elementStream().count());
+
+            List<String> elements = new ArrayList<>();
+            mtx.forEachElement(elements::add);
+            assertEquals(12, elements.size());
+        }
+    }
+
+    @Test
+    public void shouldInsertAndRemoveWithinTheRowCapacity() {
+        for (boolean columnMajor : new boolean[] {false, true}) {
+            Matrix<String, String> mtx = new Matrix<>(translations(), columnMajor);
+            mtx.appendRow("quattro", "four", "quatre");
+
+            mtx.removeRowAtIndex(0);
+            mtx.removeRowAtIndex(2);
+            assertEquals(2, mtx.rowSize());
+            assertEquals(Arrays.asList("two", "three"), mtx.getColumnAsListByKey("EN"));
+
+            mtx.insertRowAtIndex(1);
+            mtx.set(1, 1, "x");
+            assertEquals(Arrays.asList("two", "x", "three"), mtx.getColumnAsListByKey("EN"));
+            assertEquals(Arrays.asList(null, "x", null), mtx.getRowAsListByIndex(1));
+
+            mtx.addColumn("DE", "zwei", null, "drei");
+            mtx.appendRow("uno", "one", "une", "eins");
+            assertEquals(Arrays.asList("zwei", null, "drei", "eins"),
+                    mtx.getColumnAsListByKey("DE"));
+
+            mtx.removeColumnAtIndex(0);
+            assertEquals(3, mtx.colSize());
+            assertEquals(Arrays.asList("one", "une", "eins"), mtx.getRowAsListByIndex(3));
+
+            // grows by one row at a time
+            mtx.set(5, 0, "y");
+            assertEquals(6, mtx.rowSize());
+            assertEquals(Arrays.asList(null, null, null), mtx.getRowAsListByIndex(4));
+            assertEquals("y", mtx.get(5, 0));
+        }
+    }
+
+    @Test
+    public void shouldGrowRowsInLinearTime() {
+        final int rows = 200_000;
+        Matrix<Integer, Integer> mtx = new Matrix<>();
+        for (int row = 0; row < rows; row++) {
+            mtx.set(row, 1, row);
+        }
+        assertEquals(rows, mtx.rowSize());
+        assertEquals(rows - 1, mtx.get(rows - 1, 1));
+    }
+
+    @Test
+    public void shouldNotCorruptTheBuilderModifyingABuiltMatrix() {
+        for (boolean columnMajor : new boolean[] { false, true }) {
+            RowBuilder<String, Integer> builder = Matrix.<String, Integer>rowBuilder()
+                    .keys("A", "B");
+            if (columnMajor) {
+                builder.columnMajor();
+            }
+            builder.row(1, 2).row(3, 4).row(5, 6);
+
+            Matrix<String, Integer> removed = builder.build();
+            removed.removeRowAtIndex(0);
+            Matrix<String, Integer> inserted = builder.build();
+            inserted.insertRowAtIndex(0);
+            inserted.set(1, 0, 42);
+
+            Matrix<String, Integer> second = builder.build();
+            assertEquals(3, second.rowSize());
+            assertEquals(Arrays.asList(1, 3, 5), second.getColumnAsListByKey("A"));
+            assertEquals(Arrays.asList(1, 3, 5, 7),
+                    builder.row(7, 8).buildImmutable().getColumnAsListByKey("A"));
+            assertEquals(Arrays.asList(3, 5), removed.getColumnAsListByKey("A"));
+            assertEquals(Arrays.asList(null, 42, 3, 5), inserted.getColumnAsListByKey("A"));
+        }
+    }
+
+    @Test
+    public void shouldNotShareBuiltStorage() {
+        RowBuilder<String, Integer> builder = Matrix.<String, Integer>rowBuilder()
+                .keys("A", "B")
+                .expectedRows(100)
+                .row(1, 2);
+        Matrix<String, Integer> first = builder.build();
+        Matrix<String, Integer> immutable = builder.row(3, 4).buildImmutable();
+        first.appendRow(5, 6);
+        Matrix<String, Integer> second = builder.row(7, 8).columnMajor().build();
+
+        assertEquals(Arrays.asList(1, 5), first.getColumnAsListByKey("A"));
+        assertEquals(Arrays.asList(1, 3), immutable.getColumnAsListByKey("A"));
+        assertEquals(Arrays.asList(1, 3, 7), second.getColumnAsListByKey("A"));
+        assertTrue(second.isColumnMajor());
+    }
+
+    private static Matrix<String, String> languages() {
+        return Matrix.<String, String>rowBuilder()
+                .keys("code", "name")
+                .row("en", "English")
+                .row("it", "Italian")
+                .row("fr", "French")
+                .row(null, "Unknown")
+                .build();
+    }
+
+    private static Matrix<String, String> greetings() {
+        return Matrix.<String, String>rowBuilder()
+                .keys("lang", "hello")
+                .row("it", "ciao")
+                .row("de", "hallo")
+                .row("en", "hello")
+                .row("it", "salve")
+                .row(null, "?")
+                .build();
+    }
+
+    private static List<String> columnKeys(Matrix<String, ?> matrix) {
+        List<String> list = new ArrayList<>();
+        for (int col = 0; col < matrix.colSize(); col++) {
+            list.add(matrix.getKeyAtColumn(col));
+        }
+        return list;
+    }
+
+    @Test
+    public void shouldInnerJoin() {
+        Matrix<String, String> joined = languages().join(greetings(), "code", "lang");
+
+        assertEquals(Arrays.asList("code", "name", "hello"), columnKeys(joined));
+        assertEquals(3, joined.rowSize());
+        assertEquals(Arrays.asList("en", "English", "hello"), joined.getRowAsListByIndex(0));
+        assertEquals(Arrays.asList("it", "Italian", "ciao"), joined.getRowAsListByIndex(1));
+        assertEquals(Arrays.asList("it", "Italian", "salve"), joined.getRowAsListByIndex(2));
+    }
+
+    @Test
+    public void shouldLeftJoin() {
+        Matrix<String, String> joined =
+                languages().join(greetings(), "code", "lang", JoinType.LEFT);
+
+        assertEquals(5, joined.rowSize());
+        assertEquals(Arrays.asList("en", "English", "hello"), joined.getRowAsListByIndex(0));
+        assertEquals(Arrays.asList("it", "Italian", "ciao"), joined.getRowAsListByIndex(1));
+        assertEquals(Arrays.asList("it", "Italian", "salve"), joined.getRowAsListByIndex(2));
+        assertEquals(Arrays.asList("fr", "French", null), joined.getRowAsListByIndex(3));
+        assertEquals(Arrays.asList(null, "Unknown", null), joined.getRowAsListByIndex(4));
+    }
+
+    @Test
+    public void shouldJoinTheSameWhicheverSideIsSmaller() {
+        // the greetings are the bigger side here and the smaller one in the reverse join
+        Matrix<String, String> joined =
+                greetings().join(languages(), "lang", "code", JoinType.LEFT);
+
+        assertEquals(Arrays.asList("lang", "hello", "name"), columnKeys(joined));
+        assertEquals(5, joined.rowSize());
+        assertEquals(Arrays.asList("it", "ciao", "Italian"), joined.getRowAsListByIndex(0));
+        assertEquals(Arrays.asList("de", "hallo", null), joined.getRowAsListByIndex(1));
+        assertEquals(Arrays.asList("en", "hello", "English"), joined.getRowAsListByIndex(2));
+        assertEquals(Arrays.asList("it", "salve", "Italian"), joined.getRowAsListByIndex(3));
+        assertEquals(Arrays.asList(null, "?", null), joined.getRowAsListByIndex(4));
+
+        Matrix<String, String> small = Matrix.<String, String>rowBuilder()
+                .keys("code", "name")
+                .row("it", "Italian")
+                .build();
+        Matrix<String, String> inner = small.join(greetings(), "code", "lang");
+        assertEquals(Arrays.asList("it", "Italian", "ciao"), inner.getRowAsListByIndex(0));
+        assertEquals(Arrays.asList("it", "Italian", "salve"), inner.getRowAsListByIndex(1));
+        assertEquals(2, inner.rowSize());
+    }
+
+    @Test
+    public void shouldJoinManyToMany() {
+        Matrix<String, Integer> left = Matrix.<String, Integer>rowBuilder()
+                .keys("a", "x")
+                .row(1, 10)
+                .row(1, 11)
+                .row(2, 12)
+                .build();
+        Matrix<String, Integer> right = Matrix.<String, Integer>rowBuilder()
+                .keys("b", "y")
+                .row(1, 20)
+                .row(1, 21)
+                .build();
+
+        Matrix<String, Integer> joined = left.join(right, "a", "b");
+
+        assertEquals(4, joined.rowSize());
+        assertEquals(Arrays.asList(10, 10, 11, 11), joined.getColumnAsListByKey("x"));
+        assertEquals(Arrays.asList(20, 21, 20, 21), joined.getColumnAsListByKey("y"));
+    }
+
+    @Test
+    public void shouldJoinByIndexWithoutKeys() {
+        Matrix<String, String> left = Matrix.<String, String>rowBuilder()
+                .columnMajor()
+                .row("en", "English")
+                .row("it", "Italian")
+                .build();
+
+        Matrix<String, String> joined =
+                left.joinByIndex(greetings(), 0, 0, JoinType.INNER);
+
+        assertTrue(joined.getKeys().isEmpty());
+        assertTrue(joined.isColumnMajor());
+        assertEquals(3, joined.rowSize());
+        assertEquals(Arrays.asList("hello", "ciao", "salve"),
+                joined.getColumnAsListByIndex(2));
+    }
+
+    @Test
+    public void shouldJoinEmptyMatrices() {
+        Matrix<String, String> empty = Matrix.<String, String>rowBuilder()
+                .keys("lang", "other")
+                .build();
+
+        assertEquals(0, languages().join(empty, "code", "lang").rowSize());
+
+        Matrix<String, String> left =
+                languages().join(empty, "code", "lang", JoinType.LEFT);
+        assertEquals(4, left.rowSize());
+        assertEquals(Arrays.asList("en", "English", null), left.getRowAsListByIndex(0));
+        assertNull(left.getByKey("other", 3));
+    }
+
+    @Test
+    public void shouldRejectInvalidJoinKeys() {
+        assertThrows(IllegalArgumentException.class,
+                () -> languages().join(greetings(), "missing", "lang"));
+        assertThrows(IllegalArgumentException.class,
+                () -> languages().join(languages(), "code", "code"));
+    }
+
+    @Test
+    public void shouldJoinBigMatricesInLinearTime() {
+        final int rows = 200_000;
+        RowBuilder<String, Integer> leftBuilder =
+                Matrix.<String, Integer>rowBuilder().keys("id", "left").expectedRows(rows);
+        RowBuilder<String, Integer> rightBuilder =
+                Matrix.<String, Integer>rowBuilder().keys("ref", "right").expectedRows(rows);
+        for (int i = 0; i < rows; i++) {
+            leftBuilder.row(i, i * 2);
+            rightBuilder.row(rows - 1 - i, i * 3);
+        }
+
+        Matrix<String, Integer> joined =
+                leftBuilder.build().join(rightBuilder.build(), "id", "ref");
+
+        assertEquals(rows, joined.rowSize());
+        assertEquals(10, joined.getByKey("left", 5));
+        assertEquals((rows - 1 - 5) * 3, joined.getByKey("right", 5));
+    }
 }
@@ -0,0 +1,158 @@
+package com.fillumina.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tracks the bytes per entry of the containers at different sizes: the budgets are the measured
+ * values (rounded up) so a change increasing the overhead of a container fails here and the
+ * budget must be updated consciously. JDK containers are only used as a comparison because
+ * their layout depends on the JDK version.
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class MemoryFootprintTest {
+    private static final int[] SIZES = {1, 8, 64, 1024};
+
+    private static Map<Integer, String> createMap(int size) {
+        Map<Integer, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(i, "" + i);
+        }
+        return map;
+    }
+
+    private static Integer[] createArray(int size) {
+        Integer[] array = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = i;
+        }
+        return array;
+    }
+
+    /** @param budgets the maximum bytes per entry for each of {@link #SIZES} */
+    private static void assertMapBudget(
+            Function<Map<Integer, String>, Map<Integer, String>> factory, double... budgets) {
+        for (int i = 0; i < SIZES.length; i++) {
+            final Map<Integer, String> map = factory.apply(createMap(SIZES[i]));
+            assertEquals(SIZES[i], map.size());
+            assertBudget(map, SIZES[i], budgets[i]);
+        }
+    }
+
+    private static void assertCollectionBudget(Function<Integer[], Object> factory,
+            double... budgets) {
+        for (int i = 0; i < SIZES.length; i++) {
+            assertBudget(factory.apply(createArray(SIZES[i])), SIZES[i], budgets[i]);
+        }
+    }
+
+    private static void assertBudget(Object container, int size, double budget) {
+        final double bytesPerEntry = MemoryFootprint.bytesPerEntry(container);
+        assertTrue(bytesPerEntry <= budget, () -> container.getClass().getSimpleName() +
+                " of size " + size + " uses " + bytesPerEntry + " bytes per entry, budget is " +
+                budget);
+    }
+
+    @Test
+    public void shouldComputeShallowSizes() {
+        assertEquals(16, MemoryFootprint.shallowBytes(new Object()));
+        assertEquals(16, MemoryFootprint.shallowBytes(Integer.valueOf(1000)));
+        assertEquals(24, MemoryFootprint.shallowBytes(Long.valueOf(1000)));
+        assertEquals(16, MemoryFootprint.shallowBytes(new int[0]));
+        assertEquals(32, MemoryFootprint.shallowBytes(new int[3]));
+        assertEquals(24, MemoryFootprint.shallowBytes(new Object[2]));
+        assertEquals(24, MemoryFootprint.shallowBytes(new long[1]));
+    }
+
+    @Test
+    public void shouldExcludeKeysAndValues() {
+        // the array of 6 references (the entrySet() view created to read the keys is not counted)
+        ArrayMap<Integer, String> map = new ArrayMap<>(1000, "a", 2000, "b", 3000, "c");
+
+        assertEquals(MemoryFootprint.shallowBytes(map) + 40,
+                MemoryFootprint.retainedBytes(map));
+    }
+
+    @Test
+    public void shouldCountSharedObjectsOnce() {
+        Object shared = new Object();
+        Object[] array = new Object[] {shared, shared};
+
+        assertEquals(24 + 16, MemoryFootprint.retainedBytes(array, new HashSet<>()));
+    }
+
+    @Test
+    public void shouldMeasureJdkContainers() {
+        // the node of each entry is counted (needs --add-opens java.base/java.util)
+        assertTrue(MemoryFootprint.bytesPerEntry(new HashMap<>(createMap(1024))) >= 32);
+    }
+
+    @Test
+    public void shouldKeepArrayMapsBudget() {
+        assertMapBudget(ArrayMap::new, 56, 14, 9, 8.2);
+        assertMapBudget(ImmutableArrayMap::of, 56, 14, 9, 8.2);
+        assertMapBudget(ImmutableSortedArrayMap::new, 56, 14, 9, 8.2);
+    }
+
+    @Test
+    public void shouldKeepHashMapsBudget() {
+        assertMapBudget(TableMap::new, 144, 53, 42.4, 40.2);
+        assertMapBudget(ImmutableTableMap::of, 104, 41, 33.5, 32.2);
+        assertMapBudget(ImmutableCompactTableMap::of, 136, 33, 21.7, 20.2);
+        assertMapBudget(ImmutablePerfectHashMap::of, 160, 29, 15.4, 13.2);
+        assertMapBudget(AdaptiveMap::new, 96, 19, 43.2, 40.3);
+        assertMapBudget(BiMap::new, 416, 108, 83.6, 80.4);
+        assertMapBudget(CompactBiMap::new, 192, 52, 34.5, 32.2);
+    }
+
+    @Test
+    public void shouldKeepSetsBudget() {
+        assertCollectionBudget(SmallSet::new, 24, 9, 4.7, 4.2);
+        assertCollectionBudget(ImmutableSmallSet::of, 24, 9, 4.7, 4.2);
+        assertCollectionBudget(ArraySet::new, 48, 9, 4.7, 4.2);
+        assertCollectionBudget(ImmutableArraySet::of, 48, 9, 4.7, 4.2);
+        assertCollectionBudget(AdaptiveSet::new, 24, 9, 8.7, 8.2);
+        assertCollectionBudget(a -> ImmutableLinkedTableSet.of((Object[]) a), 72, 19, 13.0, 12.2);
+    }
+
+    @Test
+    public void shouldKeepListsBudget() {
+        assertCollectionBudget(SmallList::new, 48, 9, 4.7, 4.2);
+        assertCollectionBudget(a -> ImmutableList.of((Object[]) a), 48, 9, 4.7, 4.2);
+        assertCollectionBudget(ImmutableSmallList::new, 48, 9, 4.7, 4.2);
+    }
+
+    @Test
+    public void shouldUseLessMemoryThanTheJdkEquivalents() {
+        for (int size : SIZES) {
+            final Map<Integer, String> map = createMap(size);
+            final double hashMap = MemoryFootprint.bytesPerEntry(new HashMap<>(map));
+            assertTrue(MemoryFootprint.bytesPerEntry(new ArrayMap<>(map)) < hashMap);
+            assertTrue(MemoryFootprint.bytesPerEntry(ImmutableArrayMap.of(map)) < hashMap);
+            if (size > 1) {
+                assertTrue(MemoryFootprint.bytesPerEntry(ImmutableTableMap.of(map)) < hashMap);
+                assertTrue(MemoryFootprint.bytesPerEntry(
+                        ImmutableCompactTableMap.of(map)) < hashMap);
+                assertTrue(MemoryFootprint.bytesPerEntry(
+                        ImmutablePerfectHashMap.of(map)) < hashMap);
+            }
+
+            final Integer[] array = createArray(size);
+            final double hashSet = MemoryFootprint.bytesPerEntry(new HashSet<>(Arrays.asList(array)));
+            final double arrayList = MemoryFootprint.bytesPerEntry(new ArrayList<>(Arrays.asList(array)));
+            assertTrue(MemoryFootprint.bytesPerEntry(new SmallSet<>(array)) < hashSet);
+            assertTrue(MemoryFootprint.bytesPerEntry(new ArraySet<>(array)) < hashSet);
+            assertTrue(MemoryFootprint.bytesPerEntry(new AdaptiveSet<>(array)) < hashSet);
+            assertTrue(MemoryFootprint.bytesPerEntry(new SmallList<>(array)) <= arrayList);
+        }
+    }
+}
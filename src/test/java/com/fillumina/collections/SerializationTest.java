@@ -0,0 +1,428 @@
+package com.fillumina.collections;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class SerializationTest {
+
+    @SuppressWarnings("unchecked")
+    static <T> T copy(T object) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(object);
+            }
+            try (ObjectInputStream in = new ObjectInputStream(
+                    new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (T) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    static Map<Integer, String> createMap(int size) {
+        Map<Integer, String> map = new HashMap<>();
+        IntStream.range(0, size).forEach(i -> map.put(i, "" + i));
+        return map;
+    }
+
+    @Test
+    public void shouldSerializeTableMap() {
+        TableMap<Integer, String> map = new TableMap<>(createMap(100));
+
+        TableMap<Integer, String> copy = copy(map);
+
+        assertEquals(map, copy);
+        copy.put(100, "100");
+        assertEquals("100", copy.get(100));
+    }
+
+    @Test
+    public void shouldSerializeImmutableTableMap() {
+        ImmutableTableMap<Integer, String> map = new TableMap<>(createMap(100)).immutable();
+
+        ImmutableTableMap<Integer, String> copy = copy(map);
+
+        assertEquals(map, copy);
+        assertThrows(UnsupportedOperationException.class, () -> copy.put(1, "one"));
+    }
+
+    @Test
+    public void shouldSerializeEmptyTableMap() {
+        assertEquals(0, copy(new TableMap<>()).size());
+        assertEquals(0, copy(ImmutableTableMap.empty()).size());
+    }
+
+    @Test
+    public void shouldSerializeCopyOnWriteMap() {
+        CopyOnWriteMap<Integer, String> map = new CopyOnWriteMap<>(createMap(20));
+        assertEquals(map, copy(map));
+    }
+
+    @Test
+    public void shouldSerializeBiMap() {
+        BiMap<Integer, String> map = new BiMap<>(createMap(20));
+
+        BiMap<Integer, String> copy = copy(map);
+
+        assertEquals(map, copy);
+        assertEquals(7, copy.inverse().get("7"));
+        copy.put(7, "seven");
+        assertEquals(7, copy.inverse().get("seven"));
+    }
+
+    @Test
+    public void shouldSerializeImmutableBiMap() {
+        BiMap<Integer, String> map = BiMap.immutable(1, "1", 7, "7", 9, "9");
+
+        BiMap<Integer, String> copy = copy(map);
+
+        assertEquals(map, copy);
+        assertEquals(7, copy.inverse().get("7"));
+        assertThrows(UnsupportedOperationException.class, () -> copy.put(1, "one"));
+    }
+
+    @Test
+    public void shouldSerializeCompactBiMap() {
+        CompactBiMap<Integer, String> map = new CompactBiMap<>(createMap(20));
+
+        CompactBiMap<Integer, String> copy = copy(map);
+
+        assertEquals(map, copy);
+        assertEquals(7, copy.inverse().get("7"));
+    }
+
+    @Test
+    public void shouldSerializeCopyOnWriteBiMap() {
+        CopyOnWriteBiMap<Integer, String> map = new CopyOnWriteBiMap<>(createMap(20));
+
+        CopyOnWriteBiMap<Integer, String> copy = copy(map);
+        CopyOnWriteBiMap<Integer, String> snapshot = copy(map.snapshot());
+
+        assertEquals(map, copy);
+        assertEquals(7, copy.inverse().get("7"));
+        assertFalse(copy.isReadOnly());
+        assertEquals(map, snapshot);
+        assertTrue(snapshot.isReadOnly());
+    }
+
+    @Test
+    public void shouldSerializeArrayMapKeepingOrder() {
+        ArrayMap<Integer, String> map = new ArrayMap<>(3, "3", 1, "1", 2, "2");
+
+        ArrayMap<Integer, String> copy = copy(map);
+
+        assertEquals(map, copy);
+        assertEquals(Arrays.asList(3, 1, 2), Arrays.asList(copy.keySet().toArray()));
+    }
+
+    @Test
+    public void shouldSerializeArrayMapWithFingerprints() {
+        ArrayMap<Integer, String> map = new ArrayMap<Integer, String>(createMap(20))
+                .withFingerprints();
+
+        ArrayMap<Integer, String> copy = copy(map);
+
+        assertEquals(map, copy);
+        copy.put(20, "20");
+        assertEquals("20", copy.get(20));
+        assertEquals(21, copy.size());
+    }
+
+    @Test
+    public void shouldSerializeSortedArrayMap() {
+        ImmutableSortedArrayMap<Integer, String> map =
+                new ImmutableSortedArrayMap<>(3, "3", 1, "1", 2, "2");
+
+        ImmutableSortedArrayMap<Integer, String> copy = copy(map);
+
+        assertEquals(map, copy);
+        assertEquals(Arrays.asList(1, 2, 3), Arrays.asList(copy.keySet().toArray()));
+        assertEquals("2", copy.get(2));
+    }
+
+    @Test
+    public void shouldSerializeAdaptiveMap() {
+        AdaptiveMap<Integer, String> small = new AdaptiveMap<>(createMap(3));
+        AdaptiveMap<Integer, String> big = new AdaptiveMap<>(createMap(100));
+
+        AdaptiveMap<Integer, String> smallCopy = copy(small);
+        AdaptiveMap<Integer, String> bigCopy = copy(big);
+
+        assertEquals(small, smallCopy);
+        assertFalse(smallCopy.isHashed());
+        assertEquals(big, bigCopy);
+        assertTrue(bigCopy.isHashed());
+    }
+
+    @Test
+    public void shouldSerializeCompactAndPerfectHashMaps() {
+        ImmutableTableMap<Integer, String> map = ImmutableTableMap.of(createMap(100));
+
+        ImmutableCompactTableMap<Integer, String> compact = copy(map.compact(0.5f));
+        ImmutablePerfectHashMap<Integer, String> perfectHashed = copy(map.perfectHashed());
+
+        assertEquals(map, compact);
+        assertEquals("42", compact.get(42));
+        assertEquals(map, perfectHashed);
+        assertEquals("42", perfectHashed.get(42));
+        assertTrue(ImmutableCompactTableMap.empty() ==
+                copy(ImmutableCompactTableMap.empty()));
+    }
+
+    @Test
+    public void shouldSerializeSets() {
+        Integer[] array = IntStream.range(0, 20).boxed().toArray(Integer[]::new);
+        Set<Integer> expected = Utils.setOf(array);
+
+        assertEquals(expected, copy(new ArraySet<>(array)));
+        assertEquals(expected, copy(new ArraySet<>(array).withFingerprints()));
+        assertEquals(expected, copy(new SmallSet<>(array).withFingerprints()));
+        assertEquals(Utils.setOf(1), copy(new SmallSet<>(1)));
+        assertEquals(0, copy(new SmallSet<>()).size());
+        assertEquals(expected, copy(ImmutableArraySet.of(array)));
+        assertEquals(expected, copy(ImmutableSmallSet.of(array)));
+    }
+
+    @Test
+    public void shouldSerializeAdaptiveSet() {
+        AdaptiveSet<Integer> small = new AdaptiveSet<>(1, 2, 3);
+        AdaptiveSet<Integer> big = new AdaptiveSet<>(
+                IntStream.range(0, 100).boxed().toArray(Integer[]::new));
+
+        AdaptiveSet<Integer> smallCopy = copy(small);
+        AdaptiveSet<Integer> bigCopy = copy(big);
+
+        assertEquals(small, smallCopy);
+        assertFalse(smallCopy.isHashed());
+        assertEquals(big, bigCopy);
+        assertTrue(bigCopy.isHashed());
+        assertTrue(bigCopy.contains(42));
+        assertEquals(Utils.setOf(1), copy(new AdaptiveSet<>(1)));
+        assertThrows(UnsupportedOperationException.class,
+                () -> copy(new ImmutableAdaptiveSet<>(1, 2)).add(3));
+    }
+
+    @Test
+    public void shouldSerializeAShrunkAdaptiveSet() {
+        AdaptiveSet<Integer> set = new AdaptiveSet<>(
+                IntStream.range(0, 10_000).boxed().toArray(Integer[]::new));
+        IntStream.range(10, 10_000).forEach(set::remove);
+        assertTrue(set.isHashed());
+
+        AdaptiveSet<Integer> copy = copy(set);
+
+        assertEquals(set, copy);
+        assertTrue(copy.contains(9));
+        assertFalse(copy.contains(10));
+    }
+
+    private static ObjectInputStream tableStream(int size, int capacity, Object... pairs)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeInt(size);
+            out.writeInt(capacity);
+            for (Object o : pairs) {
+                out.writeObject(o);
+            }
+        }
+        return new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    @Test
+    public void shouldRejectAnInvalidTableCapacity() {
+        assertThrows(InvalidObjectException.class,
+                () -> new TableMap<>().readEntries(tableStream(3, 6)));
+        assertThrows(InvalidObjectException.class,
+                () -> new TableMap<>().readEntries(tableStream(8, 8)));
+        assertThrows(InvalidObjectException.class,
+                () -> new TableMap<>().readEntries(tableStream(-1, 16)));
+        assertThrows(InvalidObjectException.class,
+                () -> new TableMap<>().readEntries(tableStream(1, 0)));
+    }
+
+    @Test
+    public void shouldBoundTheTableCapacityReadFromTheStream()
+            throws IOException, ClassNotFoundException {
+        TableMap<Integer, String> map = new TableMap<>();
+
+        map.readEntries(tableStream(1, 1 << 30, 1, "one"));
+
+        assertEquals("one", map.get(1));
+        assertEquals(AbstractEntryMap.MAX_STREAM_SLACK, map.getInternalState().array.length);
+
+        TableMap<Integer, String> presized = new TableMap<>(100);
+        presized.put(1, "one");
+        assertEquals(presized.getInternalState().array.length,
+                copy(presized).getInternalState().array.length);
+    }
+
+    @Test
+    public void shouldNotPresizeFromTheCountsReadFromTheStream() throws IOException {
+        // would allocate gigabytes if trusted
+        assertThrows(IOException.class,
+                () -> new TableMap<>().readEntries(tableStream(1 << 29, 1 << 30)));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeInt(Integer.MAX_VALUE);
+            out.writeObject("only one");
+        }
+        assertThrows(IOException.class, () -> SerializedForm.readArray(
+                new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+    }
+
+    @Test
+    public void shouldGrowTheArraysWhileReadingThem() throws IOException, ClassNotFoundException {
+        Object[] array = IntStream.range(0, SerializedForm.MAX_PREALLOCATION * 3 + 1)
+                .boxed().toArray();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            SerializedForm.writeArray(out, array);
+        }
+
+        Object[] read = SerializedForm.readArray(
+                new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertTrue(Arrays.equals(array, read));
+    }
+
+    @Test
+    public void shouldRejectStreamsOfTheFormerSerializedForm() {
+        assertThrows(InvalidClassException.class,
+                () -> readWithFormerVersion(new ArraySet<>("a", "b")));
+        assertThrows(InvalidClassException.class,
+                () -> readWithFormerVersion(new SmallSet<>("a", "b")));
+        assertThrows(InvalidClassException.class,
+                () -> readWithFormerVersion(new SmallList<>("a", "b")));
+    }
+
+    /** Reads the object from a stream where its serialVersionUID is replaced by 1. */
+    private static Object readWithFormerVersion(Object object)
+            throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        byte[] array = bytes.toByteArray();
+        byte[] name = object.getClass().getName().getBytes(StandardCharsets.UTF_8);
+        // the class descriptor is the class name followed by the serialVersionUID
+        int uid = 0;
+        while (!Arrays.equals(array, uid, uid + name.length, name, 0, name.length)) {
+            uid++;
+        }
+        uid += name.length;
+        ByteBuffer.wrap(array, uid, Long.BYTES).putLong(1L);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(array))) {
+            return in.readObject();
+        }
+    }
+
+    @Test
+    public void shouldSerializeImmutableLinkedTableSetKeepingOrder() {
+        ImmutableLinkedTableSet<Integer> set = ImmutableLinkedTableSet.of(5, 3, 9, 1);
+
+        ImmutableLinkedTableSet<Integer> copy = copy(set);
+        ImmutableLinkedTableSet<Integer> perfectHashed = copy(set.perfectHashed());
+
+        assertEquals(Arrays.asList(5, 3, 9, 1), Arrays.asList(copy.toArray()));
+        assertEquals(2, copy.indexOf(9));
+        assertEquals(Arrays.asList(5, 3, 9, 1), Arrays.asList(perfectHashed.toArray()));
+        assertEquals(2, perfectHashed.indexOf(9));
+        assertTrue(ImmutableLinkedTableSet.empty() == copy(ImmutableLinkedTableSet.empty()));
+    }
+
+    @Test
+    public void shouldSerializeLists() {
+        List<String> expected = Arrays.asList("a", "b", "c");
+
+        assertEquals(expected, copy(new SmallList<>("a", "b", "c")));
+        assertEquals(expected, copy(new ImmutableSmallList<>("a", "b", "c")));
+        assertEquals(expected, copy(ImmutableList.of("a", "b", "c")));
+        assertEquals(0, copy(new SmallList<>()).size());
+    }
+
+    @Test
+    public void shouldSerializeMatrix() {
+        Matrix<String, Integer> matrix = Matrix.<String, Integer>rowBuilder()
+                .keys("a", "b", "c")
+                .row(1, 2, 3)
+                .row(4, 5, 6)
+                .build();
+
+        Matrix<String, Integer> copy = copy(matrix);
+
+        assertEquals(matrix, copy);
+        assertEquals(5, copy.getByKey("b", 1));
+        assertEquals(3, copy.getRelationValue("a", "c", 1));
+    }
+
+    @Test
+    public void shouldSerializeColumnMajorMatrix() {
+        Matrix<String, Integer> matrix = Matrix.<String, Integer>rowBuilder()
+                .keys("a", "b", "c")
+                .row(1, 2, 3)
+                .row(4, 5, 6)
+                .columnMajor()
+                .build();
+
+        Matrix<String, Integer> copy = copy(matrix);
+
+        assertTrue(copy.isColumnMajor());
+        assertEquals(matrix, copy);
+        assertEquals(5, copy.getByKey("b", 1));
+        assertEquals(3, copy.getRelationValue("a", "c", 1));
+    }
+
+    @Test
+    public void shouldSerializePrimitiveMatrix() {
+        IntMatrix<String> matrix = new IntMatrix<String>(Arrays.asList("a", "b"), 2, true)
+                .setRow(0, 1, 2)
+                .setRow(1, 3, 4);
+
+        IntMatrix<String> copy = copy(matrix);
+
+        assertTrue(copy.isColumnMajor());
+        assertEquals(matrix, copy);
+        assertEquals(3, copy.getByKey("a", 1));
+    }
+
+    @Test
+    public void shouldSerializeMultiMap() {
+        MultiMap<String, Integer> map = new MultiMap<>();
+        map.add(1, "a", "x");
+        map.add(2, "a", "y");
+        map.add(3, "b", "y");
+
+        MultiMap<String, Integer> copy = copy(map);
+
+        assertEquals(3, copy.size());
+        assertEquals(Utils.setOf(1, 2), copy.getAll("a", null));
+        assertEquals(Utils.setOf(2, 3), copy.getAll(null, "y"));
+        assertEquals(2, copy.getAny("a", "y"));
+    }
+}
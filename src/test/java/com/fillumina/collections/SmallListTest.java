@@ -0,0 +1,113 @@
+package com.fillumina.collections;
+
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class SmallListTest {
+
+    @Test
+    public void shouldBuildAList() {
+        SmallList.Builder<Integer> builder = SmallList.builder(2);
+        for (int i = 0; i < 100; i++) {
+            builder.add(i);
+        }
+        builder.addAll(Arrays.asList(100, 101)).addAll(102, 103);
+        assertEquals(104, builder.size());
+
+        SmallList<Integer> list = builder.build();
+        assertEquals(104, list.size());
+        for (int i = 0; i < 104; i++) {
+            assertEquals(i, list.get(i));
+        }
+    }
+
+    @Test
+    public void shouldResetTheBuilderAfterBuilding() {
+        SmallList.Builder<String> builder = SmallList.builder();
+        SmallList<String> first = builder.add("a").add("b").build();
+        SmallList<String> second = builder.add("c").build();
+
+        assertEquals(Arrays.asList("a", "b"), first);
+        assertEquals(Arrays.asList("c"), second);
+        assertTrue(builder.build().isEmpty());
+    }
+
+    @Test
+    public void shouldBuildAnImmutableList() {
+        ImmutableSmallList<String> list = SmallList.<String>builder()
+                .add("a").add("b").buildImmutable();
+
+        assertEquals(Arrays.asList("a", "b"), list);
+        assertThrows(UnsupportedOperationException.class, () -> list.add("c"));
+    }
+
+    @Test
+    public void shouldNotAcceptNullsInBuilder() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SmallList.<String>builder().add(null));
+    }
+
+    @Test
+    public void shouldAddAll() {
+        SmallList<String> list = new SmallList<>("a");
+
+        assertTrue(list.addAll(Arrays.asList("b", "c")));
+        assertFalse(list.addAll(Arrays.asList()));
+        assertEquals(Arrays.asList("a", "b", "c"), list);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> list.addAll(Arrays.asList("d", null)));
+        assertEquals(3, list.size());
+    }
+
+    @Test
+    public void shouldRemoveIf() {
+        SmallList.Builder<Integer> builder = SmallList.builder();
+        for (int i = 0; i < 150; i++) {
+            builder.add(i);
+        }
+        SmallList<Integer> list = builder.build();
+
+        assertTrue(list.removeIf(i -> i % 3 == 0));
+        assertEquals(100, list.size());
+        assertEquals(1, list.get(0));
+        assertEquals(2, list.get(1));
+        assertEquals(4, list.get(2));
+        assertEquals(149, list.get(99));
+
+        assertFalse(list.removeIf(i -> i % 3 == 0));
+        assertTrue(list.removeIf(i -> true));
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void shouldRemoveAllAndRetainAll() {
+        SmallList<Integer> list = new SmallList<>(1, 2, 3, 4, 5, 2);
+
+        assertTrue(list.removeAll(Arrays.asList(2, 4)));
+        assertEquals(Arrays.asList(1, 3, 5), list);
+
+        assertTrue(list.retainAll(Arrays.asList(3, 5, 7)));
+        assertEquals(Arrays.asList(3, 5), list);
+        assertFalse(list.retainAll(Arrays.asList(3, 5)));
+    }
+
+    @Test
+    public void shouldNotModifyTheImmutableCloneWhenSorting() {
+        SmallList<Integer> list = new SmallList<>(3, 1, 2);
+        List<Integer> immutable = list.immutable();
+        list.sort();
+
+        assertEquals(Arrays.asList(1, 2, 3), list);
+        assertEquals(Arrays.asList(3, 1, 2), immutable);
+    }
+}
@@ -1,8 +1,10 @@
 package com.fillumina.collections;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -133,4 +135,119 @@ public class SmallSetTest extends AbstractSetTest {
         assertTrue(clone.contains(2));
         assertFalse(smallSet.contains(2));
     }
+
+    @Test
+    public void shouldUseFingerprintsToAvoidEquals() {
+        Utils.assertFingerprintsAvoidEquals(
+                new SmallSet<Utils.CountingKey>().withFingerprints(), SmallSet::immutable);
+    }
+
+    @Test
+    public void shouldKeepFingerprintsSwitchingBetweenSingleElementAndArray() {
+        // a single element is kept without the array and its fingerprints
+        SmallSet<String> set = new SmallSet<>("b").withFingerprints();
+        set.add("a");
+        set.add("c");
+        set.sort();
+        assertEquals("a", set.get(0));
+        assertEquals(1, set.indexOf("b"));
+
+        set.remove("a");
+        set.remove("c");
+        assertEquals("b", set.get(0));
+        assertFalse(set.contains("a"));
+
+        set.add("d");
+        assertTrue(set.contains("d"));
+        assertTrue(set.contains("b"));
+        assertFalse(set.contains("c"));
+        assertTrue(new SmallSet<>(set).contains("d"));
+    }
+
+    @Test
+    public void shouldRemoveDuplicatesInBulkKeepingFirstOccurrence() {
+        Integer[] array = new Integer[100];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = (i * 7) % 30;
+        }
+        SmallSet<Integer> set = new SmallSet<>(array);
+
+        assertEquals(30, set.size());
+        assertEquals(0, set.get(0));
+        assertEquals(7, set.get(1));
+        assertEquals(14, set.get(2));
+        assertEquals(0, array[30], "the original array must not be modified");
+    }
+
+    @Test
+    public void shouldNotShareTheArrayOfTheCaller() {
+        String[] array = new String[] { "a", "b", "c" };
+        SmallSet<String> set = new SmallSet<>(array);
+        array[0] = "z";
+
+        assertEquals("a", set.get(0));
+    }
+
+    @Test
+    public void shouldCopyASetWithoutChecks() {
+        Set<Integer> other = new LinkedHashSet<>();
+        for (int i = 0; i < 20; i++) {
+            other.add(i);
+        }
+        SmallSet<Integer> set = new SmallSet<>(other);
+
+        assertEquals(20, set.size());
+        assertEquals(19, set.get(19));
+    }
+
+    @Test
+    public void shouldAddAllInBulk() {
+        SmallSet<Integer> set = new SmallSet<>(1, 2, 3);
+        List<Integer> list = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            list.add(i % 25);
+        }
+
+        assertTrue(set.addAll(list));
+        assertEquals(25, set.size());
+        assertEquals(1, set.get(0));
+        assertEquals(2, set.get(1));
+        assertEquals(3, set.get(2));
+        assertEquals(0, set.get(3));
+        assertEquals(4, set.get(4));
+
+        assertFalse(set.addAll(Arrays.asList(5, 6, 7)));
+        assertFalse(set.addAll(Arrays.asList()));
+        assertEquals(25, set.size());
+    }
+
+    @Test
+    public void shouldAddAllToASingleElementSet() {
+        SmallSet<String> set = new SmallSet<>("a");
+
+        assertTrue(set.addAll(Arrays.asList("a", "b", "b")));
+        assertEquals(2, set.size());
+        assertEquals("[a, b]", set.toString());
+    }
+
+    @Test
+    public void shouldNotAddAllNulls() {
+        SmallSet<String> set = new SmallSet<>("a");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> set.addAll(Arrays.asList("b", null)));
+        assertEquals(1, set.size());
+    }
+
+    @Test
+    public void shouldKeepFingerprintsAfterAddAll() {
+        SmallSet<String> set = new SmallSet<String>().withFingerprints();
+        set.addAll(Arrays.asList("a", "b", "c", "d", "e", "f", "g", "h", "i", "j"));
+
+        assertTrue(set.contains("j"));
+        assertFalse(set.contains("z"));
+        set.remove("e");
+        assertFalse(set.contains("e"));
+        assertTrue(set.contains("f"));
+    }
 }
@@ -1,5 +1,9 @@
 package com.fillumina.collections;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -219,4 +223,93 @@ public class SortedArrayMapTest extends AbstractArrayMapTestHelper {
         assertTrue(anotherImmutable == immutable);
     }
 
+    @Test
+    public void shouldPutAllFromSortedArrayMap() {
+        SortedArrayMap<Integer,String> map = new SortedArrayMap<>(1, "one", 3, "three", 5, "five");
+        SortedArrayMap<Integer,String> other = new SortedArrayMap<>(2, "two", 3, "THREE", 4, "four");
+
+        map.putAll(other);
+
+        assertArrayEquals(new Object[] {1, "one", 2, "two", 3, "THREE", 4, "four", 5, "five"},
+                map.toArray());
+        assertEquals(3, other.size());
+    }
+
+    @Test
+    public void shouldPutAllFromUnsortedMap() {
+        SortedArrayMap<Integer,String> map = new SortedArrayMap<>(2, "two");
+        Map<Integer,String> other = new HashMap<>();
+        other.put(3, "three");
+        other.put(1, "one");
+        other.put(2, "TWO");
+
+        map.putAll(other);
+
+        assertArrayEquals(new Object[] {1, "one", 2, "TWO", 3, "three"}, map.toArray());
+    }
+
+    @Test
+    public void shouldPutAllFromSortedMap() {
+        SortedArrayMap<Integer,String> map = new SortedArrayMap<>();
+        TreeMap<Integer,String> other = new TreeMap<>();
+        other.put(3, "three");
+        other.put(1, "one");
+
+        map.putAll(other);
+
+        assertArrayEquals(new Object[] {1, "one", 3, "three"}, map.toArray());
+    }
+
+    @Test
+    public void shouldPutAllUsingResolver() {
+        SortedArrayMap<Integer,String> map = new SortedArrayMap<>(1, "a", 2, "b");
+
+        map.putAll(new SortedArrayMap<>(2, "c", 3, "d"), (a, b) -> a + b);
+
+        assertArrayEquals(new Object[] {1, "a", 2, "bc", 3, "d"}, map.toArray());
+    }
+
+    @Test
+    public void shouldNotPutAllIntoImmutable() {
+        SortedArrayMap<Integer,String> map = ImmutableSortedArrayMap.of(1, "one");
+
+        assertThrows(UnsupportedOperationException.class,
+            () -> map.putAll(new SortedArrayMap<>(2, "two")));
+    }
+
+    @Test
+    public void shouldMergeMaps() {
+        SortedArrayMap<Integer,String> a = new SortedArrayMap<>(1, "a1", 4, "a4", 7, "a7");
+        SortedArrayMap<Integer,String> b = new SortedArrayMap<>(2, "b2", 4, "b4");
+        SortedArrayMap<Integer,String> c = new SortedArrayMap<>(0, "c0", 4, "c4", 9, "c9");
+
+        SortedArrayMap<Integer,String> merged = SortedArrayMap.merge(a, b, c);
+
+        assertArrayEquals(new Object[] {0, "c0", 1, "a1", 2, "b2", 4, "c4", 7, "a7", 9, "c9"},
+                merged.toArray());
+    }
+
+    @Test
+    public void shouldMergeMapsUsingResolver() {
+        SortedArrayMap<Integer,String> a = new SortedArrayMap<>(1, "a", 4, "a");
+        SortedArrayMap<Integer,String> b = new SortedArrayMap<>();
+        SortedArrayMap<Integer,String> c = new SortedArrayMap<>(4, "b", 5, "b");
+        SortedArrayMap<Integer,String> d = new SortedArrayMap<>(4, "c");
+
+        SortedArrayMap<Integer,String> merged =
+                SortedArrayMap.merge((x, y) -> x + y, a, b, c, d);
+
+        assertArrayEquals(new Object[] {1, "a", 4, "abc", 5, "b"}, merged.toArray());
+    }
+
+    @Test
+    public void shouldMergeEmptyMaps() {
+        SortedArrayMap<Integer,String> empty = new SortedArrayMap<>();
+        SortedArrayMap<Integer,String> merged = SortedArrayMap.merge(empty, empty);
+
+        assertTrue(merged.isEmpty());
+        merged.put(1, "one");
+        assertEquals("one", merged.get(1));
+    }
+
 }
@@ -461,4 +461,136 @@ public class TableMapTest {
         assertEquals("one", map.getOrCreate(1, () -> "one"));
         assertEquals("one", map.get(1));
     }
+
+    @Test
+    public void shouldNotModifyImmutableSnapshotAfterWrites() {
+        TableMap<Integer,String> map = new TableMap<>();
+        IntStream.range(0, 100).forEach(i -> map.put(i, "" + i));
+
+        ImmutableTableMap<Integer,String> snapshot = map.immutable();
+
+        map.put(1, "one");
+        map.remove(2);
+        IntStream.range(100, 200).forEach(i -> map.put(i, "" + i));
+
+        assertEquals(100, snapshot.size());
+        assertEquals("1", snapshot.get(1));
+        assertEquals("2", snapshot.get(2));
+        assertNull(snapshot.get(150));
+
+        assertEquals(199, map.size());
+        assertEquals("one", map.get(1));
+        assertNull(map.get(2));
+    }
+
+    @Test
+    public void shouldReturnTheSameSnapshotIfNotModified() {
+        TableMap<Integer,String> map = new TableMap<>();
+        map.put(1, "1");
+
+        ImmutableTableMap<Integer,String> snapshot = map.immutable();
+        assertTrue(snapshot == map.immutable());
+
+        map.put(2, "2");
+        ImmutableTableMap<Integer,String> other = map.immutable();
+        assertFalse(snapshot == other);
+        assertEquals(1, snapshot.size());
+        assertEquals(2, other.size());
+    }
+
+    @Test
+    public void shouldNotCopyTheSnapshotStateWhenReading() {
+        TableMap<Integer,String> map = new TableMap<>();
+        IntStream.range(0, 100).forEach(i -> map.put(i, "" + i));
+        ImmutableTableMap<Integer,String> snapshot = map.immutable();
+
+        int count = 0;
+        for (Entry<Integer,String> e : map.entrySet()) {
+            count++;
+        }
+        map.keySet().forEach(k -> {});
+        map.values().forEach(v -> {});
+        assertEquals(100, count);
+        assertFalse(map.toString().isEmpty());
+        assertEquals(snapshot.hashCode(), map.hashCode());
+        assertTrue(map.equals(snapshot));
+
+        assertTrue(snapshot == map.immutable());
+    }
+
+    @Test
+    public void shouldNotModifyTheSnapshotWhenRemovingByIterator() {
+        TableMap<Integer,String> map = new TableMap<>();
+        IntStream.range(0, 10).forEach(i -> map.put(i, "" + i));
+        ImmutableTableMap<Integer,String> snapshot = map.immutable();
+
+        Iterator<Integer> iterator = map.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(5, map.size());
+        assertNull(map.get(4));
+        assertEquals(10, snapshot.size());
+        assertEquals("4", snapshot.get(4));
+        assertFalse(snapshot == map.immutable());
+    }
+
+    @Test
+    public void shouldSetValueOfFrozenEntries() {
+        TableMap<Integer,String> map = new TableMap<>();
+        map.put(1, "1");
+        ImmutableTableMap<Integer,String> snapshot = map.immutable();
+
+        Entry<Integer,String> entry = map.entrySet().iterator().next();
+        assertEquals("1", entry.setValue("one"));
+
+        assertEquals("one", map.get(1));
+        assertEquals("1", snapshot.get(1));
+    }
+
+    @Test
+    public void shouldSetValueOfAFrozenEntryGotByKey() {
+        TableMap<Integer,String> map = new TableMap<>();
+        map.put(1, "1");
+        map.put(2, "2");
+        ImmutableTableMap<Integer,String> snapshot = map.immutable();
+
+        assertEquals("1", map.getEntry(1).setValue("one"));
+
+        assertEquals("one", map.get(1));
+        assertEquals("1", snapshot.get(1));
+
+        // the entry of 2 is still frozen
+        map.retainAll(Arrays.asList(2));
+        map.put(2, "two");
+        assertEquals("two", map.get(2));
+        assertEquals(1, map.size());
+        assertEquals("2", snapshot.get(2));
+        assertEquals(2, snapshot.size());
+    }
+
+    @Test
+    public void shouldNotSetValueOfSnapshotEntries() {
+        TableMap<Integer,String> map = new TableMap<>();
+        map.put(1, "1");
+        ImmutableTableMap<Integer,String> snapshot = map.immutable();
+
+        Entry<Integer,String> entry = snapshot.entrySet().iterator().next();
+        assertThrows(UnsupportedOperationException.class, () -> entry.setValue("one"));
+    }
+
+    @Test
+    public void shouldCloneBiMapSnapshot() {
+        BiMap<Integer,String> map = new BiMap<>();
+        map.put(1, "1");
+        ImmutableTableMap<Integer,String> snapshot = map.immutable();
+
+        map.put(1, "one");
+
+        assertEquals("1", snapshot.get(1));
+        assertEquals(1, map.inverse().get("one"));
+    }
 }
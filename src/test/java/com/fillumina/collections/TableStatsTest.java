@@ -0,0 +1,123 @@
+package com.fillumina.collections;
+
+import java.util.Arrays;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author Francesco Illuminati <fillumina@gmail.com>
+ */
+public class TableStatsTest {
+
+    /** All the instances have the same hash code. */
+    static class BadKey {
+        private final int value;
+
+        BadKey(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 42;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof BadKey && ((BadKey) obj).value == value;
+        }
+    }
+
+    @Test
+    public void shouldReportAnEmptyMap() {
+        TableStats stats = new TableMap<Integer, String>().tableStats();
+
+        assertEquals(0, stats.getSize());
+        assertEquals(0, stats.getLoadFactor());
+        assertEquals(0, stats.getMaxProbeLength());
+        assertEquals(0, stats.getLongestCluster());
+        assertEquals(0, stats.getDisplacementHistogram().length);
+    }
+
+    @Test
+    public void shouldReportAWellDistributedMap() {
+        TableMap<Integer, String> map = new TableMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 0x9E3779B9, "" + i);
+        }
+
+        TableStats stats = map.tableStats();
+
+        assertEquals(1000, stats.getSize());
+        assertEquals(1000 / (double) stats.getCapacity(), stats.getLoadFactor());
+        assertTrue(stats.getLoadFactor() <= 0.5);
+        assertTrue(stats.getAverageProbeLength() < 2, stats.toString());
+        assertTrue(stats.getAverageMissProbeLength() < 3, stats.toString());
+        assertEquals(1000, Arrays.stream(stats.getDisplacementHistogram()).sum());
+        assertEquals(stats.getMaxProbeLength(), stats.getDisplacementHistogram().length);
+    }
+
+    @Test
+    public void shouldDetectClusteringOfSequentialKeys() {
+        TableMap<Integer, String> map = new TableMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "" + i);
+        }
+
+        TableStats stats = map.tableStats();
+
+        // each key is in its home slot but missing keys must scan very long clusters
+        assertEquals(1, stats.getMaxProbeLength());
+        assertTrue(stats.getLongestCluster() > 500, stats.toString());
+        assertTrue(stats.getAverageMissProbeLength() > 100, stats.toString());
+    }
+
+    @Test
+    public void shouldDetectABadHashCode() {
+        TableMap<BadKey, Integer> map = new TableMap<>();
+        for (int i = 0; i < 50; i++) {
+            map.put(new BadKey(i), i);
+        }
+
+        TableStats stats = map.tableStats();
+
+        assertEquals(50, stats.getSize());
+        assertEquals(1, stats.getClusters());
+        assertEquals(50, stats.getLongestCluster());
+        assertEquals(50, stats.getMaxProbeLength());
+        assertEquals(25.5, stats.getAverageProbeLength());
+        for (int d = 0; d < 50; d++) {
+            assertEquals(1, stats.getDisplacementCount(d));
+        }
+        assertEquals(0, stats.getDisplacementCount(50));
+    }
+
+    @Test
+    public void shouldComputeTheMissProbeLength() {
+        TableMap<BadKey, Integer> map = new TableMap<>(4);
+        map.put(new BadKey(1), 1);
+        map.put(new BadKey(2), 2);
+        map.put(new BadKey(3), 3);
+
+        TableStats stats = map.tableStats();
+
+        // 8 slots: a cluster of 3 (4 + 3 + 2 probes) and 5 empty slots (1 probe each)
+        assertEquals(8, stats.getCapacity());
+        assertEquals(14 / 8.0, stats.getAverageMissProbeLength());
+    }
+
+    @Test
+    public void shouldReportTheCurrentStateOfALiveMap() {
+        TableMap<BadKey, Integer> map = new TableMap<>();
+        map.put(new BadKey(1), 1);
+        map.put(new BadKey(2), 2);
+        assertEquals(2, map.tableStats().getMaxProbeLength());
+
+        map.remove(new BadKey(1));
+
+        assertEquals(1, map.tableStats().getMaxProbeLength());
+        assertEquals(1, map.tableStats().getSize());
+    }
+}
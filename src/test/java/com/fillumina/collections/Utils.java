@@ -4,7 +4,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  *
@@ -32,4 +37,53 @@ class Utils {
         return Collections.unmodifiableMap(map);
     }
 
+    /**
+     * Fills an empty set using fingerprints with ten keys, removes one of them and checks that
+     * the searches of the set and of its immutable clone call {@code equals()} only on the
+     * elements having the same fingerprint.
+     */
+    static <S extends Set<CountingKey>> void assertFingerprintsAvoidEquals(S set,
+            Function<S, Set<CountingKey>> immutableClone) {
+        for (int i = 0; i < 10; i++) {
+            set.add(new CountingKey("key" + i));
+        }
+        set.remove(new CountingKey("key5"));
+        final Set<CountingKey> immutable = immutableClone.apply(set);
+
+        CountingKey.equalsCalls = 0;
+        assertTrue(set.contains(new CountingKey("key7")));
+        assertTrue(immutable.contains(new CountingKey("key7")));
+        assertFalse(set.contains(new CountingKey("key5")));
+        assertFalse(immutable.contains(new CountingKey("missing")));
+        assertTrue(CountingKey.equalsCalls < 5);
+        assertEquals(9, set.size());
+    }
+
+    /** A key that counts how many times its {@code equals()} is called. */
+    static class CountingKey {
+        static int equalsCalls;
+
+        private final String value;
+
+        CountingKey(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            equalsCalls++;
+            return obj instanceof CountingKey &&
+                    Objects.equals(value, ((CountingKey) obj).value);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
 }